@@ -0,0 +1,203 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.client.ResponseCache.CachedResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Non-blocking {@link ServerExchange} on the Apache HttpClient 5 async client: the request is sent
+ * from a small I/O reactor pool and the future completes when the response has arrived, so the
+ * servlet thread is released while the server works. GETs are revalidated against the
+ * {@link ResponseCache} the same way {@link ConditionalGetInterceptor} does for the blocking exchange.
+ */
+public class AsyncHttpClientExchange implements ServerExchange {
+    private final CloseableHttpAsyncClient client;
+    private final ObjectMapper objectMapper;
+    private final ResponseCache cache;
+    private final boolean passthrough;
+    private final DefaultUriBuilderFactory uriFactory;
+
+    /**
+     * @param passthrough relay response bodies as the server's bytes instead of parsing them into
+     *                    {@code Object} trees that are serialized again for the client
+     */
+    public AsyncHttpClientExchange(CloseableHttpAsyncClient client, ObjectMapper objectMapper, ResponseCache cache,
+                                   boolean passthrough) {
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.cache = cache;
+        this.passthrough = passthrough;
+        // Same template expansion and encoding as RestTemplate
+        this.uriFactory = new DefaultUriBuilderFactory();
+        this.uriFactory.setEncodingMode(DefaultUriBuilderFactory.EncodingMode.URI_COMPONENT);
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<Object>> exchange(HttpMethod method, String url, @Nullable Long userId,
+                                                              @Nullable Map<String, Object> parameters,
+                                                              @Nullable Object body) {
+        URI uri = uriFactory.expand(url, parameters == null ? Map.of() : parameters);
+        String user = String.valueOf(userId);
+        CachedResponse cached = method == HttpMethod.GET ? cache.lookup(user, uri) : null;
+
+        SimpleHttpRequest request;
+        try {
+            request = request(method, uri, userId, body, cached);
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture(internalError(e));
+        }
+
+        CompletableFuture<ResponseEntity<Object>> result = new CompletableFuture<>();
+        client.execute(request, new FutureCallback<>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                try {
+                    result.complete(toResponseEntity(method, user, uri, cached, response));
+                } catch (IOException e) {
+                    result.complete(internalError(e));
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                result.complete(internalError(e));
+            }
+
+            @Override
+            public void cancelled() {
+                result.complete(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body("Internal server error: request cancelled"));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * The future completes once the server's status line and headers have arrived; the body is then
+     * copied to the client on the MVC async executor while the reactor keeps receiving it. A transfer not
+     * copied to the end, or not at all once the client's request is over, is aborted with its connection.
+     */
+    @Override
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> stream(String url, @Nullable Long userId) {
+        SimpleRequestBuilder builder = SimpleRequestBuilder.get(uriFactory.expand(url))
+                .addHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE + ", "
+                        + MediaType.APPLICATION_JSON_VALUE);
+        if (userId != null) {
+            builder.addHeader(ConditionalGetInterceptor.USER_HEADER, String.valueOf(userId));
+        }
+        StreamingResponseConsumer consumer = new StreamingResponseConsumer();
+        HttpClientContext context = HttpClientContext.create();
+        Future<Void> transfer = client.execute(SimpleRequestProducer.create(builder.build()), consumer, context, null);
+        // Once the body has been copied the connection is the pool's again
+        AtomicBoolean transferred = new AtomicBoolean();
+        Runnable abort = () -> {
+            if (!transferred.get()) {
+                transfer.cancel(true);
+                ExchangeAbort.abort(context);
+            }
+        };
+        RelayRelease.onRequestCompletion(abort);
+
+        return consumer.head().handle((response, e) -> {
+            if (e != null) {
+                abort.run();
+                return streamedError(e);
+            }
+            StreamingResponseBody body = out -> {
+                try {
+                    consumer.transferTo(out);
+                    transferred.set(true);
+                } finally {
+                    abort.run();
+                }
+            };
+            return ResponseEntity.status(response.getCode())
+                    .headers(ServerExchange.relayedHeaders(response))
+                    .body(body);
+        });
+    }
+
+    private SimpleHttpRequest request(HttpMethod method, URI uri, @Nullable Long userId, @Nullable Object body,
+                                      @Nullable CachedResponse cached) throws IOException {
+        SimpleRequestBuilder builder = SimpleRequestBuilder.create(method.name())
+                .setUri(uri)
+                .addHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        if (userId != null) {
+            builder.addHeader(ConditionalGetInterceptor.USER_HEADER, String.valueOf(userId));
+        }
+        if (cached != null) {
+            builder.addHeader(HttpHeaders.IF_NONE_MATCH, cached.etag());
+        }
+        if (body != null) {
+            builder.setBody(objectMapper.writeValueAsBytes(body), ContentType.APPLICATION_JSON);
+        }
+        return builder.build();
+    }
+
+    private ResponseEntity<Object> toResponseEntity(HttpMethod method, String user, URI uri,
+                                                    @Nullable CachedResponse cached,
+                                                    SimpleHttpResponse response) throws IOException {
+        HttpStatusCode status = HttpStatusCode.valueOf(response.getCode());
+        if (cached != null && status.isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            cache.recordNotModified();
+            return toResponseEntity(cached.status(), cached.headers(), cached.body());
+        }
+        if (cached != null) {
+            cache.recordModified();
+        }
+
+        HttpHeaders headers = ServerExchange.relayedHeaders(response);
+        byte[] content = response.getBodyBytes() == null ? new byte[0] : response.getBodyBytes();
+        if (!status.is2xxSuccessful()) {
+            return ResponseEntity.status(status).body(content);
+        }
+        if (method == HttpMethod.GET && headers.getETag() != null) {
+            cache.store(user, uri, new CachedResponse(headers.getETag(), status,
+                    HttpHeaders.readOnlyHttpHeaders(headers), content));
+        }
+        return toResponseEntity(status, headers, content);
+    }
+
+    private ResponseEntity<Object> toResponseEntity(HttpStatusCode status, HttpHeaders headers, byte[] content)
+            throws IOException {
+        if (content.length == 0) {
+            return new ResponseEntity<>(headers, status);
+        }
+        Object body = passthrough ? content : objectMapper.readValue(content, Object.class);
+        return new ResponseEntity<>(body, headers, status);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> streamedError(Throwable e) {
+        byte[] message = ("Internal server error: " + e.getMessage()).getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(out -> out.write(message));
+    }
+
+    private static ResponseEntity<Object> internalError(Exception e) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Internal server error: " + e.getMessage());
+    }
+}
@@ -2,91 +2,78 @@ package ru.practicum.shareit.client;
 
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class BaseClient {
-    protected final RestTemplate rest;
+    protected final ServerExchange exchange;
     protected final String serverUrl;
 
-    public BaseClient(RestTemplate rest, String serverUrl) {
-        this.rest = rest;
+    public BaseClient(ServerExchange exchange, String serverUrl) {
+        this.exchange = exchange;
         this.serverUrl = serverUrl;
     }
 
-    protected ResponseEntity<Object> get(String path, @Nullable Long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, @Nullable Long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, @Nullable Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> get(String path, @Nullable Long userId,
+                                                            @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected ResponseEntity<Object> post(String path, Long userId, Object body) {
+    protected CompletableFuture<ResponseEntity<Object>> post(String path, Long userId, Object body) {
         return post(path, userId, null, body);
     }
 
-    protected ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, Object body) {
+    protected CompletableFuture<ResponseEntity<Object>> post(String path, Long userId,
+                                                             @Nullable Map<String, Object> parameters, Object body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> patch(String path, Long userId, Object body) {
+    protected CompletableFuture<ResponseEntity<Object>> patch(String path, Long userId, Object body) {
         return patch(path, userId, null, body);
     }
 
-    protected ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, Object body) {
+    protected CompletableFuture<ResponseEntity<Object>> patch(String path, Long userId,
+                                                              @Nullable Map<String, Object> parameters, Object body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> put(String path, Long userId, Object body) {
+    protected CompletableFuture<ResponseEntity<Object>> put(String path, Long userId, Object body) {
         return put(path, userId, null, body);
     }
 
-    protected ResponseEntity<Object> put(String path, Long userId, @Nullable Map<String, Object> parameters, Object body) {
+    protected CompletableFuture<ResponseEntity<Object>> put(String path, Long userId,
+                                                            @Nullable Map<String, Object> parameters, Object body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, Long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<Object>> delete(String path, Long userId,
+                                                               @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, @Nullable Long userId,
-                                                      @Nullable Map<String, Object> parameters, @Nullable Object body) {
-        String url = serverUrl + path;
-        HttpEntity<Object> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
-
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null && !parameters.isEmpty()) {
-                shareitServerResponse = rest.exchange(url, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(url, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode())
-                    .body(e.getResponseBodyAsByteArray());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Internal server error: " + e.getMessage());
-        }
-        return prepareGatewayResponse(shareitServerResponse);
+    /**
+     * GETs {@code path} and relays the body to the client as the server writes it.
+     */
+    protected CompletableFuture<ResponseEntity<StreamingResponseBody>> stream(String path, @Nullable Long userId) {
+        return exchange.stream(serverUrl + path, userId);
     }
 
-    private HttpHeaders defaultHeaders(@Nullable Long userId) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-        if (userId != null) {
-            headers.set("X-Sharer-User-Id", String.valueOf(userId));
-        }
-        return headers;
+    private CompletableFuture<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path,
+                                                                         @Nullable Long userId,
+                                                                         @Nullable Map<String, Object> parameters,
+                                                                         @Nullable Object body) {
+        return exchange.exchange(method, serverUrl + path, userId, parameters, body)
+                .thenApply(BaseClient::prepareGatewayResponse);
     }
 
     private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
@@ -102,4 +89,4 @@ public class BaseClient {
 
         return responseBuilder.build();
     }
-}
\ No newline at end of file
+}
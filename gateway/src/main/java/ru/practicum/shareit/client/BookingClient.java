@@ -4,51 +4,67 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplate restTemplate) {
-        super(restTemplate, serverUrl + API_PREFIX);
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, ServerExchange exchange) {
+        super(exchange, serverUrl + API_PREFIX);
     }
 
-    public ResponseEntity<Object> getBookings(long userId, String state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state,
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public CompletableFuture<ResponseEntity<Object>> getBookings(long userId, String state, Integer from, Integer size, String cursor) {
+        return get("?" + pageQuery(cursor), userId, pageParameters(state, from, size, cursor));
     }
 
-    public ResponseEntity<Object> getAllByOwner(long userId, String state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state,
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    public CompletableFuture<ResponseEntity<Object>> getAllByOwner(long userId, String state, Integer from, Integer size, String cursor) {
+        return get("/owner?" + pageQuery(cursor), userId, pageParameters(state, from, size, cursor));
     }
 
-    public ResponseEntity<Object> bookItem(long userId, Object requestDto) {
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> exportByOwner(long userId) {
+        return stream("/owner/export", userId);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> bookItem(long userId, Object requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> approveBooking(long userId, Long bookingId, Boolean approved) {
+    public CompletableFuture<ResponseEntity<Object>> approveBooking(long userId, Long bookingId, Boolean approved) {
         Map<String, Object> parameters = Map.of("approved", approved);
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
-    public ResponseEntity<Object> cancelBooking(long userId, Long bookingId) {
+    public CompletableFuture<ResponseEntity<Object>> approveBookings(long userId, Object requestDto) {
+        return patch("/batch", userId, requestDto);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> cancelBooking(long userId, Long bookingId) {
         return patch("/" + bookingId + "/cancel", userId, null);
     }
+
+    private static String pageQuery(String cursor) {
+        String query = "state={state}&from={from}&size={size}";
+        return cursor == null ? query : query + "&cursor={cursor}";
+    }
+
+    private static Map<String, Object> pageParameters(String state, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+        }
+        return parameters;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import ru.practicum.shareit.client.ResponseCache.CachedResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * Revalidates GET requests against the {@link ResponseCache} with {@code If-None-Match}; when the
+ * server answers {@code 304 Not Modified} the cached body is replayed instead of transferring it again.
+ * <p>
+ * The replayed response keeps the server's ETag, so a client sending a matching {@code If-None-Match}
+ * to the gateway gets a {@code 304} without the body being serialized at all.
+ */
+public class ConditionalGetInterceptor implements ClientHttpRequestInterceptor {
+    static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final ResponseCache cache;
+
+    public ConditionalGetInterceptor(ResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (request.getMethod() != HttpMethod.GET) {
+            return execution.execute(request, body);
+        }
+
+        String user = String.valueOf(request.getHeaders().getFirst(USER_HEADER));
+        URI uri = request.getURI();
+        CachedResponse cached = cache.lookup(user, uri);
+        if (cached != null) {
+            request.getHeaders().setIfNoneMatch(cached.etag());
+        }
+
+        ClientHttpResponse response = execution.execute(request, body);
+        if (cached != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            response.close();
+            cache.recordNotModified();
+            return replay(cached);
+        }
+        if (cached != null) {
+            cache.recordModified();
+        }
+
+        String etag = response.getHeaders().getETag();
+        if (etag == null || !response.getStatusCode().is2xxSuccessful()
+                || !cache.fits(response.getHeaders().getContentLength())) {
+            return response;
+        }
+
+        byte[] content;
+        try (response) {
+            content = StreamUtils.copyToByteArray(response.getBody());
+        }
+        CachedResponse loaded = new CachedResponse(etag, response.getStatusCode(),
+                HttpHeaders.readOnlyHttpHeaders(response.getHeaders()), content);
+        cache.store(user, uri, loaded);
+        return replay(loaded);
+    }
+
+    private static ClientHttpResponse replay(CachedResponse response) {
+        return new ClientHttpResponse() {
+            @Override
+            public HttpStatusCode getStatusCode() {
+                return response.status();
+            }
+
+            @Override
+            public String getStatusText() {
+                return "";
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return response.headers();
+            }
+
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(response.body());
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
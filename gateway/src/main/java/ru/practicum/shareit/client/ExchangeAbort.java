@@ -0,0 +1,41 @@
+package ru.practicum.shareit.client;
+
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecChainHandler;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+import java.io.IOException;
+
+/**
+ * First handler of the async client's exec chain, recording in each request's context how to drop its
+ * connection. Cancelling the future {@code execute} returns does not reliably do that in HttpClient 5.3:
+ * the chain may replace the exchange's cancellation with that of an earlier, finished step, such as the
+ * connection lease, after the response has started to arrive.
+ */
+public class ExchangeAbort implements AsyncExecChainHandler {
+    public static final String NAME = "exchange-abort";
+    private static final String ATTRIBUTE = ExchangeAbort.class.getName();
+
+    @Override
+    public void execute(HttpRequest request, AsyncEntityProducer entityProducer, AsyncExecChain.Scope scope,
+                        AsyncExecChain chain, AsyncExecCallback asyncExecCallback)
+            throws HttpException, IOException {
+        scope.clientContext.setAttribute(ATTRIBUTE, (Runnable) scope.execRuntime::discardEndpoint);
+        chain.proceed(request, entityProducer, scope, asyncExecCallback);
+    }
+
+    /**
+     * Closes the connection of the exchange run with {@code context}, if it still holds one, and returns
+     * it to the pool; the exchange then fails.
+     */
+    static void abort(HttpContext context) {
+        if (HttpClientContext.adapt(context).getAttribute(ATTRIBUTE) instanceof Runnable discard) {
+            discard.run();
+        }
+    }
+}
@@ -1,47 +1,131 @@
 package ru.practicum.shareit.client;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.dto.item.CommentDto;
 import ru.practicum.shareit.dto.item.CreateItemRequestDto;
+import ru.practicum.shareit.dto.item.ItemImportResultDto;
 import ru.practicum.shareit.dto.item.UpdateItemRequestDto;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    // Blocking reads of import bodies, one thread per step
+    private final Executor importReads = read -> Thread.ofVirtual().name("item-import").start(read);
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplate restTemplate) {
-        super(restTemplate, serverUrl + API_PREFIX);
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, ServerExchange exchange,
+                      ObjectMapper objectMapper, Validator validator) {
+        super(exchange, serverUrl + API_PREFIX);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
     }
 
-    public ResponseEntity<Object> createItem(Long userId, CreateItemRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> createItem(Long userId, CreateItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> updateItem(Long userId, Long itemId, UpdateItemRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> updateItem(Long userId, Long itemId, UpdateItemRequestDto requestDto) {
         return patch("/" + itemId, userId, requestDto);
     }
 
-    public ResponseEntity<Object> getItem(Long userId, Long itemId) {
+    /**
+     * Reads a JSON array or NDJSON stream of items, validates every row and sends the valid ones to the server
+     * {@value #IMPORT_CHUNK_SIZE} at a time, so the body is never held whole. Rows rejected here or by the
+     * server are reported together by their position in the body. A non-2xx answer from the server ends the
+     * import with that status: chunks sent before it stay imported and are counted in the result, whose
+     * errors mark the first row of the refused chunk as where the import stopped.
+     * <p>
+     * The request thread is released at once: the body is read on a virtual thread, and each chunk is read
+     * only when the server has answered the one before.
+     */
+    public CompletableFuture<ResponseEntity<Object>> importItems(Long userId, InputStream body) {
+        ItemImport itemImport = new ItemImport(objectMapper, validator, body, IMPORT_CHUNK_SIZE);
+        return importChunks(userId, itemImport)
+                .whenComplete((response, failure) -> itemImport.close());
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> importChunks(Long userId, ItemImport itemImport) {
+        return CompletableFuture.supplyAsync(itemImport::nextChunk, importReads)
+                .thenCompose(chunk -> {
+                    if (chunk.rows().isEmpty()) {
+                        return CompletableFuture.completedFuture(ResponseEntity.ok(itemImport.result()));
+                    }
+                    return post("/import", userId, chunk.rows()).thenCompose(response -> {
+                        if (!response.getStatusCode().is2xxSuccessful()) {
+                            itemImport.stopped(chunk, "server answered " + response.getStatusCode().value()
+                                    + ": " + errorMessage(response));
+                            return CompletableFuture.completedFuture(
+                                    ResponseEntity.status(response.getStatusCode()).body(itemImport.result()));
+                        }
+                        itemImport.imported(chunk, importResult(response));
+                        return importChunks(userId, itemImport);
+                    });
+                });
+    }
+
+    private ItemImportResultDto importResult(ResponseEntity<Object> response) {
+        if (!(response.getBody() instanceof byte[] content)) {
+            return objectMapper.convertValue(response.getBody(), ItemImportResultDto.class);
+        }
+        try {
+            return objectMapper.readValue(content, ItemImportResultDto.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String errorMessage(ResponseEntity<Object> response) {
+        if (response.getBody() instanceof byte[] content) {
+            return new String(content, StandardCharsets.UTF_8);
+        }
+        return String.valueOf(response.getBody());
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> getItem(Long userId, Long itemId) {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getUsersItems(Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getUsersItems(Long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> searchItems(String text, Long userId) {
-        Map<String, Object> parameters = Map.of("text", text);
-        return get("/search?text={text}", userId, parameters);
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> exportByOwner(Long userId) {
+        return stream("/export", userId);
+    }
+
+    public CompletableFuture<ResponseEntity<Object>> searchItems(String text, Long userId, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("text", text);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        String query = "/search?text={text}&from={from}&size={size}";
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+            query += "&cursor={cursor}";
+        }
+        return get(query, userId, parameters);
     }
 
-    public ResponseEntity<Object> addComment(Long userId, Long itemId, CommentDto commentDto) {
+    public CompletableFuture<ResponseEntity<Object>> addComment(Long userId, Long itemId, CommentDto commentDto) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import ru.practicum.shareit.dto.item.CreateItemRequestDto;
+import ru.practicum.shareit.dto.item.ItemImportErrorDto;
+import ru.practicum.shareit.dto.item.ItemImportResultDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * One import in progress: reads a JSON array or NDJSON stream of items, validates every row and hands the
+ * valid ones out a chunk at a time, collecting the errors of all rows by their position in the body.
+ * The steps of one import run one after another, possibly on different threads.
+ */
+class ItemImport {
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final InputStream body;
+    private final int chunkSize;
+    private final ItemImportResultDto result = new ItemImportResultDto(0, new ArrayList<>());
+
+    private MappingIterator<CreateItemRequestDto> rows;
+    private boolean finished;
+    private long index;
+
+    ItemImport(ObjectMapper objectMapper, Validator validator, InputStream body, int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.body = body;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads up to the next {@code chunkSize} valid rows, blocking on the body; empty once all of it is read.
+     */
+    Chunk nextChunk() {
+        Chunk chunk = new Chunk(new ArrayList<>(chunkSize), new ArrayList<>(chunkSize));
+        try {
+            if (rows == null) {
+                rows = objectMapper.readerFor(CreateItemRequestDto.class).readValues(body);
+            }
+            while (!finished && chunk.rows().size() < chunkSize) {
+                if (!rows.hasNextValue()) {
+                    finished = true;
+                    break;
+                }
+                readRow(chunk);
+                index++;
+            }
+        } catch (StreamReadException e) {
+            finished = true;
+            result.getErrors().add(new ItemImportErrorDto(index,
+                    "Malformed JSON, rows from here on were not read: " + e.getOriginalMessage()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return chunk;
+    }
+
+    /**
+     * Adds the server's outcome for a chunk, with row errors mapped back to positions in the body.
+     */
+    void imported(Chunk chunk, ItemImportResultDto imported) {
+        result.setImported(result.getImported() + imported.getImported());
+        for (ItemImportErrorDto error : imported.getErrors()) {
+            result.getErrors().add(new ItemImportErrorDto(chunk.indexes().get((int) error.getIndex()),
+                    error.getError()));
+        }
+    }
+
+    /**
+     * Ends the import at a chunk the server did not take: its first row is reported as where the import
+     * stopped, with the server's reason, so a client can resend the body from there.
+     */
+    void stopped(Chunk chunk, String reason) {
+        result.getErrors().add(new ItemImportErrorDto(chunk.indexes().get(0),
+                "Import stopped, neither this row nor any after it was imported: " + reason));
+    }
+
+    ItemImportResultDto result() {
+        result.getErrors().sort(Comparator.comparingLong(ItemImportErrorDto::getIndex));
+        return result;
+    }
+
+    void close() {
+        if (rows != null) {
+            try {
+                rows.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void readRow(Chunk chunk) throws IOException {
+        CreateItemRequestDto row;
+        try {
+            row = rows.nextValue();
+        } catch (DatabindException e) {
+            // the iterator skips the rest of this row and carries on with the next one
+            result.getErrors().add(new ItemImportErrorDto(index, "Malformed row: " + e.getOriginalMessage()));
+            return;
+        }
+        String error = validationError(row);
+        if (error != null) {
+            result.getErrors().add(new ItemImportErrorDto(index, error));
+            return;
+        }
+        chunk.rows().add(row);
+        chunk.indexes().add(index);
+    }
+
+    private String validationError(CreateItemRequestDto row) {
+        if (row == null) {
+            return "Item must be an object";
+        }
+        Set<ConstraintViolation<CreateItemRequestDto>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Valid rows with their positions in the body.
+     */
+    record Chunk(List<CreateItemRequestDto> rows, List<Long> indexes) {
+    }
+}
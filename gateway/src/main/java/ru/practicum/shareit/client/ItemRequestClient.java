@@ -3,36 +3,41 @@ package ru.practicum.shareit.client;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import ru.practicum.shareit.dto.request.ItemRequestDto;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplate rest) {
-        super(rest, serverUrl + API_PREFIX);
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, ServerExchange exchange) {
+        super(exchange, serverUrl + API_PREFIX);
     }
 
-    public ResponseEntity<Object> createItemRequest(Long userId, ItemRequestDto itemRequestDto) {
+    public CompletableFuture<ResponseEntity<Object>> createItemRequest(Long userId, ItemRequestDto itemRequestDto) {
         return post("", userId, itemRequestDto);
     }
 
-    public ResponseEntity<Object> getAllByUser(Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getAllByUser(Long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAll(Long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "from", from,
-                "size", size
-        );
-        return get("/all?from={from}&size={size}", userId, parameters);
+    public CompletableFuture<ResponseEntity<Object>> getAll(Long userId, Integer from, Integer size, String cursor) {
+        String query = "/all?from={from}&size={size}";
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (cursor != null) {
+            query += "&cursor={cursor}";
+            parameters.put("cursor", cursor);
+        }
+        return get(query, userId, parameters);
     }
 
-    public ResponseEntity<Object> getById(Long userId, Long requestId) {
+    public CompletableFuture<ResponseEntity<Object>> getById(Long userId, Long requestId) {
         return get("/" + requestId, userId);
     }
 }
\ No newline at end of file
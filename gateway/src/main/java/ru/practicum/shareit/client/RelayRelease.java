@@ -0,0 +1,53 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Ties a relayed server response to the client's request. A relay is opened before MVC hands its body
+ * to the export executor, and the body is never run when the executor refuses it or the request times
+ * out or fails first; the server's response would then hold its pooled connection, and the server keep
+ * its export open, until the server gave up on it.
+ */
+final class RelayRelease implements CallableProcessingInterceptor, DeferredResultProcessingInterceptor {
+    private final Runnable release;
+
+    private RelayRelease(Runnable release) {
+        this.release = release;
+    }
+
+    /**
+     * Runs {@code release} once the current request is over, however it ended. Must be called on the
+     * request thread; {@code release} may run more than once and after the body has released it itself.
+     */
+    static void onRequestCompletion(Runnable release) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return;
+        }
+        RelayRelease interceptor = new RelayRelease(release);
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(servletAttributes.getRequest());
+        // The future of the response head and the body writing are two separate async phases
+        asyncManager.registerDeferredResultInterceptor(interceptor, interceptor);
+        asyncManager.registerCallableInterceptor(interceptor, interceptor);
+    }
+
+    @Override
+    public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+        release.run();
+    }
+
+    @Override
+    public <T> void afterCompletion(NativeWebRequest request, DeferredResult<T> deferredResult) {
+        release.run();
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Last successful GET response per user and URI, kept with its ETag so the next request can be
+ * revalidated with {@code If-None-Match}. Bounded twice: at most {@code maxEntriesPerUser} responses per
+ * user and {@code maxUsers} users, the least recently used dropped first. Bodies larger than
+ * {@code maxBodySize} are not kept.
+ * <p>
+ * Revalidation outcomes are counted as {@code gateway.revalidations} tagged
+ * {@code result=not_modified|modified}.
+ */
+public class ResponseCache {
+    private final int maxUsers;
+    private final int maxEntriesPerUser;
+    private final int maxBodySize;
+    private final Map<String, Map<URI, CachedResponse>> responses;
+    private final Counter notModified;
+    private final Counter modified;
+
+    public ResponseCache(int maxUsers, int maxEntriesPerUser, int maxBodySize, MeterRegistry meterRegistry) {
+        this.maxUsers = maxUsers;
+        this.maxEntriesPerUser = maxEntriesPerUser;
+        this.maxBodySize = maxBodySize;
+        this.responses = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<URI, CachedResponse>> eldest) {
+                return size() > ResponseCache.this.maxUsers;
+            }
+        };
+        this.notModified = Counter.builder("gateway.revalidations")
+                .tag("result", "not_modified")
+                .register(meterRegistry);
+        this.modified = Counter.builder("gateway.revalidations")
+                .tag("result", "modified")
+                .register(meterRegistry);
+    }
+
+    public synchronized CachedResponse lookup(String user, URI uri) {
+        Map<URI, CachedResponse> userResponses = responses.get(user);
+        return userResponses == null ? null : userResponses.get(uri);
+    }
+
+    /**
+     * Whether a response of this length may be cached; {@code -1} stands for an unknown length.
+     */
+    public boolean fits(long contentLength) {
+        return contentLength <= maxBodySize;
+    }
+
+    public void store(String user, URI uri, CachedResponse response) {
+        if (!fits(response.body().length)) {
+            return;
+        }
+        synchronized (this) {
+            responses.computeIfAbsent(user, key -> new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<URI, CachedResponse> eldest) {
+                    return size() > maxEntriesPerUser;
+                }
+            }).put(uri, response);
+        }
+    }
+
+    public void recordNotModified() {
+        notModified.increment();
+    }
+
+    public void recordModified() {
+        modified.increment();
+    }
+
+    public record CachedResponse(String etag, HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.client;
+
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Blocking {@link ServerExchange}: the calling servlet thread waits for the server's response, and the
+ * returned future is already complete.
+ */
+public class RestTemplateExchange implements ServerExchange {
+    private static final int STREAM_BUFFER_SIZE = 8 * 1024;
+
+    private final RestTemplate rest;
+    private final CloseableHttpClient client;
+    private final Class<?> bodyType;
+
+    /**
+     * @param passthrough relay response bodies as the server's bytes instead of parsing them into
+     *                    {@code Object} trees that are serialized again for the client
+     */
+    public RestTemplateExchange(RestTemplate rest, CloseableHttpClient client, boolean passthrough) {
+        this.rest = rest;
+        this.client = client;
+        this.bodyType = passthrough ? byte[].class : Object.class;
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<Object>> exchange(HttpMethod method, String url, @Nullable Long userId,
+                                                              @Nullable Map<String, Object> parameters,
+                                                              @Nullable Object body) {
+        HttpEntity<Object> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+
+        ResponseEntity<Object> shareitServerResponse;
+        try {
+            ResponseEntity<?> response;
+            if (parameters != null && !parameters.isEmpty()) {
+                response = rest.exchange(url, method, requestEntity, bodyType, parameters);
+            } else {
+                response = rest.exchange(url, method, requestEntity, bodyType);
+            }
+            shareitServerResponse = new ResponseEntity<>(response.getBody(),
+                    ServerExchange.relayedHeaders(response.getHeaders()), response.getStatusCode());
+        } catch (HttpStatusCodeException e) {
+            shareitServerResponse = ResponseEntity.status(e.getStatusCode())
+                    .body(e.getResponseBodyAsByteArray());
+        } catch (Exception e) {
+            shareitServerResponse = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Internal server error: " + e.getMessage());
+        }
+        return CompletableFuture.completedFuture(shareitServerResponse);
+    }
+
+    /**
+     * The server's response is opened on the calling thread and its body copied to the client on the MVC
+     * async executor, one read at a time. Sent on the pooled client itself rather than through the
+     * {@link RestTemplate}, whose responses read the rest of the body when closed: a relay that is not
+     * copied to the end, or not at all once the client's request is over, aborts the server's response.
+     */
+    @Override
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> stream(String url, @Nullable Long userId) {
+        HttpGet request = new HttpGet(URI.create(url));
+        request.setHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_NDJSON_VALUE + ", "
+                + MediaType.APPLICATION_JSON_VALUE);
+        if (userId != null) {
+            request.setHeader(ConditionalGetInterceptor.USER_HEADER, String.valueOf(userId));
+        }
+        ClassicHttpResponse response;
+        try {
+            response = client.executeOpen(null, request, null);
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture(streamedError(e));
+        }
+        RelayRelease.onRequestCompletion(request::cancel);
+
+        StreamingResponseBody body = out -> {
+            try {
+                if (response.getEntity() != null) {
+                    InputStream in = response.getEntity().getContent();
+                    byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                        out.flush();
+                    }
+                }
+                // Read to the end, so the connection goes back to the pool
+                response.close();
+            } finally {
+                request.cancel();
+            }
+        };
+        return CompletableFuture.completedFuture(ResponseEntity.status(response.getCode())
+                .headers(ServerExchange.relayedHeaders(response))
+                .body(body));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> streamedError(Exception e) {
+        byte[] message = ("Internal server error: " + e.getMessage()).getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(out -> out.write(message));
+    }
+
+    private static HttpHeaders defaultHeaders(@Nullable Long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        if (userId != null) {
+            headers.set(ConditionalGetInterceptor.USER_HEADER, String.valueOf(userId));
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.client;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends one request to the server. The returned future never completes exceptionally: error statuses
+ * are passed through with the raw body, and I/O failures become {@code 500 Internal Server Error}.
+ * Selected by {@code shareit.server.client}: {@code blocking} (default) or {@code async}.
+ */
+public interface ServerExchange {
+    List<String> FRAMING_HEADERS = List.of(HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.CONNECTION, "Keep-Alive");
+
+    CompletableFuture<ResponseEntity<Object>> exchange(HttpMethod method, String url, @Nullable Long userId,
+                                                       @Nullable Map<String, Object> parameters,
+                                                       @Nullable Object body);
+
+    /**
+     * GETs {@code url} and relays the response body to the client as it arrives instead of reading it
+     * whole first. Any status is relayed as is; these responses are not revalidated through the
+     * {@link ResponseCache}.
+     */
+    CompletableFuture<ResponseEntity<StreamingResponseBody>> stream(String url, @Nullable Long userId);
+
+    /**
+     * The server's response headers without those describing its connection and framing, which the
+     * servlet container sets for the body it actually writes.
+     */
+    static HttpHeaders relayedHeaders(HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(serverHeaders);
+        FRAMING_HEADERS.forEach(headers::remove);
+        return headers;
+    }
+
+    static HttpHeaders relayedHeaders(HttpResponse serverResponse) {
+        HttpHeaders headers = new HttpHeaders();
+        for (Header header : serverResponse.getHeaders()) {
+            headers.add(header.getName(), header.getValue());
+        }
+        return relayedHeaders(headers);
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.client;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands a response body from the I/O reactor to the thread writing it to the client. More input is only
+ * requested from the server once that thread has written everything received so far, so a slow client
+ * slows the server down instead of the body piling up in memory.
+ */
+class StreamingResponseConsumer implements AsyncResponseConsumer<Void> {
+    private static final int CAPACITY_INCREMENT = 64 * 1024;
+    private static final byte[] END = new byte[0];
+
+    private final CompletableFuture<HttpResponse> head = new CompletableFuture<>();
+    private final BlockingQueue<byte[]> chunks = new LinkedBlockingQueue<>();
+    // Not a monitor: the writer may be a virtual thread, and it calls into the connection while holding this
+    private final ReentrantLock capacityLock = new ReentrantLock();
+    private volatile Exception failure;
+    private CapacityChannel pendingCapacity;
+    private FutureCallback<Void> resultCallback;
+
+    /**
+     * Completes with the status line and headers, before any of the body has been read.
+     */
+    CompletableFuture<HttpResponse> head() {
+        return head;
+    }
+
+    @Override
+    public void consumeResponse(HttpResponse response, EntityDetails entityDetails, HttpContext context,
+                                FutureCallback<Void> resultCallback) {
+        this.resultCallback = resultCallback;
+        head.complete(response);
+        if (entityDetails == null) {
+            end();
+        }
+    }
+
+    @Override
+    public void informationResponse(HttpResponse response, HttpContext context) {
+    }
+
+    @Override
+    public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+        capacityLock.lock();
+        try {
+            if (chunks.isEmpty()) {
+                capacityChannel.update(CAPACITY_INCREMENT);
+            } else {
+                pendingCapacity = capacityChannel;
+            }
+        } finally {
+            capacityLock.unlock();
+        }
+    }
+
+    @Override
+    public void consume(ByteBuffer src) {
+        byte[] chunk = new byte[src.remaining()];
+        src.get(chunk);
+        chunks.add(chunk);
+    }
+
+    @Override
+    public void streamEnd(List<? extends Header> trailers) {
+        end();
+    }
+
+    @Override
+    public void failed(Exception cause) {
+        failure = cause;
+        head.completeExceptionally(cause);
+        chunks.add(END);
+    }
+
+    @Override
+    public void releaseResources() {
+    }
+
+    /**
+     * Writes the body to {@code out} as it arrives, flushing after every chunk, until the server has sent
+     * all of it.
+     */
+    void transferTo(OutputStream out) throws IOException {
+        while (true) {
+            byte[] chunk;
+            try {
+                chunk = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the server");
+            }
+            if (chunk == END) {
+                if (failure != null) {
+                    throw new IOException("Server response failed: " + failure.getMessage(), failure);
+                }
+                return;
+            }
+            out.write(chunk);
+            out.flush();
+            requestMoreIfDrained();
+        }
+    }
+
+    private void requestMoreIfDrained() throws IOException {
+        capacityLock.lock();
+        try {
+            if (pendingCapacity != null && chunks.isEmpty()) {
+                CapacityChannel capacityChannel = pendingCapacity;
+                pendingCapacity = null;
+                capacityChannel.update(CAPACITY_INCREMENT);
+            }
+        } finally {
+            capacityLock.unlock();
+        }
+    }
+
+    private void end() {
+        chunks.add(END);
+        resultCallback.completed(null);
+    }
+}
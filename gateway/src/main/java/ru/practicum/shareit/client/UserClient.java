@@ -4,37 +4,48 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import ru.practicum.shareit.dto.user.CreateUserRequestDto;
 import ru.practicum.shareit.dto.user.UpdateUserRequestDto;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplate rest) {
-        super(rest, serverUrl + API_PREFIX);
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, ServerExchange exchange) {
+        super(exchange, serverUrl + API_PREFIX);
     }
 
-    public ResponseEntity<Object> createUser(CreateUserRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> createUser(CreateUserRequestDto requestDto) {
         return post("", null, requestDto);
     }
 
-    public ResponseEntity<Object> updateUser(Long userId, UpdateUserRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<Object>> updateUser(Long userId, UpdateUserRequestDto requestDto) {
         // Правильный вызов PATCH метода
         return patch("/" + userId, userId, requestDto);
     }
 
-    public ResponseEntity<Object> getUser(Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getUser(Long userId) {
         return get("/" + userId, userId);
     }
 
-    public ResponseEntity<Object> getAllUsers() {
-        return get("", null);
+    public CompletableFuture<ResponseEntity<Object>> getAllUsers(Integer from, Integer size, String cursor) {
+        String query = "?from={from}&size={size}";
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (cursor != null) {
+            query += "&cursor={cursor}";
+            parameters.put("cursor", cursor);
+        }
+        return get(query, null, parameters);
     }
 
-    public ResponseEntity<Object> deleteUser(Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> deleteUser(Long userId) {
         return delete("/" + userId, userId);
     }
 }
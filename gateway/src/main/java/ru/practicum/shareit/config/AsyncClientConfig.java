@@ -0,0 +1,94 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.client.AsyncHttpClientExchange;
+import ru.practicum.shareit.client.ExchangeAbort;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerExchange;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking gateway mode: controllers return futures, the servlet thread is released while the
+ * request is in flight, and responses are handled on {@code io-threads} reactor threads. In-flight
+ * requests are then limited by the connection pool rather than by servlet threads, so
+ * {@code max-connections-per-route} is usually raised together with this mode.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit.server.client", havingValue = "async")
+public class AsyncClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingAsyncClientConnectionManager serverAsyncConnectionManager(
+            @Value("${shareit.server.http.max-connections:200}") int maxConnections,
+            @Value("${shareit.server.http.max-connections-per-route:100}") int maxConnectionsPerRoute,
+            @Value("${shareit.server.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit.server.http.read-timeout:30s}") Duration readTimeout,
+            @Value("${shareit.server.http.time-to-live:5m}") Duration timeToLive,
+            @Value("${shareit.server.http.validate-after-inactivity:2s}") Duration validateAfterInactivity) {
+        return PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(timeToLive))
+                        .setValidateAfterInactivity(TimeValue.of(validateAfterInactivity))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient serverAsyncHttpClient(
+            PoolingAsyncClientConnectionManager serverAsyncConnectionManager,
+            @Value("${shareit.server.http.io-threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+            int ioThreads,
+            @Value("${shareit.server.http.acquire-timeout:1s}") Duration acquireTimeout,
+            @Value("${shareit.server.http.read-timeout:30s}") Duration readTimeout,
+            @Value("${shareit.server.http.keep-alive:1m}") Duration keepAlive,
+            @Value("${shareit.server.http.idle-eviction:30s}") Duration idleEviction) {
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(serverAsyncConnectionManager)
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setIoThreadCount(ioThreads)
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(acquireTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .setConnectionKeepAlive(TimeValue.of(keepAlive))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleEviction))
+                .addExecInterceptorFirst(ExchangeAbort.NAME, new ExchangeAbort())
+                .build();
+        client.start();
+        return client;
+    }
+
+    @Bean
+    public MeterBinder serverConnectionPoolMetrics(PoolingAsyncClientConnectionManager serverAsyncConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(serverAsyncConnectionManager, "shareit-server");
+    }
+
+    @Bean
+    public ServerExchange serverExchange(CloseableHttpAsyncClient serverAsyncHttpClient, ObjectMapper objectMapper,
+                                         ResponseCache responseCache,
+                                         @Value("${shareit.server.passthrough:true}") boolean passthrough) {
+        return new AsyncHttpClientExchange(serverAsyncHttpClient, objectMapper, responseCache, passthrough);
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Executor for MVC async work, which here is relaying NDJSON exports from the server. Left to Boot, relays
+ * would run on the applicationTaskExecutor: 8 threads and an unbounded queue, so a ninth concurrent export
+ * would wait with its request open for one of the first eight to finish.
+ * <p>
+ * Each relay holds a connection to the server while it runs, so {@code shareit.exports.max-concurrent}
+ * stays below {@code shareit.server.http.max-connections-per-route} and leaves room for ordinary calls;
+ * exports beyond it are refused with 503 rather than queued. The executor is not a bean, since any
+ * {@code Executor} bean would replace the applicationTaskExecutor.
+ */
+@Configuration
+public class AsyncConfig implements WebMvcConfigurer, DisposableBean {
+    private final ThreadPoolTaskExecutor exports = new ThreadPoolTaskExecutor();
+
+    public AsyncConfig(@Value("${shareit.exports.max-concurrent:50}") int maxConcurrent,
+                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        exports.setThreadNamePrefix("export-");
+        exports.setCorePoolSize(maxConcurrent);
+        exports.setMaxPoolSize(maxConcurrent);
+        exports.setQueueCapacity(0);
+        exports.setAllowCoreThreadTimeOut(true);
+        if (virtualThreads) {
+            exports.setThreadFactory(Thread.ofVirtual().name("export-", 0).factory());
+        }
+        exports.initialize();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(exports);
+    }
+
+    @Override
+    public void destroy() {
+        exports.shutdown();
+    }
+}
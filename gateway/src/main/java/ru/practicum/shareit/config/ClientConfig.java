@@ -1,13 +1,18 @@
 package ru.practicum.shareit.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.util.unit.DataSize;
 import ru.practicum.shareit.client.BookingClient;
 import ru.practicum.shareit.client.ItemClient;
 
 import ru.practicum.shareit.client.ItemRequestClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ServerExchange;
 import ru.practicum.shareit.client.UserClient;
 
 
@@ -18,22 +23,31 @@ public class ClientConfig {
     private String serverUrl;
 
     @Bean
-    public BookingClient bookingClient(RestTemplate restTemplate) {
-        return new BookingClient(serverUrl, restTemplate);
+    public BookingClient bookingClient(ServerExchange serverExchange) {
+        return new BookingClient(serverUrl, serverExchange);
     }
 
     @Bean
-    public ItemClient itemClient(RestTemplate restTemplate) {
-        return new ItemClient(serverUrl, restTemplate);
+    public ItemClient itemClient(ServerExchange serverExchange, ObjectMapper objectMapper, Validator validator) {
+        return new ItemClient(serverUrl, serverExchange, objectMapper, validator);
     }
 
     @Bean
-    public UserClient userClient(RestTemplate restTemplate) {
-        return new UserClient(serverUrl, restTemplate);
+    public UserClient userClient(ServerExchange serverExchange) {
+        return new UserClient(serverUrl, serverExchange);
     }
 
     @Bean
-    public ItemRequestClient itemRequestClient(RestTemplate restTemplate) {
-        return new ItemRequestClient(serverUrl, restTemplate);
+    public ItemRequestClient itemRequestClient(ServerExchange serverExchange) {
+        return new ItemRequestClient(serverUrl, serverExchange);
+    }
+
+    @Bean
+    public ResponseCache responseCache(
+            MeterRegistry meterRegistry,
+            @Value("${shareit.cache.responses.max-users:1000}") int maxUsers,
+            @Value("${shareit.cache.responses.max-entries-per-user:100}") int maxEntriesPerUser,
+            @Value("${shareit.cache.responses.max-body-size:256KB}") DataSize maxBodySize) {
+        return new ResponseCache(maxUsers, maxEntriesPerUser, (int) maxBodySize.toBytes(), meterRegistry);
     }
 }
\ No newline at end of file
@@ -1,17 +1,105 @@
 package ru.practicum.shareit.config;
 
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.client.ConditionalGetInterceptor;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.RestTemplateExchange;
+import ru.practicum.shareit.client.ServerExchange;
 
+import java.time.Duration;
+
+/**
+ * Blocking gateway mode: every proxied request holds a servlet thread until the server answers.
+ */
 @Configuration
+@ConditionalOnProperty(name = "shareit.server.client", havingValue = "blocking", matchIfMissing = true)
 public class RestTemplateConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
+    public RestTemplate restTemplate(CloseableHttpClient serverHttpClient,
+                                     ConditionalGetInterceptor conditionalGetInterceptor) {
         RestTemplate restTemplate = new RestTemplate();
-        restTemplate.setRequestFactory(new HttpComponentsClientHttpRequestFactory());
+        restTemplate.setRequestFactory(new HttpComponentsClientHttpRequestFactory(serverHttpClient));
+        restTemplate.getInterceptors().add(conditionalGetInterceptor);
         return restTemplate;
     }
-}
\ No newline at end of file
+
+    /**
+     * Connections to the server. All requests go to a single route, so the per-route limit is the one
+     * that actually caps concurrency; a request waits at most {@code acquire-timeout} for a free
+     * connection and then fails instead of queueing indefinitely.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager serverConnectionManager(
+            @Value("${shareit.server.http.max-connections:200}") int maxConnections,
+            @Value("${shareit.server.http.max-connections-per-route:100}") int maxConnectionsPerRoute,
+            @Value("${shareit.server.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit.server.http.read-timeout:30s}") Duration readTimeout,
+            @Value("${shareit.server.http.time-to-live:5m}") Duration timeToLive,
+            @Value("${shareit.server.http.validate-after-inactivity:2s}") Duration validateAfterInactivity) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(timeToLive))
+                        .setValidateAfterInactivity(TimeValue.of(validateAfterInactivity))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient serverHttpClient(
+            PoolingHttpClientConnectionManager serverConnectionManager,
+            @Value("${shareit.server.http.acquire-timeout:1s}") Duration acquireTimeout,
+            @Value("${shareit.server.http.read-timeout:30s}") Duration readTimeout,
+            @Value("${shareit.server.http.keep-alive:1m}") Duration keepAlive,
+            @Value("${shareit.server.http.idle-eviction:30s}") Duration idleEviction) {
+        return HttpClients.custom()
+                .setConnectionManager(serverConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(acquireTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .setConnectionKeepAlive(TimeValue.of(keepAlive))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleEviction))
+                .build();
+    }
+
+    /**
+     * Publishes {@code httpcomponents.httpclient.pool.*} gauges (leased, available and pending
+     * connections against the limits) tagged {@code httpclient=shareit-server}.
+     */
+    @Bean
+    public MeterBinder serverConnectionPoolMetrics(PoolingHttpClientConnectionManager serverConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(serverConnectionManager, "shareit-server");
+    }
+
+    @Bean
+    public ConditionalGetInterceptor conditionalGetInterceptor(ResponseCache responseCache) {
+        return new ConditionalGetInterceptor(responseCache);
+    }
+
+    @Bean
+    public ServerExchange serverExchange(RestTemplate restTemplate, CloseableHttpClient serverHttpClient,
+                                         @Value("${shareit.server.passthrough:true}") boolean passthrough) {
+        return new RestTemplateExchange(restTemplate, serverHttpClient, passthrough);
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
@@ -9,9 +10,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.client.BookingClient;
+import ru.practicum.shareit.dto.booking.BookingBatchApprovalRequestDto;
 import ru.practicum.shareit.dto.booking.BookingRequestDto;
 
+import java.util.concurrent.CompletableFuture;
+
 @Controller
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
@@ -21,47 +26,65 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
                                               @RequestParam(name = "state", defaultValue = "ALL") String state,
                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        log.info("Get booking with state {}, userId={}, from={}, size={}", state, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+                                              @Positive @Max(100) @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                              @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", state, userId, from, size, cursor);
+        return bookingClient.getBookings(userId, state, from, size, cursor);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getAllByOwner(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getAllByOwner(@RequestHeader("X-Sharer-User-Id") long userId,
                                                 @RequestParam(name = "state", defaultValue = "ALL") String state,
                                                 @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        log.info("Get bookings by owner with state {}, userId={}, from={}, size={}", state, userId, from, size);
-        return bookingClient.getAllByOwner(userId, state, from, size);
+                                                @Positive @Max(100) @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info("Get bookings by owner with state {}, userId={}, from={}, size={}, cursor={}",
+                state, userId, from, size, cursor);
+        return bookingClient.getAllByOwner(userId, state, from, size, cursor);
+    }
+
+    @GetMapping("/owner/export")
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> exportByOwner(
+            @RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Export bookings by owner, userId={}", userId);
+        return bookingClient.exportByOwner(userId);
     }
 
     @PostMapping
-    public ResponseEntity<Object> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
                                            @RequestBody @Valid BookingRequestDto requestDto) {
         log.info("Creating booking {}, userId={}", requestDto, userId);
         return bookingClient.bookItem(userId, requestDto);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
                                              @PathVariable Long bookingId) {
         log.info("Get booking {}, userId={}", bookingId, userId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approveBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> approveBooking(@RequestHeader("X-Sharer-User-Id") long userId,
                                                  @PathVariable Long bookingId,
                                                  @RequestParam Boolean approved) {
         log.info("Approve booking {}, userId={}, approved={}", bookingId, userId, approved);
         return bookingClient.approveBooking(userId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public CompletableFuture<ResponseEntity<Object>> approveBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                  @RequestBody @Valid BookingBatchApprovalRequestDto requestDto) {
+        log.info("Approve bookings {}, userId={}, approved={}",
+                requestDto.getBookingIds(), userId, requestDto.getApproved());
+        return bookingClient.approveBookings(userId, requestDto);
+    }
+
     @PatchMapping("/{bookingId}/cancel")
-    public ResponseEntity<Object> cancelBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+    public CompletableFuture<ResponseEntity<Object>> cancelBooking(@RequestHeader("X-Sharer-User-Id") long userId,
                                                 @PathVariable Long bookingId) {
         log.info("Cancel booking {}, userId={}", bookingId, userId);
         return bookingClient.cancelBooking(userId, bookingId);
@@ -1,17 +1,25 @@
 package ru.practicum.shareit.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.client.ItemClient;
 import ru.practicum.shareit.dto.item.CommentDto;
 import ru.practicum.shareit.dto.item.CreateItemRequestDto;
 import ru.practicum.shareit.dto.item.UpdateItemRequestDto;
 
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+
 @Controller
 @RequestMapping("/items")
 @RequiredArgsConstructor
@@ -21,14 +29,21 @@ public class ItemController {
     private final ItemClient itemClient;
 
     @PostMapping
-    public ResponseEntity<Object> createItem(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public CompletableFuture<ResponseEntity<Object>> createItem(@RequestHeader("X-Sharer-User-Id") Long userId,
                                              @RequestBody @Valid CreateItemRequestDto itemDto) {
         log.info("Creating item {}, userId={}", itemDto, userId);
         return itemClient.createItem(userId, itemDto);
     }
 
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public CompletableFuture<ResponseEntity<Object>> importItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                               InputStream body) {
+        log.info("Importing items, userId={}", userId);
+        return itemClient.importItems(userId, body);
+    }
+
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public CompletableFuture<ResponseEntity<Object>> updateItem(@RequestHeader("X-Sharer-User-Id") Long userId,
                                              @PathVariable Long itemId,
                                              @RequestBody @Valid UpdateItemRequestDto itemDto) {
         log.info("Updating item {}, userId={}, itemId={}", itemDto, userId, itemId);
@@ -36,27 +51,37 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@PathVariable Long itemId,
+    public CompletableFuture<ResponseEntity<Object>> getItemById(@PathVariable Long itemId,
                                               @RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("Get item {}, userId={}", itemId, userId);
         return itemClient.getItem(userId, itemId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllItemsByOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getAllItemsByOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("Get all items for user {}", userId);
         return itemClient.getUsersItems(userId);
     }
 
+    @GetMapping("/export")
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> exportItemsByOwner(
+            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Export all items for user {}", userId);
+        return itemClient.exportByOwner(userId);
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItems(@RequestParam String text,
-                                              @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Search items with text: {}", text);
-        return itemClient.searchItems(text, userId);
+    public CompletableFuture<ResponseEntity<Object>> searchItems(@RequestParam String text,
+                                              @RequestHeader("X-Sharer-User-Id") Long userId,
+                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                              @Positive @Max(100) @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                              @RequestParam(name = "cursor", required = false) String cursor) {
+        log.info("Search items with text: {}, from={}, size={}, cursor={}", text, from, size, cursor);
+        return itemClient.searchItems(text, userId, from, size, cursor);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public CompletableFuture<ResponseEntity<Object>> addComment(@RequestHeader("X-Sharer-User-Id") Long userId,
                                              @PathVariable Long itemId,
                                              @RequestBody @Valid CommentDto commentDto) {
         log.info("Adding comment to item {}, userId={}", itemId, userId);
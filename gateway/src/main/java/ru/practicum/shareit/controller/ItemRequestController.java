@@ -1,6 +1,7 @@
 package ru.practicum.shareit.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
@@ -13,6 +14,8 @@ import ru.practicum.shareit.client.ItemRequestClient;
 
 import ru.practicum.shareit.dto.request.ItemRequestDto;
 
+import java.util.concurrent.CompletableFuture;
+
 @Controller
 @RequestMapping(path = "/requests")
 @RequiredArgsConstructor
@@ -22,28 +25,29 @@ public class ItemRequestController {
     private final ItemRequestClient itemRequestClient;
 
     @PostMapping
-    public ResponseEntity<Object> createRequest(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public CompletableFuture<ResponseEntity<Object>> createRequest(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                 @RequestBody @Valid ItemRequestDto itemRequestDto) {
         log.info("Creating item request {}, userId={}", itemRequestDto, userId);
         return itemRequestClient.createItemRequest(userId, itemRequestDto);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getRequestsByUser(@RequestHeader("X-Sharer-User-Id") Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getRequestsByUser(@RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("Get requests for user {}", userId);
         return itemRequestClient.getAllByUser(userId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public CompletableFuture<ResponseEntity<Object>> getAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                  @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                                 @Positive @RequestParam(defaultValue = "10") Integer size) {
-        log.info("Get all requests, userId={}, from={}, size={}", userId, from, size);
-        return itemRequestClient.getAll(userId, from, size);
+                                                 @Positive @Max(100) @RequestParam(defaultValue = "10") Integer size,
+                                                 @RequestParam(required = false) String cursor) {
+        log.info("Get all requests, userId={}, from={}, size={}, cursor={}", userId, from, size, cursor);
+        return itemRequestClient.getAll(userId, from, size, cursor);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequestById(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public CompletableFuture<ResponseEntity<Object>> getRequestById(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                  @PathVariable Long requestId) {
         log.info("Get request {}, userId={}", requestId, userId);
         return itemRequestClient.getById(userId, requestId);
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -11,6 +13,8 @@ import ru.practicum.shareit.client.UserClient;
 import ru.practicum.shareit.dto.user.CreateUserRequestDto;
 import ru.practicum.shareit.dto.user.UpdateUserRequestDto;
 
+import java.util.concurrent.CompletableFuture;
+
 @Controller
 @RequestMapping(path = "/users")
 @RequiredArgsConstructor
@@ -20,32 +24,34 @@ public class UserController {
     private final UserClient userClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAllUsers() {
-        log.info("Get all users");
-        return userClient.getAllUsers();
+    public CompletableFuture<ResponseEntity<Object>> getAllUsers(@PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                          @Positive @RequestParam(defaultValue = "10") Integer size,
+                                                          @RequestParam(required = false) String cursor) {
+        log.info("Get all users, from={}, size={}, cursor={}", from, size, cursor);
+        return userClient.getAllUsers(from, size, cursor);
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUserById(@PathVariable Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getUserById(@PathVariable Long userId) {
         log.info("Get user {}", userId);
         return userClient.getUser(userId);
     }
 
     @PostMapping
-    public ResponseEntity<Object> createUser(@RequestBody @Valid CreateUserRequestDto userDto) {
+    public CompletableFuture<ResponseEntity<Object>> createUser(@RequestBody @Valid CreateUserRequestDto userDto) {
         log.info("Create user {}", userDto);
         return userClient.createUser(userDto);
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> updateUser(@PathVariable Long userId,
+    public CompletableFuture<ResponseEntity<Object>> updateUser(@PathVariable Long userId,
                                              @RequestBody @Valid UpdateUserRequestDto userDto) {
         log.info("Update user {}, userId={}", userDto, userId);
         return userClient.updateUser(userId, userDto);
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> deleteUser(@PathVariable Long userId) {
+    public CompletableFuture<ResponseEntity<Object>> deleteUser(@PathVariable Long userId) {
         log.info("Delete user {}", userId);
         return userClient.deleteUser(userId);
     }
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.dto.booking;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingBatchApprovalRequestDto {
+    @NotEmpty
+    @Size(max = 100)
+    private List<@NotNull Long> bookingIds;
+
+    @NotNull
+    private Boolean approved;
+}
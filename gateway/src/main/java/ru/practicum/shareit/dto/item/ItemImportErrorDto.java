@@ -0,0 +1,16 @@
+package ru.practicum.shareit.dto.item;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A row that was not imported; {@code index} is its zero-based position in the submitted array or stream.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemImportErrorDto {
+    private long index;
+    private String error;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.dto.item;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemImportResultDto {
+    private long imported;
+    private List<ItemImportErrorDto> errors;
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "shareit.server.client=async")
+class AsyncExportRelayTest extends ExportRelayTest {
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Relays exports from a fake server that writes one line, then holds the rest until the test lets it
+ * finish, and checks the gateway gives every server connection back, including those of exports it
+ * refuses. Run once per client mode.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "shareit.exports.max-concurrent=" + ExportRelayTest.MAX_CONCURRENT)
+abstract class ExportRelayTest {
+    static final int MAX_CONCURRENT = 2;
+    private static final String LINE = "{\"id\":1}\n";
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    // Longer than the test waits, so only the gateway can end a held export early
+    private static final Duration HOLD = Duration.ofMinutes(1);
+
+    private static HttpServer server;
+    private static volatile CountDownLatch finish;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ConnPoolControl<HttpRoute> serverConnectionPool;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) throws IOException {
+        startServer();
+        String url = "http://localhost:" + server.getAddress().getPort();
+        registry.add("shareit.server.url", () -> url);
+        registry.add("shareit-server.url", () -> url);
+    }
+
+    @BeforeEach
+    void holdExports() {
+        finish = new CountDownLatch(1);
+    }
+
+    @Test
+    void exports_RefusedOrFinished_ReleaseTheirServerConnections() throws Exception {
+        List<HttpResponse<InputStream>> running = new ArrayList<>();
+        try {
+            // A relay's head only reaches the client once its body is being written, so these fill the executor
+            for (int i = 0; i < MAX_CONCURRENT; i++) {
+                running.add(export(HttpResponse.BodyHandlers.ofInputStream()));
+            }
+
+            HttpResponse<String> refused = export(HttpResponse.BodyHandlers.ofString());
+            assertThat(refused.statusCode()).isEqualTo(503);
+            awaitLeased(MAX_CONCURRENT);
+        } finally {
+            finish.countDown();
+        }
+
+        for (HttpResponse<InputStream> response : running) {
+            assertThat(response.statusCode()).isEqualTo(200);
+            try (InputStream body = response.body()) {
+                assertThat(new String(body.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(LINE + LINE);
+            }
+        }
+        awaitLeased(0);
+    }
+
+    private <T> HttpResponse<T> export(HttpResponse.BodyHandler<T> bodyHandler) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bookings/owner/export"))
+                .header("X-Sharer-User-Id", "1")
+                .build();
+        return httpClient.sendAsync(request, bodyHandler).get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+    }
+
+    private void awaitLeased(int leased) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (serverConnectionPool.getTotalStats().getLeased() != leased && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(serverConnectionPool.getTotalStats().getLeased()).isEqualTo(leased);
+    }
+
+    private static synchronized void startServer() throws IOException {
+        if (server != null) {
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/x-ndjson");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(LINE.getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                finish.await(HOLD.toSeconds(), TimeUnit.SECONDS);
+                out.write(LINE.getBytes(StandardCharsets.UTF_8));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+    }
+}
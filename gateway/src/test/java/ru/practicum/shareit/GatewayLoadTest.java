@@ -0,0 +1,160 @@
+package ru.practicum.shareit;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the gateway on platform and on virtual threads: a fake server answers every call after a fixed
+ * delay while a number of clients keep requesting a user through the gateway, and the throughput and mean
+ * latency of each mode are printed. Run by hand, with pinned virtual threads traced:
+ * <pre>
+ * mvn -pl gateway -Pload test
+ * </pre>
+ * {@code shareit.load.clients}, {@code shareit.load.server-delay} and {@code shareit.load.duration} change
+ * the load, {@code shareit.load.client} the gateway's client mode. The connection pool is sized to the
+ * clients, so the request threads are what each mode bounds.
+ */
+@EnabledIfSystemProperty(named = "shareit.load", matches = "true")
+class GatewayLoadTest {
+    private static final String USER = "{\"id\":1,\"name\":\"User\",\"email\":\"user@email.com\"}";
+
+    private final int clients = Integer.getInteger("shareit.load.clients", 400);
+    private final Duration serverDelay = Duration.parse(System.getProperty("shareit.load.server-delay", "PT5S"));
+    private final Duration duration = Duration.parse(System.getProperty("shareit.load.duration", "PT30S"));
+    private final String client = System.getProperty("shareit.load.client", "blocking");
+
+    private HttpServer server;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        // The JDK server closes idle connections beyond 200, which the gateway's pool would then reuse
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(clients));
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), clients);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", exchange -> {
+            try {
+                Thread.sleep(serverDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = USER.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void platformAndVirtualThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%d clients, server answering after %s, %s measured, %s client%n", clients, serverDelay,
+                duration, client);
+        System.out.println("platform threads: " + platform);
+        System.out.println("virtual threads:  " + virtual);
+        assertThat(platform.completed()).isPositive();
+        assertThat(virtual.completed()).isPositive();
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String serverUrl = "http://localhost:" + server.getAddress().getPort();
+        // Arguments, since properties given to the builder yield to application.properties
+        try (ConfigurableApplicationContext gateway = new SpringApplicationBuilder(ShareItGateway.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--shareit.server.client=" + client,
+                "--shareit.server.url=" + serverUrl,
+                "--shareit-server.url=" + serverUrl,
+                "--shareit.server.http.max-connections=" + clients,
+                "--shareit.server.http.max-connections-per-route=" + clients,
+                "--shareit.server.http.acquire-timeout=1m",
+                "--shareit.server.http.read-timeout=1m",
+                "--logging.level.ru.practicum.shareit=WARN")) {
+            int port = ((WebServerApplicationContext) gateway).getWebServer().getPort();
+            return load(URI.create("http://localhost:" + port + "/users/1"));
+        }
+    }
+
+    private Result load(URI uri) throws Exception {
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong latencyNanos = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient httpClient = HttpClient.newBuilder().executor(clientThreads).build()) {
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofMinutes(1)).build();
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                running.add(clientThreads.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response =
+                                    httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                failed.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                            continue;
+                        }
+                        // Only requests finished within the measured window count
+                        if (System.nanoTime() < deadline) {
+                            completed.incrementAndGet();
+                            latencyNanos.addAndGet(System.nanoTime() - start);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> client : running) {
+                client.get();
+            }
+        }
+        return new Result(completed.get(), failed.get(), latencyNanos.get(), duration);
+    }
+
+    private record Result(long completed, long failed, long latencyNanos, Duration duration) {
+        @Override
+        public String toString() {
+            double seconds = duration.toMillis() / 1000.0;
+            double meanLatency = completed == 0 ? 0 : latencyNanos / (double) completed / 1_000_000_000;
+            return String.format("%.1f req/s, mean latency %.2f s, %d failed", completed / seconds, meanLatency,
+                    failed);
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchApprovalRequestDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateBookingRequestDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.export.NdjsonResponse;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.Pagination;
 
 import java.util.List;
 
@@ -13,6 +21,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookingController {
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
 
     @PostMapping
@@ -28,6 +37,12 @@ public class BookingController {
         return bookingService.approve(userId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public List<BookingApprovalResultDto> approveAll(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                     @RequestBody BookingBatchApprovalRequestDto requestDto) {
+        return bookingService.approveAll(userId, requestDto);
+    }
+
     @PatchMapping("/{bookingId}/cancel")
     public BookingDto cancel(@RequestHeader(USER_ID_HEADER) Long userId,
                              @PathVariable Long bookingId) {
@@ -41,14 +56,36 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getAllByUser(@RequestHeader(USER_ID_HEADER) Long userId,
-                                         @RequestParam(defaultValue = "ALL") String state) {
-        return bookingService.getAllByUser(userId, state);
+    public ResponseEntity<List<BookingDto>> getAllByUser(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                         @RequestParam(defaultValue = "ALL") String state,
+                                                         @RequestParam(defaultValue = "0") Integer from,
+                                                         @RequestParam(defaultValue = "10") Integer size,
+                                                         @RequestParam(required = false) String cursor) {
+        return toResponse(bookingService.getAllByUser(userId, state, from, size, cursor));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllByOwner(@RequestHeader(USER_ID_HEADER) Long userId,
-                                          @RequestParam(defaultValue = "ALL") String state) {
-        return bookingService.getAllByOwner(userId, state);
+    public ResponseEntity<List<BookingDto>> getAllByOwner(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                          @RequestParam(defaultValue = "ALL") String state,
+                                                          @RequestParam(defaultValue = "0") Integer from,
+                                                          @RequestParam(defaultValue = "10") Integer size,
+                                                          @RequestParam(required = false) String cursor) {
+        return toResponse(bookingService.getAllByOwner(userId, state, from, size, cursor));
+    }
+
+    /**
+     * The owner's whole booking history, newest first, streamed as NDJSON instead of paged.
+     */
+    @GetMapping("/owner/export")
+    public ResponseEntity<StreamingResponseBody> exportByOwner(@RequestHeader(USER_ID_HEADER) Long userId) {
+        return NdjsonResponse.<BookingDto>of(objectMapper, sink -> bookingService.exportByOwner(userId, sink));
+    }
+
+    private static ResponseEntity<List<BookingDto>> toResponse(CursorPage<BookingDto> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(Pagination.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.content());
     }
 }
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingApprovalResultDto {
+    private Long bookingId;
+    private boolean success;
+    private BookingDto booking;
+    private String error;
+
+    public static BookingApprovalResultDto succeeded(BookingDto booking) {
+        return new BookingApprovalResultDto(booking.getId(), true, booking, null);
+    }
+
+    public static BookingApprovalResultDto failed(Long bookingId, String error) {
+        return new BookingApprovalResultDto(bookingId, false, null, error);
+    }
+}
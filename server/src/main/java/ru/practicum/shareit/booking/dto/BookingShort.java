@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * Booking reduced to what an item card shows: which booking it is, whose it is and for which item.
+ */
+public interface BookingShort {
+    Long getId();
+
+    Long getItemId();
+
+    Long getBookerId();
+}
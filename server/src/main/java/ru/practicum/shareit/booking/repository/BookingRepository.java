@@ -1,52 +1,168 @@
 package ru.practicum.shareit.booking.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingShort;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.export.Export;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByBookerIdOrderByStartDesc(Long bookerId);
+    @Override
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findById(Long id);
 
-    List<Booking> findByItemOwnerIdOrderByStartDesc(Long ownerId);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByBookerId(Long bookerId, ScrollPosition position, Limit limit, Sort sort);
 
-    List<Booking> findByBookerIdAndStartBeforeAndEndAfter(Long bookerId, LocalDateTime start, LocalDateTime end, Sort sort);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItemOwnerId(Long ownerId, ScrollPosition position, Limit limit, Sort sort);
 
-    List<Booking> findByBookerIdAndEndBefore(Long bookerId, LocalDateTime end, Sort sort);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByBookerIdAndStartBeforeAndEndAfter(Long bookerId, LocalDateTime start, LocalDateTime end,
+                                                            ScrollPosition position, Limit limit, Sort sort);
 
-    List<Booking> findByBookerIdAndStartAfter(Long bookerId, LocalDateTime start, Sort sort);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByBookerIdAndEndBefore(Long bookerId, LocalDateTime end,
+                                               ScrollPosition position, Limit limit, Sort sort);
 
-    List<Booking> findByBookerIdAndStatus(Long bookerId, BookingStatus status, Sort sort);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByBookerIdAndStartAfter(Long bookerId, LocalDateTime start,
+                                                ScrollPosition position, Limit limit, Sort sort);
 
-    List<Booking> findByItemIdAndEndBefore(Long itemId, LocalDateTime end, Sort sort);
-
-    List<Booking> findByItemIdAndStartAfter(Long itemId, LocalDateTime start, Sort sort);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByBookerIdAndStatus(Long bookerId, BookingStatus status,
+                                            ScrollPosition position, Limit limit, Sort sort);
 
     boolean existsByItemIdAndBookerIdAndEndBefore(Long itemId, Long bookerId, LocalDateTime end);
 
-    List<Booking> findByItemOwnerIdAndStartBeforeAndEndAfter(Long ownerId, LocalDateTime start, LocalDateTime end, Sort sort);
+    /**
+     * All bookings of the owner's items, newest first, read through a cursor for the NDJSON export;
+     * call inside a transaction and close the stream.
+     */
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = Export.FETCH_SIZE_HINT),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<Booking> streamByItemOwnerIdOrderByStartDescIdDesc(Long ownerId);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItemOwnerIdAndStartBeforeAndEndAfter(Long ownerId, LocalDateTime start, LocalDateTime end,
+                                                               ScrollPosition position, Limit limit, Sort sort);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItemOwnerIdAndEndBefore(Long ownerId, LocalDateTime end,
+                                                  ScrollPosition position, Limit limit, Sort sort);
 
-    List<Booking> findByItemOwnerIdAndEndBefore(Long ownerId, LocalDateTime end, Sort sort);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItemOwnerIdAndStartAfter(Long ownerId, LocalDateTime start,
+                                                   ScrollPosition position, Limit limit, Sort sort);
 
-    List<Booking> findByItemOwnerIdAndStartAfter(Long ownerId, LocalDateTime start, Sort sort);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findByItemOwnerIdAndStatus(Long ownerId, BookingStatus status,
+                                               ScrollPosition position, Limit limit, Sort sort);
 
-    List<Booking> findByItemOwnerIdAndStatus(Long ownerId, BookingStatus status, Sort sort);
+    List<Booking> findByItemIdAndStatusAndEndAfter(Long itemId, BookingStatus status, LocalDateTime end);
 
-    @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END " +
-            "FROM Booking b " +
+    @Query("SELECT COUNT(b) > 0 FROM Booking b " +
             "WHERE b.item.id = :itemId " +
-            "AND b.status = 'APPROVED' " +
-            "AND ((b.start BETWEEN :start AND :end) OR (b.end BETWEEN :start AND :end) " +
-            "OR (b.start <= :start AND b.end >= :end))")
-    boolean existsApprovedBookingsForItemBetweenDates(
-            @Param("itemId") Long itemId,
-            @Param("start") LocalDateTime start,
-            @Param("end") LocalDateTime end);
+            "AND b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED " +
+            "AND b.start <= :end AND b.end >= :start")
+    boolean existsApprovedOverlap(@Param("itemId") Long itemId,
+                                  @Param("start") LocalDateTime start,
+                                  @Param("end") LocalDateTime end);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findByIdIn(Collection<Long> ids);
+
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.id IN :itemIds " +
+            "AND b.status = ru.practicum.shareit.booking.model.BookingStatus.APPROVED " +
+            "AND b.start <= :end AND b.end >= :start")
+    List<Booking> findApprovedOverlapping(@Param("itemIds") Collection<Long> itemIds,
+                                          @Param("start") LocalDateTime start,
+                                          @Param("end") LocalDateTime end);
+
+    /**
+     * Latest finished, not rejected or cancelled booking of the item; pass {@code Limit.of(1)}.
+     */
+    @Query("SELECT b.id AS id, b.item.id AS itemId, b.booker.id AS bookerId FROM Booking b " +
+            "WHERE b.item.id = :itemId AND b.end < :now " +
+            "AND b.status IN (ru.practicum.shareit.booking.model.BookingStatus.WAITING, " +
+            "ru.practicum.shareit.booking.model.BookingStatus.APPROVED) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<BookingShort> findLastBooking(@Param("itemId") Long itemId, @Param("now") LocalDateTime now, Limit limit);
+
+    /**
+     * Earliest upcoming, not rejected or cancelled booking of the item; pass {@code Limit.of(1)}.
+     */
+    @Query("SELECT b.id AS id, b.item.id AS itemId, b.booker.id AS bookerId FROM Booking b " +
+            "WHERE b.item.id = :itemId AND b.start > :now " +
+            "AND b.status IN (ru.practicum.shareit.booking.model.BookingStatus.WAITING, " +
+            "ru.practicum.shareit.booking.model.BookingStatus.APPROVED) " +
+            "ORDER BY b.start, b.id")
+    List<BookingShort> findNextBooking(@Param("itemId") Long itemId, @Param("now") LocalDateTime now, Limit limit);
+
+    /**
+     * The moment the last or next booking of the item changes by itself: the start of the earliest upcoming
+     * booking or the end of one in progress, whichever comes first. Same statuses as {@link #findLastBooking}.
+     */
+    @Query("SELECT MIN(CASE WHEN b.start > :now THEN b.start ELSE b.end END) FROM Booking b " +
+            "WHERE b.item.id = :itemId AND b.end >= :now " +
+            "AND b.status IN (ru.practicum.shareit.booking.model.BookingStatus.WAITING, " +
+            "ru.practicum.shareit.booking.model.BookingStatus.APPROVED)")
+    Optional<LocalDateTime> findNextRollover(@Param("itemId") Long itemId, @Param("now") LocalDateTime now);
+
+    /**
+     * Latest finished booking of every given item, one row per item; same statuses as {@link #findLastBooking}.
+     */
+    @Query(value = "SELECT ranked.id AS id, ranked.item_id AS itemId, ranked.booker_id AS bookerId FROM (" +
+            "SELECT b.id, b.item_id, b.booker_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date DESC, b.id DESC) AS item_rank " +
+            "FROM bookings b WHERE b.item_id IN (:itemIds) AND b.end_date < :now " +
+            "AND b.status IN ('WAITING', 'APPROVED')) ranked " +
+            "WHERE ranked.item_rank = 1", nativeQuery = true)
+    List<BookingShort> findLastBookings(@Param("itemIds") Collection<Long> itemIds, @Param("now") LocalDateTime now);
+
+    /**
+     * Earliest upcoming booking of every given item, one row per item; same statuses as {@link #findNextBooking}.
+     */
+    @Query(value = "SELECT ranked.id AS id, ranked.item_id AS itemId, ranked.booker_id AS bookerId FROM (" +
+            "SELECT b.id, b.item_id, b.booker_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date, b.id) AS item_rank " +
+            "FROM bookings b WHERE b.item_id IN (:itemIds) AND b.start_date > :now " +
+            "AND b.status IN ('WAITING', 'APPROVED')) ranked " +
+            "WHERE ranked.item_rank = 1", nativeQuery = true)
+    List<BookingShort> findNextBookings(@Param("itemIds") Collection<Long> itemIds, @Param("now") LocalDateTime now);
+
+    /**
+     * Ids of bookings the user made, a chunk at a time for {@link ru.practicum.shareit.user.service.UserDeletion}.
+     */
+    @Query("SELECT b.id FROM Booking b WHERE b.booker.id = :bookerId")
+    List<Long> findIdsByBookerId(@Param("bookerId") Long bookerId, Limit limit);
+
+    /**
+     * Ids of bookings of the owner's items, a chunk at a time.
+     */
+    @Query("SELECT b.id FROM Booking b WHERE b.item.owner.id = :ownerId")
+    List<Long> findIdsByItemOwnerId(@Param("ownerId") Long ownerId, Limit limit);
+
+    @Query("SELECT DISTINCT b.item.id FROM Booking b WHERE b.id IN :ids")
+    List<Long> findItemIdsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,139 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.cache.LocalCache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory index of the time ranges each item is already booked for (APPROVED bookings only).
+ * An item's schedule is loaded from the database on first use and then kept current by
+ * {@link #register(Booking)} and {@link #evict(Long)}, so conflict checks are a single ordered-map lookup.
+ * <p>
+ * Schedules live in a {@link LocalCache}: the database is read outside any lock, and schedules of items
+ * nobody books expire or make room for busier ones. Metrics are tagged {@code cache=booking-schedules}.
+ */
+@Component
+public class BookingAvailabilityIndex {
+    private final BookingRepository bookingRepository;
+    private final LocalCache<Long, ItemSchedule> schedules;
+
+    @Autowired
+    public BookingAvailabilityIndex(BookingRepository bookingRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${shareit.cache.booking-schedules.ttl:PT10M}") Duration ttl,
+                                    @Value("${shareit.cache.booking-schedules.max-size:10000}") int maxSize) {
+        this(bookingRepository, meterRegistry, ttl, maxSize, System::nanoTime);
+    }
+
+    public BookingAvailabilityIndex(BookingRepository bookingRepository,
+                                    MeterRegistry meterRegistry,
+                                    Duration ttl,
+                                    int maxSize,
+                                    LongSupplier nanoTime) {
+        this.bookingRepository = bookingRepository;
+        this.schedules = new LocalCache<>("booking-schedules", ttl, maxSize, meterRegistry, nanoTime);
+    }
+
+    public boolean hasConflict(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return schedules.get(itemId, id -> Optional.of(load(id))).orElseThrow().overlaps(start, end);
+    }
+
+    /**
+     * Adds an approved booking to its item's schedule once the surrounding transaction commits. A schedule
+     * being loaded at that moment may have missed the booking and is not kept.
+     */
+    public void register(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        afterCommit(() -> schedules.updateIfPresent(itemId, schedule -> schedule.add(start, end)));
+    }
+
+    /**
+     * Drops an item's schedule, now and once the surrounding transaction commits; it is loaded again on next
+     * use. Ranges are merged, so this is how a booking that is not approved, or no longer exists, leaves the
+     * index.
+     */
+    public void evict(Long itemId) {
+        schedules.evict(itemId);
+    }
+
+    private ItemSchedule load(Long itemId) {
+        ItemSchedule schedule = new ItemSchedule();
+        bookingRepository.findByItemIdAndStatusAndEndAfter(itemId, BookingStatus.APPROVED, LocalDateTime.now())
+                .forEach(booking -> schedule.add(booking.getStart(), booking.getEnd()));
+        return schedule;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Booked time of one item as disjoint, start-ordered ranges; overlapping bookings are merged.
+     */
+    static class ItemSchedule {
+        private final NavigableMap<LocalDateTime, LocalDateTime> ranges = new TreeMap<>();
+
+        synchronized boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> candidate = ranges.floorEntry(end);
+            return candidate != null && !candidate.getValue().isBefore(start);
+        }
+
+        synchronized ItemSchedule add(LocalDateTime start, LocalDateTime end) {
+            LocalDateTime mergedStart = start;
+            LocalDateTime mergedEnd = end;
+
+            Map.Entry<LocalDateTime, LocalDateTime> previous = ranges.floorEntry(start);
+            if (previous != null && !previous.getValue().isBefore(start)) {
+                mergedStart = previous.getKey();
+                mergedEnd = max(mergedEnd, previous.getValue());
+            }
+
+            Iterator<Map.Entry<LocalDateTime, LocalDateTime>> following =
+                    ranges.tailMap(mergedStart, true).entrySet().iterator();
+            while (following.hasNext()) {
+                Map.Entry<LocalDateTime, LocalDateTime> range = following.next();
+                if (range.getKey().isAfter(mergedEnd)) {
+                    break;
+                }
+                mergedEnd = max(mergedEnd, range.getValue());
+                following.remove();
+            }
+
+            ranges.put(mergedStart, mergedEnd);
+            LocalDateTime now = LocalDateTime.now();
+            ranges.headMap(now).values().removeIf(rangeEnd -> rangeEnd.isBefore(now));
+            return this;
+        }
+
+        private static LocalDateTime max(LocalDateTime first, LocalDateTime second) {
+            return first.isAfter(second) ? first : second;
+        }
+    }
+}
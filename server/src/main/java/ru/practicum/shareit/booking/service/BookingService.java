@@ -1,20 +1,32 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchApprovalRequestDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateBookingRequestDto;
+import ru.practicum.shareit.pagination.CursorPage;
 
 import java.util.List;
+import java.util.function.Consumer;
+
 
 public interface BookingService {
     BookingDto create(Long userId, CreateBookingRequestDto requestDto);
 
     BookingDto approve(Long userId, Long bookingId, Boolean approved);
 
+    List<BookingApprovalResultDto> approveAll(Long userId, BookingBatchApprovalRequestDto requestDto);
+
     BookingDto cancel(Long userId, Long bookingId);
 
     BookingDto getById(Long userId, Long bookingId);
 
-    List<BookingDto> getAllByUser(Long userId, String state);
+    CursorPage<BookingDto> getAllByUser(Long userId, String state, Integer from, Integer size, String cursor);
+
+    CursorPage<BookingDto> getAllByOwner(Long userId, String state, Integer from, Integer size, String cursor);
 
-    List<BookingDto> getAllByOwner(Long userId, String state);
+    /**
+     * Passes every booking of the owner's items to {@code sink}, newest first, without loading them all at once.
+     */
+    void exportByOwner(Long userId, Consumer<BookingDto> sink);
 }
\ No newline at end of file
@@ -1,14 +1,23 @@
 package ru.practicum.shareit.booking.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchApprovalRequestDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateBookingRequestDto;
 import ru.practicum.shareit.booking.exception.BookingAccessDeniedException;
 import ru.practicum.shareit.booking.exception.BookingAlreadyProcessedException;
+import ru.practicum.shareit.booking.exception.BookingConflictException;
 import ru.practicum.shareit.booking.exception.BookingNotFoundException;
 import ru.practicum.shareit.booking.exception.BookingOwnItemException;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
@@ -16,17 +25,34 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.export.Export;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.exception.ItemNotOwnedByUserException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemDetailCache;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.Pagination;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import ru.practicum.shareit.exception.BadRequestException;
 
@@ -38,6 +64,16 @@ public class BookingServiceImpl implements BookingService {
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingMapper bookingMapper;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final ItemBookingLocks itemLocks;
+    private final UserCache userCache;
+    private final ItemDetailCache itemDetailCache;
+    private final EntityManager entityManager;
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "start", "id");
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String APPROVED_OVERLAP_CONSTRAINT = "ex_booking_approved_overlap";
 
     @Override
     @Transactional
@@ -67,7 +103,7 @@ public class BookingServiceImpl implements BookingService {
             throw new BookingOwnItemException("Cannot book your own item");
         }
 
-        boolean hasConflicts = bookingRepository.existsApprovedBookingsForItemBetweenDates(
+        boolean hasConflicts = availabilityIndex.hasConflict(
                 item.getId(),
                 requestDto.getStart(),
                 requestDto.getEnd()
@@ -80,6 +116,7 @@ public class BookingServiceImpl implements BookingService {
         Booking booking = new Booking();
         bookingMapper.fromCreateDto(requestDto, booking, item, booker);
         Booking savedBooking = bookingRepository.save(booking);
+        itemDetailCache.evictBookings(item.getId());
 
         return bookingMapper.toDto(savedBooking);
     }
@@ -87,6 +124,7 @@ public class BookingServiceImpl implements BookingService {
     @Override
     @Transactional
     public BookingDto approve(Long userId, Long bookingId, Boolean approved) {
+        lockItemsOf(List.of(bookingId));
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new BookingNotFoundException("Booking not found"));
 
@@ -96,14 +134,162 @@ public class BookingServiceImpl implements BookingService {
         if (booking.getStatus() != BookingStatus.WAITING) {
             throw new BookingAlreadyProcessedException("Booking already processed");
         }
+        if (approved) {
+            Long itemId = booking.getItem().getId();
+            if (bookingRepository.existsApprovedOverlap(itemId, booking.getStart(), booking.getEnd())) {
+                throw new BookingConflictException("Item is already booked for the selected dates");
+            }
+        }
 
         bookingMapper.updateStatus(approved, booking);
-        return bookingMapper.toDto(bookingRepository.save(booking));
+        Booking savedBooking;
+        try {
+            savedBooking = bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            throw asConflictIfOverlap(e);
+        }
+        indexStatus(savedBooking);
+        itemDetailCache.evictBookings(savedBooking.getItem().getId());
+        return bookingMapper.toDto(savedBooking);
+    }
+
+    @Override
+    @Transactional
+    public List<BookingApprovalResultDto> approveAll(Long userId, BookingBatchApprovalRequestDto requestDto) {
+        if (requestDto.getBookingIds() == null || requestDto.getBookingIds().isEmpty()) {
+            throw new BadRequestException("Booking ids must be provided");
+        }
+        if (requestDto.getBookingIds().size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("No more than " + MAX_BATCH_SIZE + " bookings can be processed at once");
+        }
+        if (requestDto.getApproved() == null) {
+            throw new BadRequestException("Approval decision must be provided");
+        }
+        boolean approved = requestDto.getApproved();
+        List<Long> bookingIds = requestDto.getBookingIds().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+
+        lockItemsOf(bookingIds);
+        Map<Long, Booking> bookings = bookingRepository.findByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        Map<Long, BookingApprovalResultDto> results = new HashMap<>();
+        List<Booking> accepted = new ArrayList<>();
+        for (Long bookingId : bookingIds) {
+            Booking booking = bookings.get(bookingId);
+            if (booking == null) {
+                results.put(bookingId, BookingApprovalResultDto.failed(bookingId, "Booking not found"));
+            } else if (!booking.getItem().getOwner().getId().equals(userId)) {
+                results.put(bookingId, BookingApprovalResultDto.failed(bookingId, "User is not the owner"));
+            } else if (booking.getStatus() != BookingStatus.WAITING) {
+                results.put(bookingId, BookingApprovalResultDto.failed(bookingId, "Booking already processed"));
+            } else {
+                accepted.add(booking);
+            }
+        }
+        if (approved) {
+            accepted = withoutOverlaps(accepted, results);
+        }
+
+        accepted.forEach(booking -> bookingMapper.updateStatus(approved, booking));
+        try {
+            bookingRepository.saveAllAndFlush(accepted);
+        } catch (DataIntegrityViolationException e) {
+            throw asConflictIfOverlap(e);
+        }
+        for (Booking booking : accepted) {
+            results.put(booking.getId(), BookingApprovalResultDto.succeeded(bookingMapper.toDto(booking)));
+            indexStatus(booking);
+            itemDetailCache.evictBookings(booking.getItem().getId());
+        }
+
+        return bookingIds.stream()
+                .map(results::get)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Brings the availability index in line with a status just written: an approval adds its range, any
+     * other status drops the item's schedule, so a range the index holds by mistake does not keep blocking
+     * new bookings.
+     */
+    private void indexStatus(Booking booking) {
+        if (booking.getStatus() == BookingStatus.APPROVED) {
+            availabilityIndex.register(booking);
+        } else {
+            availabilityIndex.evict(booking.getItem().getId());
+        }
+    }
+
+    /**
+     * A conflict if the write failed on the PostgreSQL exclusion constraint that keeps approved bookings of an
+     * item apart, otherwise the original error. Hibernate does not extract the names of exclusion constraints,
+     * so the driver's message is checked as well.
+     */
+    private static RuntimeException asConflictIfOverlap(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return APPROVED_OVERLAP_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName())
+                        ? new BookingConflictException("Item is already booked for the selected dates")
+                        : e;
+            }
+            if (cause instanceof SQLException sqlException && sqlException.getMessage() != null
+                    && sqlException.getMessage().toLowerCase(Locale.ROOT)
+                    .contains("\"" + APPROVED_OVERLAP_CONSTRAINT + "\"")) {
+                return new BookingConflictException("Item is already booked for the selected dates");
+            }
+        }
+        return e;
+    }
+
+    /**
+     * Takes the locks of the bookings' items before their status is read, so approving, rejecting and
+     * cancelling the same booking concurrently cannot all act on WAITING. The item ids come from a query of
+     * their own; the bookings themselves are loaded once the locks are held.
+     */
+    private void lockItemsOf(List<Long> bookingIds) {
+        itemLocks.lockAllUntilCompletion(bookingRepository.findItemIdsByIdIn(bookingIds));
+    }
+
+    /**
+     * Drops every booking that overlaps an already approved one, including bookings approved earlier in the
+     * same batch. The items are locked by the caller; existing approvals are read in one query.
+     */
+    private List<Booking> withoutOverlaps(List<Booking> candidates, Map<Long, BookingApprovalResultDto> results) {
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        Set<Long> itemIds = candidates.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+
+        LocalDateTime earliestStart = candidates.stream().map(Booking::getStart).min(Comparator.naturalOrder()).get();
+        LocalDateTime latestEnd = candidates.stream().map(Booking::getEnd).max(Comparator.naturalOrder()).get();
+        Map<Long, List<Booking>> approvedByItem = bookingRepository
+                .findApprovedOverlapping(itemIds, earliestStart, latestEnd).stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+
+        List<Booking> accepted = new ArrayList<>();
+        for (Booking candidate : candidates) {
+            List<Booking> approved = approvedByItem.computeIfAbsent(candidate.getItem().getId(), id -> new ArrayList<>());
+            boolean overlaps = approved.stream().anyMatch(other ->
+                    !other.getStart().isAfter(candidate.getEnd()) && !other.getEnd().isBefore(candidate.getStart()));
+            if (overlaps) {
+                results.put(candidate.getId(), BookingApprovalResultDto.failed(candidate.getId(),
+                        "Item is already booked for the selected dates"));
+            } else {
+                approved.add(candidate);
+                accepted.add(candidate);
+            }
+        }
+        return accepted;
     }
 
     @Override
     @Transactional
     public BookingDto cancel(Long userId, Long bookingId) {
+        lockItemsOf(List.of(bookingId));
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new BookingNotFoundException("Booking not found"));
 
@@ -116,7 +302,10 @@ public class BookingServiceImpl implements BookingService {
         }
 
         booking.setStatus(BookingStatus.CANCELLED);
-        return bookingMapper.toDto(bookingRepository.save(booking));
+        Booking savedBooking = bookingRepository.save(booking);
+        indexStatus(savedBooking);
+        itemDetailCache.evictBookings(savedBooking.getItem().getId());
+        return bookingMapper.toDto(savedBooking);
     }
 
     @Override
@@ -133,74 +322,102 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getAllByUser(Long userId, String state) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+    public CursorPage<BookingDto> getAllByUser(Long userId, String state, Integer from, Integer size, String cursor) {
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
+        Pagination.validate(from, size, MAX_PAGE_SIZE);
 
-        List<Booking> bookings;
+        Window<Booking> bookings;
         LocalDateTime now = LocalDateTime.now();
+        ScrollPosition position = Pagination.position(from, cursor, "start");
+        Limit limit = Pagination.limit(size);
 
         switch (BookingState.fromString(state)) {
             case CURRENT:
                 bookings = bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(
-                        userId, now, now, Sort.by(Sort.Direction.DESC, "start"));
+                        userId, now, now, position, limit, NEWEST_FIRST);
                 break;
             case PAST:
                 bookings = bookingRepository.findByBookerIdAndEndBefore(
-                        userId, now, Sort.by(Sort.Direction.DESC, "start"));
+                        userId, now, position, limit, NEWEST_FIRST);
                 break;
             case FUTURE:
                 bookings = bookingRepository.findByBookerIdAndStartAfter(
-                        userId, now, Sort.by(Sort.Direction.DESC, "start"));
+                        userId, now, position, limit, NEWEST_FIRST);
                 break;
             case WAITING:
             case REJECTED:
                 BookingStatus status = BookingStatus.valueOf(state);
                 bookings = bookingRepository.findByBookerIdAndStatus(
-                        userId, status, Sort.by(Sort.Direction.DESC, "start"));
+                        userId, status, position, limit, NEWEST_FIRST);
                 break;
             default:
-                bookings = bookingRepository.findByBookerIdOrderByStartDesc(userId);
+                bookings = bookingRepository.findByBookerId(userId, position, limit, NEWEST_FIRST);
         }
 
-        return bookings.stream()
-                .map(bookingMapper::toDto)
-                .collect(Collectors.toList());
+        return toPage(bookings);
     }
 
     @Override
-    public List<BookingDto> getAllByOwner(Long userId, String state) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+    public CursorPage<BookingDto> getAllByOwner(Long userId, String state, Integer from, Integer size, String cursor) {
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
+        Pagination.validate(from, size, MAX_PAGE_SIZE);
 
-        List<Booking> bookings;
+        Window<Booking> bookings;
         LocalDateTime now = LocalDateTime.now();
+        ScrollPosition position = Pagination.position(from, cursor, "start");
+        Limit limit = Pagination.limit(size);
 
         switch (BookingState.fromString(state)) {
             case CURRENT:
                 bookings = bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfter(
-                        userId, now, now, Sort.by(Sort.Direction.DESC, "start"));
+                        userId, now, now, position, limit, NEWEST_FIRST);
                 break;
             case PAST:
                 bookings = bookingRepository.findByItemOwnerIdAndEndBefore(
-                        userId, now, Sort.by(Sort.Direction.DESC, "start"));
+                        userId, now, position, limit, NEWEST_FIRST);
                 break;
             case FUTURE:
                 bookings = bookingRepository.findByItemOwnerIdAndStartAfter(
-                        userId, now, Sort.by(Sort.Direction.DESC, "start"));
+                        userId, now, position, limit, NEWEST_FIRST);
                 break;
             case WAITING:
             case REJECTED:
                 BookingStatus status = BookingStatus.valueOf(state);
                 bookings = bookingRepository.findByItemOwnerIdAndStatus(
-                        userId, status, Sort.by(Sort.Direction.DESC, "start"));
+                        userId, status, position, limit, NEWEST_FIRST);
                 break;
             default:
-                bookings = bookingRepository.findByItemOwnerIdOrderByStartDesc(userId);
+                bookings = bookingRepository.findByItemOwnerId(userId, position, limit, NEWEST_FIRST);
         }
 
-        return bookings.stream()
+        return toPage(bookings);
+    }
+
+    @Override
+    public void exportByOwner(Long userId, Consumer<BookingDto> sink) {
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
+        try (Stream<Booking> bookings = bookingRepository.streamByItemOwnerIdOrderByStartDescIdDesc(userId)) {
+            Export.inChunks(bookings, entityManager, chunk -> chunk.forEach(booking ->
+                    sink.accept(bookingMapper.toDto(booking))));
+        }
+    }
+
+    private CursorPage<BookingDto> toPage(Window<Booking> bookings) {
+        List<Booking> content = bookings.getContent();
+        String nextCursor = null;
+        if (bookings.hasNext() && !content.isEmpty()) {
+            Booking last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getStart(), last.getId()).encode();
+        }
+
+        return new CursorPage<>(content.stream()
                 .map(bookingMapper::toDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()), nextCursor);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.exception.BookingConflictException;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped per-item locks that serialize status changes of bookings of the same item within this server
+ * instance.
+ * A lock is held until the current transaction completes, so the next holder sees the committed result.
+ */
+@Component
+public class ItemBookingLocks {
+    private static final int STRIPES = 64;
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public ItemBookingLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Locks every given item until the current transaction completes. Stripes are taken once each and
+     * in ascending order, so concurrent batches over overlapping item sets cannot deadlock.
+     */
+    public void lockAllUntilCompletion(Collection<Long> itemIds) {
+        itemIds.stream()
+                .map(this::stripeOf)
+                .distinct()
+                .sorted()
+                .forEach(this::lockStripeUntilCompletion);
+    }
+
+    private int stripeOf(Long itemId) {
+        return Math.floorMod(itemId.hashCode(), STRIPES);
+    }
+
+    private void lockStripeUntilCompletion(int stripe) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Item lock requires an active transaction");
+        }
+        ReentrantLock lock = locks[stripe];
+        try {
+            if (!lock.tryLock(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new BookingConflictException("Item is being booked concurrently, try again");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookingConflictException("Interrupted while waiting for item lock");
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+}
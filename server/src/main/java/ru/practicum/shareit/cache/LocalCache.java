@@ -0,0 +1,157 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded in-process read-through cache. Entries expire after a fixed TTL, or earlier when the value
+ * says so, and the least recently used ones are dropped beyond {@code maxSize}. Absent values are not
+ * cached.
+ * <p>
+ * Loaded values are stored only once the reading transaction commits, so rows seen by a transaction
+ * that rolls back never reach the cache. Hits, misses, evictions and the size are published as the
+ * standard {@code cache.*} meters tagged with the cache name.
+ */
+public class LocalCache<K, V> {
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Function<V, Duration> lifetime;
+    private final LongSupplier nanoTime;
+    private final Map<K, Entry<V>> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    // Bumped on every eviction; a load that raced with one is not stored
+    private long generation;
+
+    public LocalCache(String name, Duration ttl, int maxSize, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this(name, ttl, maxSize, value -> ttl, meterRegistry, nanoTime);
+    }
+
+    /**
+     * @param lifetime how long a freshly loaded value stays valid; capped by {@code ttl}
+     */
+    public LocalCache(String name,
+                      Duration ttl,
+                      int maxSize,
+                      Function<V, Duration> lifetime,
+                      MeterRegistry meterRegistry,
+                      LongSupplier nanoTime) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+        this.lifetime = lifetime;
+        this.nanoTime = nanoTime;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LocalCache.this.maxSize) {
+                    LocalCache.this.evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = Counter.builder("cache.gets")
+                .tag("cache", name)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets")
+                .tag("cache", name)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions")
+                .tag("cache", name)
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, LocalCache::size)
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    public Optional<V> get(K key, Function<K, Optional<V>> loader) {
+        long loadedGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt() - nanoTime.getAsLong() > 0) {
+                hits.increment();
+                return Optional.of(entry.value());
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            misses.increment();
+            loadedGeneration = generation;
+        }
+
+        Optional<V> value = loader.apply(key);
+        value.ifPresent(loaded -> whenCommitted(() -> store(key, loaded, loadedGeneration)));
+        return value;
+    }
+
+    /**
+     * Drops the key now and again once the current transaction commits, so a concurrent reader
+     * cannot put back the version this transaction is replacing.
+     */
+    public void evict(K key) {
+        remove(key);
+        whenCommitted(() -> remove(key));
+    }
+
+    /**
+     * Replaces a cached value with {@code update} applied to it, if there is one. Loads that started earlier
+     * may have missed the change and are not stored.
+     */
+    public synchronized void updateIfPresent(K key, UnaryOperator<V> update) {
+        generation++;
+        entries.computeIfPresent(key, (k, entry) -> new Entry<>(update.apply(entry.value()), entry.expiresAt()));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void store(K key, V value, long loadedGeneration) {
+        if (generation != loadedGeneration) {
+            return;
+        }
+        long lifetimeNanos = Math.min(ttlNanos, lifetime.apply(value).toNanos());
+        if (lifetimeNanos > 0) {
+            entries.put(key, new Entry<>(value, nanoTime.getAsLong() + lifetimeNanos));
+        }
+    }
+
+    private synchronized void remove(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    /**
+     * Runs the action after the current transaction commits, or at once outside a transaction.
+     */
+    private static void whenCommitted(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * Adds a weak ETag, a hash of the rendered body, to successful GET responses for items, users, requests
+ * and bookings, and answers {@code 304 Not Modified} without a body when {@code If-None-Match} matches.
+ * The gateway revalidates its cached responses with it.
+ */
+@Component
+public class EtagFilter extends ShallowEtagHeaderFilter {
+
+    public EtagFilter() {
+        setWriteWeakETag(true);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Exports are streamed; hashing them would mean buffering the whole body
+        return request.getRequestURI().startsWith("/actuator") || request.getRequestURI().endsWith("/export");
+    }
+}
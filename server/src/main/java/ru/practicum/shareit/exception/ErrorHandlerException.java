@@ -1,12 +1,15 @@
 package ru.practicum.shareit.exception;
 
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.practicum.shareit.booking.exception.BookingAccessDeniedException;
 import ru.practicum.shareit.booking.exception.BookingAlreadyProcessedException;
+import ru.practicum.shareit.booking.exception.BookingConflictException;
 import ru.practicum.shareit.booking.exception.BookingOwnItemException;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.exception.ItemNotOwnedByUserException;
@@ -24,38 +27,50 @@ public class ErrorHandlerException {
         String errorMessage = ex.getBindingResult().getFieldErrors().stream()
                 .map(error -> error.getField() + ": " + error.getDefaultMessage())
                 .collect(Collectors.joining("; "));
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(new ErrorResponseException(errorMessage));
+        return error(HttpStatus.BAD_REQUEST, errorMessage);
     }
 
     @ExceptionHandler(UserAlreadyExistsException.class)
     public ResponseEntity<ErrorResponseException> handleUserAlreadyExists(UserAlreadyExistsException ex) {
-        return ResponseEntity.status(HttpStatus.CONFLICT)
-                .body(new ErrorResponseException(ex.getMessage()));
+        return error(HttpStatus.CONFLICT, ex.getMessage());
     }
 
     @ExceptionHandler({ItemNotFoundException.class, UserNotFoundException.class})
     public ResponseEntity<ErrorResponseException> handleNotFoundExceptions(RuntimeException ex) {
-        return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                .body(new ErrorResponseException(ex.getMessage()));
+        return error(HttpStatus.NOT_FOUND, ex.getMessage());
     }
 
     @ExceptionHandler({
             ItemNotOwnedByUserException.class, BookingAccessDeniedException.class, BookingOwnItemException.class})
     public ResponseEntity<ErrorResponseException> handleForbiddenExceptions(RuntimeException ex) {
-        return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                .body(new ErrorResponseException(ex.getMessage()));
+        return error(HttpStatus.FORBIDDEN, ex.getMessage());
     }
 
-    @ExceptionHandler(BookingAlreadyProcessedException.class)
+    @ExceptionHandler({BookingAlreadyProcessedException.class, BookingConflictException.class})
     public ResponseEntity<ErrorResponseException> handleConflictExceptions(RuntimeException ex) {
-        return ResponseEntity.status(HttpStatus.CONFLICT)
-                .body(new ErrorResponseException(ex.getMessage()));
+        return error(HttpStatus.CONFLICT, ex.getMessage());
     }
 
     @ExceptionHandler(BadRequestException.class)
     public ResponseEntity<ErrorResponseException> handleBadRequestExceptions(RuntimeException ex) {
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(new ErrorResponseException(ex.getMessage()));
+        return error(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
-}
\ No newline at end of file
+
+    /**
+     * Every export thread is busy; see {@code shareit.exports.max-concurrent}.
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ErrorResponseException> handleTaskRejected(TaskRejectedException ex) {
+        return error(HttpStatus.SERVICE_UNAVAILABLE, "Too many exports in progress, try again later");
+    }
+
+    /**
+     * Errors are always JSON. The type is set explicitly because an NDJSON export that fails before writing
+     * anything already has its own content type on the response.
+     */
+    private static ResponseEntity<ErrorResponseException> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ErrorResponseException(message));
+    }
+}
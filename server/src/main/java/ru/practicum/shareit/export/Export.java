@@ -0,0 +1,43 @@
+package ru.practicum.shareit.export;
+
+import jakarta.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Export endpoints stream all of a user's rows instead of paging them. Rows are read through a JDBC cursor
+ * {@link #FETCH_SIZE} at a time and processed in chunks of the same size, so memory does not grow with the
+ * length of the export.
+ */
+public final class Export {
+    public static final int FETCH_SIZE = 500;
+
+    /**
+     * {@link #FETCH_SIZE} for {@code @QueryHint}, which takes a string.
+     */
+    public static final String FETCH_SIZE_HINT = "" + FETCH_SIZE;
+
+    private Export() {
+    }
+
+    /**
+     * Hands the rows on in lists of at most {@link #FETCH_SIZE} and clears the persistence context after each
+     * list, so entities loaded for earlier chunks are not kept until the transaction ends.
+     */
+    public static <T> void inChunks(Stream<T> rows, EntityManager entityManager, Consumer<List<T>> action) {
+        Iterator<T> iterator = rows.iterator();
+        List<T> chunk = new ArrayList<>(FETCH_SIZE);
+        while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+            if (chunk.size() == FETCH_SIZE || !iterator.hasNext()) {
+                action.accept(chunk);
+                entityManager.clear();
+                chunk = new ArrayList<>(FETCH_SIZE);
+            }
+        }
+    }
+}
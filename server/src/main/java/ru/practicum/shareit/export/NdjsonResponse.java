@@ -0,0 +1,55 @@
+package ru.practicum.shareit.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * {@code application/x-ndjson} response, one JSON document per line, written on the MVC async executor
+ * while the export runs. The output is flushed every {@link Export#FETCH_SIZE} records, so the client
+ * receives each chunk as soon as it has been read.
+ */
+public final class NdjsonResponse {
+
+    private NdjsonResponse() {
+    }
+
+    /**
+     * @param export runs the export, passing every record to the given sink in order
+     */
+    public static <T> ResponseEntity<StreamingResponseBody> of(ObjectMapper objectMapper,
+                                                               Consumer<Consumer<T>> export) {
+        StreamingResponseBody body = out -> {
+            export.accept(new Consumer<>() {
+                private int written;
+
+                @Override
+                public void accept(T record) {
+                    try {
+                        write(objectMapper, out, record);
+                        if (++written % Export.FETCH_SIZE == 0) {
+                            out.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private static void write(ObjectMapper objectMapper, OutputStream out, Object record) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(record));
+        out.write('\n');
+    }
+}
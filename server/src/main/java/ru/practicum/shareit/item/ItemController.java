@@ -1,14 +1,26 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.export.NdjsonResponse;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateItemRequestDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.dto.UpdateItemRequestDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.Pagination;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
 import java.util.List;
 
 @RestController
@@ -17,6 +29,7 @@ import java.util.List;
 public class ItemController {
 
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
     private static final String USER_ID_HEADER = "X-Sharer-User-Id";
 
     @PostMapping
@@ -25,6 +38,18 @@ public class ItemController {
         return ResponseEntity.ok(itemService.create(userId, itemDto));
     }
 
+    /**
+     * Creates many items at once from a JSON array or an NDJSON stream of {@link CreateItemRequestDto}. The body
+     * is parsed while it is imported, so its size is not limited by memory.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ItemImportResultDto> importItems(@RequestHeader(USER_ID_HEADER) Long userId,
+                                                           InputStream body) throws IOException {
+        MappingIterator<CreateItemRequestDto> rows = objectMapper.readerFor(CreateItemRequestDto.class)
+                .readValues(body);
+        return ResponseEntity.ok(itemService.importItems(userId, parsed(rows)));
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<ItemDto> updateItem(@RequestHeader(USER_ID_HEADER) Long userId,
                                               @PathVariable Long itemId,
@@ -43,9 +68,50 @@ public class ItemController {
         return ResponseEntity.ok(itemService.getAllByOwner(userId));
     }
 
+    /**
+     * The same items as {@link #getAllItemsByOwner}, streamed as NDJSON for integrations pulling whole catalogues.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportItemsByOwner(@RequestHeader(USER_ID_HEADER) Long userId) {
+        return NdjsonResponse.<ItemDto>of(objectMapper, sink -> itemService.exportByOwner(userId, sink));
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<List<ItemDto>> searchItems(@RequestParam String text) {
-        return ResponseEntity.ok(itemService.search(text));
+    public ResponseEntity<List<ItemDto>> searchItems(@RequestParam String text,
+                                                     @RequestParam(defaultValue = "0") Integer from,
+                                                     @RequestParam(defaultValue = "10") Integer size,
+                                                     @RequestParam(required = false) String cursor) {
+        CursorPage<ItemDto> page = itemService.search(text, from, size, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(Pagination.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.content());
+    }
+
+    /**
+     * Rows as the service reads them; a body that is not valid JSON fails the import with 400.
+     */
+    private static <T> Iterator<T> parsed(MappingIterator<T> rows) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return rows.hasNextValue();
+                } catch (IOException e) {
+                    throw new BadRequestException("Malformed import body: " + e.getMessage());
+                }
+            }
+
+            @Override
+            public T next() {
+                try {
+                    return rows.nextValue();
+                } catch (IOException e) {
+                    throw new BadRequestException("Malformed import body: " + e.getMessage());
+                }
+            }
+        };
     }
 
     @PostMapping("/{itemId}/comment")
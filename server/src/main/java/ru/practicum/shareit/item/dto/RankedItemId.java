@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.dto;
+
+/**
+ * Row of the ranked search query: an item id and how relevant it is, 0 being the best.
+ */
+public interface RankedItemId {
+    Long getId();
+
+    Integer getRank();
+}
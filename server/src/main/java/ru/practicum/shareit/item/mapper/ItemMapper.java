@@ -2,8 +2,7 @@ package ru.practicum.shareit.item.mapper;
 
 import org.mapstruct.*;
 
-import org.springframework.data.repository.query.Param;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingShort;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateItemRequestDto;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -24,22 +23,20 @@ public interface ItemMapper {
     @Mapping(target = "comments", ignore = true)
     ItemDto toItemDto(Item item);
 
-    @Mapping(target = "lastBooking", expression = "java(mapBookingInfo(lastBookings))")
-    @Mapping(target = "nextBooking", expression = "java(mapBookingInfo(nextBookings))")
+    @Mapping(target = "id", source = "item.id")
+    @Mapping(target = "lastBooking", expression = "java(mapBookingInfo(lastBooking))")
+    @Mapping(target = "nextBooking", expression = "java(mapBookingInfo(nextBooking))")
     @Mapping(target = "comments", source = "comments")
     ItemDto toDtoWithBookings(
             Item item,
-            @Param("lastBookings") List<Booking> lastBookings,
-            @Param("nextBookings") List<Booking> nextBookings,
+            BookingShort lastBooking,
+            BookingShort nextBooking,
             List<CommentDto> comments
     );
 
-    default ItemDto.BookingInfo mapBookingInfo(List<Booking> bookings) {
-        if (bookings == null || bookings.isEmpty()) return null;
-        ItemDto.BookingInfo info = new ItemDto.BookingInfo();
-        info.setId(bookings.get(0).getId());
-        info.setBookerId(bookings.get(0).getBooker().getId());
-        return info;
+    default ItemDto.BookingInfo mapBookingInfo(BookingShort booking) {
+        if (booking == null) return null;
+        return new ItemDto.BookingInfo(booking.getId(), booking.getBookerId());
     }
 
     @Mapping(target = "id", ignore = true)
@@ -1,12 +1,36 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @EntityGraph(attributePaths = {"author"})
     List<Comment> findByItemId(Long itemId);
+
+    @EntityGraph(attributePaths = {"author"})
+    List<Comment> findByItemIdIn(Collection<Long> itemIds);
+
+    /**
+     * Ids of comments the user wrote, a chunk at a time for {@link ru.practicum.shareit.user.service.UserDeletion}.
+     */
+    @Query("SELECT c.id FROM Comment c WHERE c.author.id = :authorId")
+    List<Long> findIdsByAuthorId(@Param("authorId") Long authorId, Limit limit);
+
+    /**
+     * Ids of comments on the owner's items, a chunk at a time.
+     */
+    @Query("SELECT c.id FROM Comment c WHERE c.item.owner.id = :ownerId")
+    List<Long> findIdsByItemOwnerId(@Param("ownerId") Long ownerId, Limit limit);
+
+    @Query("SELECT DISTINCT c.item.id FROM Comment c WHERE c.id IN :ids")
+    List<Long> findItemIdsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,20 +1,73 @@
 package ru.practicum.shareit.item.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.export.Export;
+import ru.practicum.shareit.item.dto.RankedItemId;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
     List<Item> findByOwnerId(Long ownerId);
 
-    @Query("SELECT i FROM Item i " +
-            "WHERE (LOWER(i.name) LIKE LOWER(CONCAT('%', ?1, '%')) " +
-            "OR LOWER(i.description) LIKE LOWER(CONCAT('%', ?1, '%'))) " +
-            "AND i.available = true")
-    List<Item> search(String text);
+    /**
+     * All of the owner's items read through a cursor for the NDJSON export; call inside a transaction and
+     * close the stream.
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = Export.FETCH_SIZE_HINT),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    Stream<Item> streamByOwnerIdOrderById(Long ownerId);
+
+    /**
+     * Items answering any of the given requests, in one statement for a whole page of requests.
+     */
+    @Query("SELECT i FROM Item i WHERE i.requestId.id IN :requestIds ORDER BY i.id")
+    List<Item> findByRequestIds(@Param("requestIds") Collection<Long> requestIds);
+
+    /**
+     * Ids of the owner's items, a chunk at a time for {@link ru.practicum.shareit.user.service.UserDeletion}.
+     */
+    @Query("SELECT i.id FROM Item i WHERE i.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId, Limit limit);
+
+    /**
+     * Keeps items posted in answer to the given requests, which are about to be deleted, but drops the link.
+     */
+    @Modifying
+    @Query("UPDATE Item i SET i.requestId = NULL WHERE i.requestId.id IN :requestIds")
+    int detachFromRequests(@Param("requestIds") Collection<Long> requestIds);
+
+    /**
+     * Ranked ids for {@link ru.practicum.shareit.item.search.PostgresItemSearchEngine}: {@code prefix} and
+     * {@code pattern} are the LIKE-escaped query followed by, and wrapped in, '%'. Rows come after the
+     * {@code (afterRank, afterId)} key, so a cursor continues where the previous page stopped.
+     */
+    @Query(value = "SELECT r.id, r.rank FROM (" +
+            "SELECT i.id, CASE WHEN LOWER(i.name) = :text THEN 0 " +
+            "WHEN LOWER(i.name) LIKE :prefix THEN 1 " +
+            "WHEN LOWER(i.name) LIKE :pattern THEN 2 ELSE 3 END AS rank " +
+            "FROM items i " +
+            "WHERE i.available AND (LOWER(i.name) LIKE :pattern OR LOWER(i.description) LIKE :pattern)) r " +
+            "WHERE r.rank > :afterRank OR (r.rank = :afterRank AND r.id > :afterId) " +
+            "ORDER BY r.rank, r.id " +
+            "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<RankedItemId> searchRankedIds(@Param("text") String text,
+                                       @Param("prefix") String prefix,
+                                       @Param("pattern") String pattern,
+                                       @Param("afterRank") int afterRank,
+                                       @Param("afterId") long afterId,
+                                       @Param("offset") long offset,
+                                       @Param("limit") int limit);
 }
@@ -0,0 +1,205 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process search for databases without trigram indexes (H2 in tests and local runs).
+ * Every available item is split into n-grams of one to {@value #GRAM} characters; a query is
+ * answered from the posting lists of its own n-grams and then checked against the text, so the
+ * result is exactly what a case-insensitive substring match would return.
+ * <p>
+ * Writes arrive from {@link ItemSearchListener} as soon as Hibernate flushes them and are undone
+ * if the surrounding transaction rolls back.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory", matchIfMissing = true)
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+    static final int GRAM = 3;
+
+    private final ItemRepository itemRepository;
+
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object undoKey = new Object();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        itemRepository.findAll().forEach(this::indexed);
+    }
+
+    @Override
+    public List<ItemSearchHit> search(String text, ItemSearchHit after, long offset, int limit) {
+        String query = normalize(text);
+        if (query.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<ItemSearchHit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Long id : candidates(query)) {
+                Document document = documents.get(id);
+                int rank = document.rank(query);
+                if (rank >= 0) {
+                    hits.add(new ItemSearchHit(id, rank));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return hits.stream()
+                .filter(hit -> after == null || ItemSearchHit.ORDER.compare(hit, after) > 0)
+                .sorted(ItemSearchHit.ORDER)
+                .skip(offset)
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public void indexed(Item item) {
+        Document document = Boolean.TRUE.equals(item.getAvailable())
+                ? new Document(item.getId(), normalize(item.getName()), normalize(item.getDescription()))
+                : null;
+        Document previous = replace(item.getId(), document);
+        rememberUndo(item.getId(), previous);
+    }
+
+    @Override
+    public void removed(Long itemId) {
+        Document previous = replace(itemId, null);
+        rememberUndo(itemId, previous);
+    }
+
+    private Set<Long> candidates(String query) {
+        if (query.length() <= GRAM) {
+            return postings.getOrDefault(query, Collections.emptySet());
+        }
+        List<Set<Long>> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            Set<Long> posting = postings.get(query.substring(i, i + GRAM));
+            if (posting == null) {
+                return Collections.emptySet();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private Document replace(Long id, Document document) {
+        lock.writeLock().lock();
+        try {
+            Document previous = document == null ? documents.remove(id) : documents.put(id, document);
+            if (previous != null) {
+                for (String gram : previous.grams()) {
+                    Set<Long> posting = postings.get(gram);
+                    posting.remove(id);
+                    if (posting.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+            if (document != null) {
+                for (String gram : document.grams()) {
+                    postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+                }
+            }
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records how to restore the previous state of an item and restores it if the transaction
+     * does not commit. Outside a transaction the change is final.
+     */
+    private void rememberUndo(Long id, Document previous) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, Document> undo = (Map<Long, Document>) TransactionSynchronizationManager.getResource(undoKey);
+        if (undo == null) {
+            Map<Long, Document> changes = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(undoKey, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(undoKey);
+                    if (status != STATUS_COMMITTED) {
+                        changes.forEach(InMemoryItemSearchEngine.this::replace);
+                    }
+                }
+            });
+            undo = changes;
+        }
+        undo.putIfAbsent(id, previous);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Document(Long id, String name, String description) {
+
+        /**
+         * 0 for an exact name match, 1 for a name prefix, 2 for a name substring, 3 for a
+         * description substring and -1 when the query does not occur at all.
+         */
+        int rank(String query) {
+            if (name.equals(query)) {
+                return 0;
+            }
+            if (name.startsWith(query)) {
+                return 1;
+            }
+            if (name.contains(query)) {
+                return 2;
+            }
+            return description.contains(query) ? 3 : -1;
+        }
+
+        Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            addGrams(name, grams);
+            addGrams(description, grams);
+            return grams;
+        }
+
+        private static void addGrams(String text, Set<String> grams) {
+            for (int size = 1; size <= GRAM; size++) {
+                for (int i = 0; i + size <= text.length(); i++) {
+                    grams.add(text.substring(i, i + size));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Finds available items whose name or description contains the query text, case-insensitively.
+ * Results are ranked: exact name match, then name prefix, then name substring, then description
+ * substring; ties are broken by item id so paging is stable.
+ */
+public interface ItemSearchEngine {
+
+    /**
+     * Returns matching items in {@link ItemSearchHit#ORDER}, starting after {@code after} when it is given,
+     * then skipping {@code offset} hits and returning at most {@code limit}.
+     */
+    List<ItemSearchHit> search(String text, ItemSearchHit after, long offset, int limit);
+
+    /**
+     * Called after an item is inserted or updated. Engines that query the database directly ignore it.
+     */
+    default void indexed(Item item) {
+    }
+
+    /**
+     * Called after an item is deleted. Engines that query the database directly ignore it.
+     */
+    default void removed(Long itemId) {
+    }
+}
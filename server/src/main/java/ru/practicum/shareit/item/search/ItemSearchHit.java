@@ -0,0 +1,35 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * A matching item and its rank (lower is more relevant). Search results are ordered by
+ * {@link #ORDER}, and the encoded form of the last hit of a page is the cursor of the next one.
+ */
+public record ItemSearchHit(Long id, int rank) {
+    public static final Comparator<ItemSearchHit> ORDER = Comparator.comparingInt(ItemSearchHit::rank)
+            .thenComparing(ItemSearchHit::id);
+
+    private static final String SEPARATOR = "|";
+
+    public static ItemSearchHit decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new ItemSearchHit(
+                    Long.valueOf(raw.substring(separator + 1)),
+                    Integer.parseInt(raw.substring(0, separator)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String raw = rank + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
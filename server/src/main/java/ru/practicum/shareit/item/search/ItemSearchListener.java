@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item.search;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import ru.practicum.shareit.item.model.Item;
+
+/**
+ * Forwards item writes to the search engine. The engine is resolved lazily because it depends on
+ * repositories that are created after the entity manager this listener belongs to.
+ */
+public class ItemSearchListener {
+    private final ObjectProvider<ItemSearchEngine> searchEngine;
+
+    public ItemSearchListener(ObjectProvider<ItemSearchEngine> searchEngine) {
+        this.searchEngine = searchEngine;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Item item) {
+        searchEngine.ifAvailable(engine -> engine.indexed(item));
+    }
+
+    @PostRemove
+    public void onRemove(Item item) {
+        searchEngine.ifAvailable(engine -> engine.removed(item.getId()));
+    }
+}
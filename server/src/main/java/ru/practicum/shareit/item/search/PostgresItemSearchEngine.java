@@ -0,0 +1,36 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Search served by PostgreSQL. The LIKE predicates are backed by the pg_trgm GIN indexes from
+ * schema-postgresql.sql, so queries of three or more characters never scan the items table.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "postgres")
+public class PostgresItemSearchEngine implements ItemSearchEngine {
+    private static final ItemSearchHit BEFORE_FIRST = new ItemSearchHit(0L, -1);
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<ItemSearchHit> search(String text, ItemSearchHit after, long offset, int limit) {
+        String query = text.toLowerCase(Locale.ROOT);
+        String escaped = query
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        ItemSearchHit start = after == null ? BEFORE_FIRST : after;
+        return itemRepository.searchRankedIds(query, escaped + "%", "%" + escaped + "%",
+                        start.rank(), start.id(), offset, limit).stream()
+                .map(row -> new ItemSearchHit(row.getId(), row.getRank()))
+                .toList();
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.LocalCache;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cache behind {@code GET /items/{id}}, kept in two parts so each write drops only what it changes:
+ * <ul>
+ *     <li>{@code items} - the public view (item and comments) plus the owner id;
+ *     dropped by item updates and new comments;</li>
+ *     <li>{@code item-bookings} - the last and next booking shown to the owner; dropped by booking
+ *     writes and expiring by itself when the current time passes the next booking boundary.</li>
+ * </ul>
+ * Every read returns fresh copies, so callers may modify what they get.
+ */
+@Component
+public class ItemDetailCache {
+    private final LocalCache<Long, ItemDetails> items;
+    private final LocalCache<Long, OwnerBookings> bookings;
+
+    @Autowired
+    public ItemDetailCache(MeterRegistry meterRegistry,
+                           @Value("${shareit.cache.items.ttl:PT10M}") Duration ttl,
+                           @Value("${shareit.cache.items.max-size:10000}") int maxSize) {
+        this(meterRegistry, ttl, maxSize, System::nanoTime);
+    }
+
+    public ItemDetailCache(MeterRegistry meterRegistry, Duration ttl, int maxSize, LongSupplier nanoTime) {
+        this.items = new LocalCache<>("items", ttl, maxSize, meterRegistry, nanoTime);
+        this.bookings = new LocalCache<>("item-bookings", ttl, maxSize, OwnerBookings::lifetime,
+                meterRegistry, nanoTime);
+    }
+
+    public Optional<ItemDetails> details(Long itemId, Function<Long, Optional<ItemDetails>> loader) {
+        return items.get(itemId, loader)
+                .map(details -> new ItemDetails(details.ownerId(), copy(details.view())));
+    }
+
+    public OwnerBookings bookings(Long itemId, Function<Long, OwnerBookings> loader) {
+        OwnerBookings cached = bookings.get(itemId, id -> Optional.of(loader.apply(id))).orElseThrow();
+        return new OwnerBookings(copy(cached.last()), copy(cached.next()), cached.validUntil());
+    }
+
+    public void evictItem(Long itemId) {
+        items.evict(itemId);
+    }
+
+    public void evictBookings(Long itemId) {
+        bookings.evict(itemId);
+    }
+
+    private static ItemDto copy(ItemDto item) {
+        List<CommentDto> comments = item.getComments() == null ? null : item.getComments().stream()
+                .map(comment -> new CommentDto(comment.getId(), comment.getText(), comment.getAuthorName(),
+                        comment.getCreated()))
+                .collect(Collectors.toList());
+        return new ItemDto(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                copy(item.getLastBooking()), copy(item.getNextBooking()), comments);
+    }
+
+    private static ItemDto.BookingInfo copy(ItemDto.BookingInfo booking) {
+        return booking == null ? null : new ItemDto.BookingInfo(booking.getId(), booking.getBookerId());
+    }
+
+    /**
+     * What any user sees on the item card, and whose item it is.
+     */
+    public record ItemDetails(Long ownerId, ItemDto view) {
+    }
+
+    /**
+     * Bookings shown to the owner, valid until {@code validUntil} ({@code null} when no booking is
+     * upcoming or in progress).
+     */
+    public record OwnerBookings(ItemDto.BookingInfo last, ItemDto.BookingInfo next, LocalDateTime validUntil) {
+
+        Duration lifetime() {
+            return validUntil == null
+                    ? Duration.ofNanos(Long.MAX_VALUE)
+                    : Duration.between(LocalDateTime.now(), validUntil);
+        }
+    }
+}
@@ -3,20 +3,36 @@ package ru.practicum.shareit.item.service;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateItemRequestDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.dto.UpdateItemRequestDto;
+import ru.practicum.shareit.pagination.CursorPage;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
     ItemDto create(Long userId, CreateItemRequestDto itemDto);
 
+    /**
+     * Creates every valid row for the owner, reading {@code rows} only as far as the current chunk. Invalid rows
+     * are skipped and reported by their position instead of failing the import.
+     */
+    ItemImportResultDto importItems(Long userId, Iterator<CreateItemRequestDto> rows);
+
     ItemDto update(Long userId, Long itemId, UpdateItemRequestDto itemDto);
 
     ItemDto getById(Long itemId, Long userId);
 
     List<ItemDto> getAllByOwner(Long ownerId);
 
-    List<ItemDto> search(String text);
+    /**
+     * Passes every item of the owner to {@code sink}, as {@link #getAllByOwner} returns them, without loading
+     * them all at once.
+     */
+    void exportByOwner(Long ownerId, Consumer<ItemDto> sink);
+
+    CursorPage<ItemDto> search(String text, Integer from, Integer size, String cursor);
 
     CommentDto addComment(Long userId, Long itemId, CommentDto commentDto);
 }
\ No newline at end of file
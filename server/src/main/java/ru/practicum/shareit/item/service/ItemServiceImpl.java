@@ -1,19 +1,23 @@
 package ru.practicum.shareit.item.service;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingShort;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.export.Export;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.exception.ItemNotOwnedByUserException;
 import ru.practicum.shareit.item.dto.CreateItemRequestDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.dto.UpdateItemRequestDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
@@ -21,19 +25,42 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.Pagination;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    /**
+     * Rows flushed and cleared from the persistence context at a time; a multiple of the JDBC batch size.
+     */
+    public static final int IMPORT_CHUNK_SIZE = 500;
+    private static final int MAX_NAME_LENGTH = 255;
 
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
@@ -41,12 +68,19 @@ public class ItemServiceImpl implements ItemService {
     private final CommentRepository commentRepository;
     private final CommentMapper commentMapper;
     private final BookingRepository bookingRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchEngine searchEngine;
+    private final UserCache userCache;
+    private final ItemDetailCache itemDetailCache;
+    private final EntityManager entityManager;
 
     @Override
     @Transactional
     public ItemDto create(Long userId, CreateItemRequestDto itemDto) {
-        User owner = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User with ID " + userId + " not found"));
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User with ID " + userId + " not found");
+        }
+        User owner = userRepository.getReferenceById(userId);
 
         Item item = itemMapper.fromCreateDto(itemDto, owner);
         Item savedItem = itemRepository.save(item);
@@ -54,10 +88,103 @@ public class ItemServiceImpl implements ItemService {
         return itemMapper.toItemDto(savedItem);
     }
 
+    @Override
+    @Transactional
+    public ItemImportResultDto importItems(Long userId, Iterator<CreateItemRequestDto> rows) {
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User with ID " + userId + " not found");
+        }
+
+        List<ItemImportErrorDto> errors = new ArrayList<>();
+        List<ImportRow> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        long imported = 0;
+        long index = 0;
+        while (rows.hasNext()) {
+            CreateItemRequestDto row = rows.next();
+            String error = importError(row);
+            if (error != null) {
+                errors.add(new ItemImportErrorDto(index, error));
+            } else {
+                chunk.add(new ImportRow(index, row));
+            }
+            index++;
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                imported += importChunk(userId, chunk, errors);
+                chunk.clear();
+            }
+        }
+        imported += importChunk(userId, chunk, errors);
+
+        errors.sort(Comparator.comparingLong(ItemImportErrorDto::getIndex));
+        log.info("Imported {} of {} items for user {}", imported, index, userId);
+        return new ItemImportResultDto(imported, errors);
+    }
+
+    /**
+     * Inserts the rows as JDBC batches and clears the persistence context afterwards. Request ids are checked
+     * with one query first, so a row answering an unknown request is reported instead of failing the whole
+     * batch on the foreign key.
+     */
+    private int importChunk(Long userId, List<ImportRow> chunk, List<ItemImportErrorDto> errors) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        Set<Long> requestIds = chunk.stream()
+                .map(row -> row.item().getRequestId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> knownRequestIds = requestIds.isEmpty() ? Set.of()
+                : itemRequestRepository.findAllById(requestIds).stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toSet());
+
+        User owner = userRepository.getReferenceById(userId);
+        List<Item> items = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            Long requestId = row.item().getRequestId();
+            if (requestId != null && !knownRequestIds.contains(requestId)) {
+                errors.add(new ItemImportErrorDto(row.index(), "Request with id " + requestId + " not found"));
+            } else {
+                items.add(itemMapper.fromCreateDto(row.item(), owner));
+            }
+        }
+        itemRepository.saveAll(items);
+        entityManager.flush();
+        entityManager.clear();
+        return items.size();
+    }
+
+    /**
+     * Single items are validated by the gateway; imported rows are checked here as well, because one row
+     * violating a column constraint would fail the JDBC batch it is sent in.
+     */
+    private static String importError(CreateItemRequestDto item) {
+        if (item == null) {
+            return "Item must be an object";
+        }
+        if (item.getName() == null || item.getName().isBlank()) {
+            return "name: Name cannot be blank";
+        }
+        if (item.getName().length() > MAX_NAME_LENGTH) {
+            return "name: size must be between 0 and " + MAX_NAME_LENGTH;
+        }
+        if (item.getDescription() == null || item.getDescription().isBlank()) {
+            return "description: Description cannot be blank";
+        }
+        if (item.getAvailable() == null) {
+            return "available: Available status must be provided";
+        }
+        return null;
+    }
+
+    private record ImportRow(long index, CreateItemRequestDto item) {
+    }
+
     @Override
     public ItemDto update(Long userId, Long itemId, UpdateItemRequestDto itemDto) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User with ID " + userId + " not found"));
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User with ID " + userId + " not found");
+        }
 
         Item existingItem = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ItemNotFoundException("Item not found with id: " + itemId));
@@ -68,48 +195,115 @@ public class ItemServiceImpl implements ItemService {
 
         itemMapper.updateItemFromDto(itemDto, existingItem);
         Item updatedItem = itemRepository.save(existingItem);
+        itemDetailCache.evictItem(itemId);
         log.info("Updated item: {}", updatedItem);
         return itemMapper.toItemDto(updatedItem);
     }
 
     @Override
     public ItemDto getById(Long itemId, Long userId) {
-        Item item = itemRepository.findById(itemId)
+        ItemDetailCache.ItemDetails details = itemDetailCache.details(itemId, this::loadDetails)
                 .orElseThrow(() -> new ItemNotFoundException("Item not found with id: " + itemId));
+        ItemDto item = details.view();
 
-        List<Booking> lastBookings = null;
-        List<Booking> nextBookings = null;
-
-        if (item.getOwner().getId().equals(userId)) {
-            LocalDateTime now = LocalDateTime.now();
-            lastBookings = bookingRepository.findByItemIdAndEndBefore(
-                    itemId, now, Sort.by(Sort.Direction.DESC, "start"));
-            nextBookings = bookingRepository.findByItemIdAndStartAfter(
-                    itemId, now, Sort.by(Sort.Direction.ASC, "start"));
+        if (details.ownerId().equals(userId)) {
+            ItemDetailCache.OwnerBookings bookings = itemDetailCache.bookings(itemId, this::loadOwnerBookings);
+            item.setLastBooking(bookings.last());
+            item.setNextBooking(bookings.next());
         }
+        return item;
+    }
 
-        List<CommentDto> comments = commentRepository.findByItemId(itemId).stream()
-                .map(commentMapper::toDto)
-                .collect(Collectors.toList());
+    private Optional<ItemDetailCache.ItemDetails> loadDetails(Long itemId) {
+        return itemRepository.findById(itemId)
+                .map(item -> {
+                    List<CommentDto> comments = commentRepository.findByItemId(itemId).stream()
+                            .map(commentMapper::toDto)
+                            .collect(Collectors.toList());
+                    return new ItemDetailCache.ItemDetails(item.getOwner().getId(),
+                            itemMapper.toDtoWithBookings(item, null, null, comments));
+                });
+    }
 
-        return itemMapper.toDtoWithBookings(item, lastBookings, nextBookings, comments);
+    private ItemDetailCache.OwnerBookings loadOwnerBookings(Long itemId) {
+        LocalDateTime now = LocalDateTime.now();
+        BookingShort lastBooking = first(bookingRepository.findLastBooking(itemId, now, Limit.of(1)));
+        BookingShort nextBooking = first(bookingRepository.findNextBooking(itemId, now, Limit.of(1)));
+        return new ItemDetailCache.OwnerBookings(
+                itemMapper.mapBookingInfo(lastBooking),
+                itemMapper.mapBookingInfo(nextBooking),
+                bookingRepository.findNextRollover(itemId, now).orElse(null));
     }
 
     @Override
     public List<ItemDto> getAllByOwner(Long ownerId) {
-        return itemRepository.findByOwnerId(ownerId).stream()
-                .map(itemMapper::toItemDto)
+        return withBookingsAndComments(itemRepository.findByOwnerId(ownerId));
+    }
+
+    @Override
+    public void exportByOwner(Long ownerId, Consumer<ItemDto> sink) {
+        try (Stream<Item> items = itemRepository.streamByOwnerIdOrderById(ownerId)) {
+            Export.inChunks(items, entityManager, chunk -> withBookingsAndComments(chunk).forEach(sink));
+        }
+    }
+
+    private List<ItemDto> withBookingsAndComments(List<Item> items) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingShort> lastBookings = byItemId(bookingRepository.findLastBookings(itemIds, now));
+        Map<Long, BookingShort> nextBookings = byItemId(bookingRepository.findNextBookings(itemIds, now));
+        Map<Long, List<CommentDto>> comments = commentRepository.findByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(commentMapper::toDto, Collectors.toList())));
+
+        return items.stream()
+                .map(item -> itemMapper.toDtoWithBookings(item,
+                        lastBookings.get(item.getId()),
+                        nextBookings.get(item.getId()),
+                        comments.getOrDefault(item.getId(), Collections.emptyList())))
                 .collect(Collectors.toList());
     }
 
+    private static BookingShort first(List<BookingShort> bookings) {
+        return bookings.isEmpty() ? null : bookings.get(0);
+    }
+
+    private static Map<Long, BookingShort> byItemId(List<BookingShort> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(BookingShort::getItemId, Function.identity()));
+    }
+
     @Override
-    public List<ItemDto> search(String text) {
+    public CursorPage<ItemDto> search(String text, Integer from, Integer size, String cursor) {
+        Pagination.validate(from, size, MAX_SEARCH_PAGE_SIZE);
         if (text == null || text.isBlank()) {
-            return Collections.emptyList();
+            return new CursorPage<>(Collections.emptyList(), null);
         }
-        return itemRepository.search(text.toLowerCase().trim()).stream()
+
+        ItemSearchHit after = cursor == null || cursor.isBlank() ? null : ItemSearchHit.decode(cursor);
+        long offset = after == null ? from : 0;
+        // One extra hit tells whether another page exists without a count query
+        List<ItemSearchHit> hits = searchEngine.search(text.trim(), after, offset, size + 1);
+        boolean hasNext = hits.size() > size;
+        if (hasNext) {
+            hits = hits.subList(0, size);
+        }
+
+        List<Long> ids = hits.stream().map(ItemSearchHit::id).toList();
+        Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<ItemDto> content = ids.stream()
+                .map(items::get)
+                .filter(item -> item != null && item.getAvailable())
                 .map(itemMapper::toItemDto)
                 .collect(Collectors.toList());
+        return new CursorPage<>(content, hasNext ? hits.get(hits.size() - 1).encode() : null);
     }
 
     @Override
@@ -130,6 +324,7 @@ public class ItemServiceImpl implements ItemService {
         Comment comment = commentMapper.fromDto(commentDto, item, author);
 
         Comment savedComment = commentRepository.save(comment);
+        itemDetailCache.evictItem(itemId);
         return commentMapper.toDto(savedComment);
     }
 }
\ No newline at end of file
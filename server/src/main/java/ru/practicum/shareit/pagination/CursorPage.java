@@ -0,0 +1,9 @@
+package ru.practicum.shareit.pagination;
+
+import java.util.List;
+
+/**
+ * One page of a scrolled result; {@code nextCursor} is {@code null} on the last page.
+ */
+public record CursorPage<T>(List<T> content, String nextCursor) {
+}
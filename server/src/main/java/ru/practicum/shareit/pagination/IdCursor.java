@@ -0,0 +1,32 @@
+package ru.practicum.shareit.pagination;
+
+import org.springframework.data.domain.ScrollPosition;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Opaque continuation token for keyset scrolling in {@code id} order.
+ */
+public record IdCursor(Long id) {
+
+    public static IdCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            return new IdCursor(Long.valueOf(raw));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ScrollPosition toScrollPosition() {
+        return ScrollPosition.forward(Map.of("id", id));
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.pagination;
+
+import org.springframework.data.domain.ScrollPosition;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Opaque continuation token for keyset scrolling over a {@code (timestamp, id)} sort key.
+ */
+public record KeysetCursor(LocalDateTime timestamp, Long id) {
+    private static final String SEPARATOR = "|";
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String raw = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ScrollPosition toScrollPosition(String timestampProperty) {
+        return ScrollPosition.forward(Map.of(timestampProperty, timestamp, "id", id));
+    }
+}
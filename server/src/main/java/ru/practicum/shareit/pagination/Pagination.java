@@ -0,0 +1,58 @@
+package ru.practicum.shareit.pagination;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import ru.practicum.shareit.exception.BadRequestException;
+
+public final class Pagination {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private Pagination() {
+    }
+
+    public static void validate(Integer from, Integer size) {
+        if (from == null || from < 0) {
+            throw new BadRequestException("Parameter 'from' must be zero or positive");
+        }
+        if (size == null || size <= 0) {
+            throw new BadRequestException("Parameter 'size' must be positive");
+        }
+    }
+
+    public static void validate(Integer from, Integer size, int maxSize) {
+        validate(from, size);
+        if (size > maxSize) {
+            throw new BadRequestException("Parameter 'size' must not exceed " + maxSize);
+        }
+    }
+
+    public static Limit limit(Integer size) {
+        return Limit.of(size);
+    }
+
+    /**
+     * Resolves where a scroll query starts: after the cursor row when a cursor is given,
+     * otherwise after skipping {@code from} rows.
+     */
+    public static ScrollPosition position(Integer from, String cursor, String timestampProperty) {
+        if (cursor != null && !cursor.isBlank()) {
+            return KeysetCursor.decode(cursor).toScrollPosition(timestampProperty);
+        }
+        return offset(from);
+    }
+
+    /**
+     * Same as {@link #position(Integer, String, String)} for results ordered by {@code id} alone.
+     */
+    public static ScrollPosition position(Integer from, String cursor) {
+        if (cursor != null && !cursor.isBlank()) {
+            return IdCursor.decode(cursor).toScrollPosition();
+        }
+        return offset(from);
+    }
+
+    private static ScrollPosition offset(Integer from) {
+        // OffsetScrollPosition.of(n) continues after the n-th row, so the initial position covers from == 0
+        return from == 0 ? ScrollPosition.offset() : ScrollPosition.offset(from - 1);
+    }
+}
@@ -3,6 +3,8 @@ package ru.practicum.shareit.request;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.Pagination;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestWithItemsDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -33,8 +35,14 @@ public class ItemRequestController {
     public ResponseEntity<List<ItemRequestWithItemsDto>> getAll(
             @RequestHeader(USER_ID_HEADER) Long userId,
             @RequestParam(defaultValue = "0") Integer from,
-            @RequestParam(defaultValue = "10") Integer size) {
-        return ResponseEntity.ok(itemRequestService.getAll(userId, from, size));
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String cursor) {
+        CursorPage<ItemRequestWithItemsDto> page = itemRequestService.getAll(userId, from, size, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(Pagination.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.content());
     }
 
     @GetMapping("/{requestId}")
@@ -3,6 +3,7 @@ package ru.practicum.shareit.request.mapper;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestWithItemsDto;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -31,6 +32,12 @@ public interface ItemRequestMapper {
     @Mapping(target = "items", source = "request.items")
     ItemRequestWithItemsDto toDtoWithItems(ItemRequest request);
 
+    @Mapping(target = "id", source = "request.id")
+    @Mapping(target = "description", source = "request.description")
+    @Mapping(target = "created", source = "request.created")
+    @Mapping(target = "items", source = "items")
+    ItemRequestWithItemsDto toDtoWithItems(ItemRequest request, List<Item> items);
+
     default ItemRequestDto toSimpleDto(ItemRequest request) {
         if (request == null) {
             return null;
@@ -1,15 +1,28 @@
 package ru.practicum.shareit.request.repository;
 
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findByRequesterIdOrderByCreatedDesc(Long requesterId);
 
-    List<ItemRequest> findByRequesterIdNotOrderByCreatedDesc(Long requesterId, Pageable pageable);
+    Window<ItemRequest> findByRequesterIdNotAndCreatedLessThanEqual(Long requesterId, LocalDateTime createdUpTo,
+                                                                    ScrollPosition position, Limit limit, Sort sort);
+
+    /**
+     * Ids of the user's requests, a chunk at a time for {@link ru.practicum.shareit.user.service.UserDeletion}.
+     */
+    @Query("SELECT r.id FROM ItemRequest r WHERE r.requester.id = :requesterId")
+    List<Long> findIdsByRequesterId(@Param("requesterId") Long requesterId, Limit limit);
 }
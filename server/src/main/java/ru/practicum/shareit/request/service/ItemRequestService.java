@@ -1,5 +1,6 @@
 package ru.practicum.shareit.request.service;
 
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestWithItemsDto;
 
@@ -10,7 +11,7 @@ public interface ItemRequestService {
 
     List<ItemRequestWithItemsDto> getAllByUser(Long userId);
 
-    List<ItemRequestWithItemsDto> getAll(Long userId, Integer from, Integer size);
+    CursorPage<ItemRequestWithItemsDto> getAll(Long userId, Integer from, Integer size, String cursor);
 
     ItemRequestWithItemsDto getById(Long userId, Long requestId);
 }
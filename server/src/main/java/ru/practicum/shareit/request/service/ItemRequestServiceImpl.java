@@ -1,9 +1,15 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.Pagination;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestWithItemsDto;
 import ru.practicum.shareit.request.exception.ItemRequestNotFoundException;
@@ -14,8 +20,10 @@ import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Service
@@ -25,17 +33,25 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
     private final ItemRequestMapper itemRequestMapper;
+    private final UserCache userCache;
+    private final RequestItemsLoader requestItemsLoader;
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "created", "id");
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Override
     @Transactional
     public ItemRequestWithItemsDto create(Long userId, ItemRequestDto itemRequestDto) {
-        User requester = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        if (!userCache.exists(userId)) {
+            throw new UserNotFoundException("User not found");
+        }
+        User requester = userRepository.getReferenceById(userId);
 
         ItemRequest itemRequest = itemRequestMapper.fromDto(
                 itemRequestDto,
                 requester,
-                LocalDateTime.now()
+                // TIMESTAMP keeps microseconds; a finer value would not match the row it is a keyset cursor for
+                LocalDateTime.now().truncatedTo(ChronoUnit.MICROS)
         );
 
         ItemRequest savedRequest = itemRequestRepository.save(itemRequest);
@@ -44,34 +60,46 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public List<ItemRequestWithItemsDto> getAllByUser(Long userId) {
-        if (!userRepository.existsById(userId)) {
+        if (!userCache.exists(userId)) {
             throw new UserNotFoundException("User not found");
         }
 
         List<ItemRequest> requests = itemRequestRepository.findByRequesterIdOrderByCreatedDesc(userId);
-        return itemRequestMapper.toDtoList(requests);
+        return requestItemsLoader.withItems(requests);
     }
 
     @Override
-    public List<ItemRequestWithItemsDto> getAll(Long userId, Integer from, Integer size) {
-        if (!userRepository.existsById(userId)) {
+    public CursorPage<ItemRequestWithItemsDto> getAll(Long userId, Integer from, Integer size, String cursor) {
+        if (!userCache.exists(userId)) {
             throw new UserNotFoundException("User not found");
         }
+        Pagination.validate(from, size, MAX_PAGE_SIZE);
 
-        PageRequest page = PageRequest.of(from / size, size);
-        List<ItemRequest> requests = itemRequestRepository.findByRequesterIdNotOrderByCreatedDesc(userId, page);
-        return itemRequestMapper.toDtoList(requests);
+        ScrollPosition position = Pagination.position(from, cursor, "created");
+        // The keyset predicate is an OR over (created, id); the redundant upper bound gives it an index range
+        LocalDateTime createdUpTo = position instanceof KeysetScrollPosition keyset
+                ? (LocalDateTime) keyset.getKeys().get("created")
+                : LocalDateTime.now();
+        Window<ItemRequest> requests = itemRequestRepository.findByRequesterIdNotAndCreatedLessThanEqual(userId,
+                createdUpTo, position, Pagination.limit(size), NEWEST_FIRST);
+        List<ItemRequest> content = requests.getContent();
+        String nextCursor = null;
+        if (requests.hasNext() && !content.isEmpty()) {
+            ItemRequest last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreated(), last.getId()).encode();
+        }
+        return new CursorPage<>(requestItemsLoader.withItems(content), nextCursor);
     }
 
     @Override
     public ItemRequestWithItemsDto getById(Long userId, Long requestId) {
-        if (!userRepository.existsById(userId)) {
+        if (!userCache.exists(userId)) {
             throw new UserNotFoundException("User not found");
         }
 
         ItemRequest itemRequest = itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new ItemRequestNotFoundException("Request not found"));
 
-        return itemRequestMapper.toDtoWithItems(itemRequest);
+        return requestItemsLoader.withItems(itemRequest);
     }
 }
\ No newline at end of file
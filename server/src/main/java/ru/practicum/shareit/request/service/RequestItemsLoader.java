@@ -0,0 +1,44 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestWithItemsDto;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Builds request views with their answering items without touching the lazy {@link ItemRequest#getItems()}
+ * collection: the items of all requests come from a single {@code IN} query and are grouped in memory.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestItemsLoader {
+    private final ItemRepository itemRepository;
+    private final ItemRequestMapper itemRequestMapper;
+
+    public List<ItemRequestWithItemsDto> withItems(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        List<Long> requestIds = requests.stream()
+                .map(ItemRequest::getId)
+                .toList();
+        Map<Long, List<Item>> itemsByRequest = itemRepository.findByRequestIds(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequestId().getId()));
+
+        return requests.stream()
+                .map(request -> itemRequestMapper.toDtoWithItems(request,
+                        itemsByRequest.getOrDefault(request.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    public ItemRequestWithItemsDto withItems(ItemRequest request) {
+        return withItems(List.of(request)).get(0);
+    }
+}
@@ -3,6 +3,8 @@ package ru.practicum.shareit.user;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.Pagination;
 import ru.practicum.shareit.user.dto.CreateUserRequestDto;
 import ru.practicum.shareit.user.dto.UpdateUserRequestDto;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -18,8 +20,15 @@ public class UserController {
     private final UserService userService;
 
     @GetMapping
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAll());
+    public ResponseEntity<List<UserDto>> getAllUsers(@RequestParam(defaultValue = "0") Integer from,
+                                                     @RequestParam(defaultValue = "10") Integer size,
+                                                     @RequestParam(required = false) String cursor) {
+        CursorPage<UserDto> page = userService.getAll(from, size, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(Pagination.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.content());
     }
 
     @GetMapping("/{userId}")
@@ -38,9 +47,14 @@ public class UserController {
         return ResponseEntity.ok(userService.update(userId, userDto));
     }
 
+    /**
+     * 204 once the user is gone, 202 while a large history is still being deleted in the background.
+     */
     @DeleteMapping("/{userId}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long userId) {
-        userService.delete(userId);
-        return ResponseEntity.noContent().build();
+        if (userService.delete(userId)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.accepted().build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.user.dto;
+
+/**
+ * User columns read without loading the entity: admin listings page through every user, and managed
+ * {@code User} instances would only fill the persistence context.
+ */
+public interface UserShort {
+    Long getId();
+
+    String getName();
+
+    String getEmail();
+}
@@ -5,6 +5,7 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.dto.CreateUserRequestDto;
 import ru.practicum.shareit.user.dto.UpdateUserRequestDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserShort;
 
 @Mapper(componentModel = "spring")
 public interface UserMapper {
@@ -17,4 +18,6 @@ public interface UserMapper {
     void updateFromDto(UpdateUserRequestDto dto, @MappingTarget User user);
 
     UserDto toUserDto(User user);
+
+    UserDto fromShort(UserShort user);
 }
\ No newline at end of file
@@ -1,7 +1,12 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.user.dto.UserShort;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.Optional;
@@ -10,4 +15,9 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
+
+    /**
+     * All users, selecting only the {@link UserShort} columns.
+     */
+    Window<UserShort> findBy(ScrollPosition position, Limit limit, Sort sort);
 }
@@ -0,0 +1,234 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.WindowIterator;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Scalable Bloom filter over the emails of all users, so that create and update only ask the database
+ * about emails that may already be taken. It never reports a stored email as absent: writes reach it
+ * through {@link UserEmailListener} as soon as Hibernate flushes them, and until the filter has been
+ * loaded every email counts as possibly taken. The unique constraint on {@code users.email} still settles
+ * races between concurrent writers.
+ * <p>
+ * Bits cannot be cleared, so deleted and replaced emails stay behind as false positives. They are counted,
+ * and once they make up half of the entries the filter is rebuilt from the database in the background.
+ * Metrics are published as {@code users.email.filter} tagged with the answer.
+ */
+@Component
+@Slf4j
+public class EmailFilter {
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final Sort BY_ID = Sort.by("id");
+
+    private final UserRepository userRepository;
+    private final int initialCapacity;
+    private final double falsePositiveRate;
+    private final Executor rebuilds;
+    private final Counter absent;
+    private final Counter possible;
+
+    // null until the first load has finished
+    private volatile Slices slices;
+    // Emails written while a load runs, added to the new filter before it replaces the old one;
+    // null when no load is running
+    private List<String> addedDuringLoad = new ArrayList<>();
+    private long stale;
+
+    @Autowired
+    public EmailFilter(UserRepository userRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${shareit.users.email-filter.initial-capacity:65536}") int initialCapacity,
+                       @Value("${shareit.users.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this(userRepository, meterRegistry, initialCapacity, falsePositiveRate,
+                rebuild -> Thread.ofVirtual().name("email-filter-rebuild").start(rebuild));
+    }
+
+    public EmailFilter(UserRepository userRepository,
+                       MeterRegistry meterRegistry,
+                       int initialCapacity,
+                       double falsePositiveRate,
+                       Executor rebuilds) {
+        this.userRepository = userRepository;
+        this.initialCapacity = initialCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuilds = rebuilds;
+        this.absent = meterRegistry.counter("users.email.filter", "result", "absent");
+        this.possible = meterRegistry.counter("users.email.filter", "result", "possible");
+    }
+
+    /**
+     * Reads every email, a page at a time in id order, into a new filter that then replaces the current one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Slices loaded = new Slices(initialCapacity, falsePositiveRate);
+        WindowIterator.of(position -> userRepository.findBy(position, Limit.of(LOAD_PAGE_SIZE), BY_ID))
+                .startingAt(ScrollPosition.keyset())
+                .forEachRemaining(user -> loaded.add(user.getEmail()));
+        synchronized (this) {
+            addedDuringLoad.forEach(loaded::add);
+            addedDuringLoad = null;
+            stale = 0;
+            slices = loaded;
+        }
+        log.info("Loaded {} user emails into the email filter", loaded.count());
+    }
+
+    /**
+     * {@code false} only if no user has this email.
+     */
+    public boolean mightContain(String email) {
+        Slices current = slices;
+        boolean result = current == null || current.mightContain(email);
+        (result ? possible : absent).increment();
+        return result;
+    }
+
+    public synchronized void added(String email) {
+        if (slices != null) {
+            slices.add(email);
+        }
+        if (addedDuringLoad != null) {
+            addedDuringLoad.add(email);
+        }
+    }
+
+    /**
+     * Records that an email in the filter no longer belongs to anyone.
+     */
+    public synchronized void removed() {
+        stale++;
+        if (slices != null && addedDuringLoad == null && stale * 2 > slices.count()) {
+            addedDuringLoad = new ArrayList<>();
+            rebuilds.execute(this::rebuild);
+        }
+    }
+
+    private void rebuild() {
+        try {
+            load();
+        } catch (RuntimeException e) {
+            log.warn("Rebuilding the email filter failed, keeping the current one", e);
+            synchronized (this) {
+                addedDuringLoad = null;
+            }
+        }
+    }
+
+    private static long hash(String email) {
+        // FNV-1a over the UTF-16 code units
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < email.length(); i++) {
+            hash ^= email.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Second hash for double hashing; odd, so it never maps every probe to the same bit.
+     */
+    private static long step(long hash) {
+        return mix(hash + 0x9e3779b97f4a7c15L) | 1;
+    }
+
+    private static long mix(long z) {
+        // SplitMix64 finalizer
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Plain Bloom filters of growing size. When the newest one holds as many emails as it was sized for, a
+     * slice twice as large with half the false positive rate is added; the rates form a geometric series, so
+     * the combined rate stays below the configured one however many users there are.
+     */
+    private static final class Slices {
+        private final List<Slice> slices = new CopyOnWriteArrayList<>();
+
+        Slices(int initialCapacity, double falsePositiveRate) {
+            slices.add(new Slice(initialCapacity, falsePositiveRate / 2));
+        }
+
+        void add(String email) {
+            Slice last = slices.get(slices.size() - 1);
+            if (last.count >= last.capacity) {
+                last = new Slice(last.capacity * 2, last.falsePositiveRate / 2);
+                slices.add(last);
+            }
+            long hash = hash(email);
+            last.add(mix(hash), step(hash));
+        }
+
+        boolean mightContain(String email) {
+            long hash = hash(email);
+            long h1 = mix(hash);
+            long h2 = step(hash);
+            for (Slice slice : slices) {
+                if (slice.mightContain(h1, h2)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long count() {
+            return slices.stream().mapToLong(slice -> slice.count).sum();
+        }
+    }
+
+    private static final class Slice {
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+        private long count;
+
+        Slice(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            double optimalBits = -capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+            this.words = new AtomicLongArray((int) Math.ceil(optimalBits / Long.SIZE));
+            this.bits = (long) words.length() * Long.SIZE;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * Math.log(2)));
+        }
+
+        void add(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                long mask = 1L << bit;
+                words.getAndUpdate((int) (bit >>> 6), word -> word | mask);
+            }
+            count++;
+        }
+
+        boolean mightContain(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.user.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.LocalCache;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache of user profiles in front of {@link UserRepository}, mostly used to validate the
+ * X-Sharer-User-Id header without a database round-trip. Unknown ids are not cached, so a new user is
+ * visible at once. Metrics are tagged {@code cache=users}.
+ */
+@Component
+public class UserCache {
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final LocalCache<Long, UserDto> cache;
+
+    @Autowired
+    public UserCache(UserRepository userRepository,
+                     UserMapper userMapper,
+                     MeterRegistry meterRegistry,
+                     @Value("${shareit.cache.users.ttl:PT5M}") Duration ttl,
+                     @Value("${shareit.cache.users.max-size:10000}") int maxSize) {
+        this(userRepository, userMapper, meterRegistry, ttl, maxSize, System::nanoTime);
+    }
+
+    public UserCache(UserRepository userRepository,
+                     UserMapper userMapper,
+                     MeterRegistry meterRegistry,
+                     Duration ttl,
+                     int maxSize,
+                     LongSupplier nanoTime) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.cache = new LocalCache<>("users", ttl, maxSize, meterRegistry, nanoTime);
+    }
+
+    public Optional<UserDto> find(Long userId) {
+        return cache.get(userId, id -> userRepository.findById(id).map(userMapper::toUserDto))
+                .map(UserCache::copy);
+    }
+
+    public boolean exists(Long userId) {
+        return find(userId).isPresent();
+    }
+
+    public void evict(Long userId) {
+        cache.evict(userId);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private static UserDto copy(UserDto user) {
+        return new UserDto(user.getId(), user.getName(), user.getEmail());
+    }
+}
@@ -0,0 +1,183 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.service.ItemDetailCache;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Deletes a user together with everything that references them, without loading any of it: the user's
+ * bookings and comments, the bookings and comments on the user's items, the user's requests and items.
+ * Items other users posted in answer to the user's requests are kept without the link.
+ * <p>
+ * Rows are selected by id a chunk of each kind at a time and removed with one statement per chunk, in
+ * foreign key order. Bulk statements bypass the entity listeners, so the item search index, the item
+ * cards, the booking availability index, the {@link UserCache} and the {@link EmailFilter} are updated
+ * here.
+ */
+@Component
+@Slf4j
+public class UserDeletion {
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final CommentRepository commentRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemDetailCache itemDetailCache;
+    private final UserCache userCache;
+    private final EmailFilter emailFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor applicationTaskExecutor;
+    private final int chunkSize;
+
+    private final Set<Long> inBackground = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public UserDeletion(UserRepository userRepository,
+                        ItemRepository itemRepository,
+                        BookingRepository bookingRepository,
+                        BookingAvailabilityIndex availabilityIndex,
+                        CommentRepository commentRepository,
+                        ItemRequestRepository itemRequestRepository,
+                        ItemSearchEngine itemSearchEngine,
+                        ItemDetailCache itemDetailCache,
+                        UserCache userCache,
+                        EmailFilter emailFilter,
+                        TransactionTemplate transactionTemplate,
+                        AsyncTaskExecutor applicationTaskExecutor,
+                        @Value("${shareit.users.deletion.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.commentRepository = commentRepository;
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemSearchEngine = itemSearchEngine;
+        this.itemDetailCache = itemDetailCache;
+        this.userCache = userCache;
+        this.emailFilter = emailFilter;
+        this.transactionTemplate = transactionTemplate;
+        this.applicationTaskExecutor = applicationTaskExecutor;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Deletes up to one chunk of each kind of row in the current transaction, stopping at the first kind
+     * that has more, and the user once nothing references them.
+     *
+     * @return whether the user has been deleted
+     */
+    public boolean deleteChunk(Long userId) {
+        Limit chunk = Limit.of(chunkSize);
+        return deleted(bookingRepository.findIdsByBookerId(userId, chunk), ids -> {
+                    // Other owners' items may be booked out by these, and their cards show them
+                    bookingRepository.findItemIdsByIdIn(ids).forEach(itemId -> {
+                        itemDetailCache.evictBookings(itemId);
+                        availabilityIndex.evict(itemId);
+                    });
+                    bookingRepository.deleteAllByIdInBatch(ids);
+                })
+                && deleted(bookingRepository.findIdsByItemOwnerId(userId, chunk),
+                        bookingRepository::deleteAllByIdInBatch)
+                && deleted(commentRepository.findIdsByAuthorId(userId, chunk), ids -> {
+                    commentRepository.findItemIdsByIdIn(ids).forEach(itemDetailCache::evictItem);
+                    commentRepository.deleteAllByIdInBatch(ids);
+                })
+                && deleted(commentRepository.findIdsByItemOwnerId(userId, chunk),
+                        commentRepository::deleteAllByIdInBatch)
+                && deleted(itemRequestRepository.findIdsByRequesterId(userId, chunk), ids -> {
+                    itemRepository.detachFromRequests(ids);
+                    itemRequestRepository.deleteAllByIdInBatch(ids);
+                })
+                && deleted(itemRepository.findIdsByOwnerId(userId, chunk), ids -> {
+                    itemRepository.deleteAllByIdInBatch(ids);
+                    ids.forEach(id -> {
+                        itemSearchEngine.removed(id);
+                        itemDetailCache.evictItem(id);
+                        itemDetailCache.evictBookings(id);
+                        availabilityIndex.evict(id);
+                    });
+                })
+                && deleteUser(userId);
+    }
+
+    /**
+     * Whether a background deletion of the user is still running.
+     */
+    public boolean isInBackground(Long userId) {
+        return inBackground.contains(userId);
+    }
+
+    /**
+     * Once the current transaction commits, keeps deleting chunks on the application task executor, each in
+     * its own transaction, until the user is gone.
+     */
+    public void continueInBackground(Long userId) {
+        if (!inBackground.add(userId)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        applicationTaskExecutor.execute(() -> deleteInChunks(userId));
+                    } else {
+                        inBackground.remove(userId);
+                    }
+                }
+            });
+        } else {
+            applicationTaskExecutor.execute(() -> deleteInChunks(userId));
+        }
+    }
+
+    private void deleteInChunks(Long userId) {
+        try {
+            int chunks = 1;
+            while (!Boolean.TRUE.equals(transactionTemplate.execute(status -> deleteChunk(userId)))) {
+                chunks++;
+            }
+            log.info("Deleted user with id {} in {} chunks", userId, chunks);
+        } catch (RuntimeException e) {
+            log.error("Deleting user with id {} failed; delete the user again to resume", userId, e);
+        } finally {
+            inBackground.remove(userId);
+        }
+    }
+
+    private boolean deleted(List<Long> ids, Consumer<List<Long>> delete) {
+        if (!ids.isEmpty()) {
+            delete.accept(ids);
+        }
+        return ids.size() < chunkSize;
+    }
+
+    private boolean deleteUser(Long userId) {
+        userRepository.deleteAllByIdInBatch(List.of(userId));
+        // Requests made while the chunks ran may have cached the user again
+        userCache.evict(userId);
+        emailFilter.removed();
+        return true;
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.user.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import org.springframework.beans.factory.ObjectProvider;
+import ru.practicum.shareit.user.model.User;
+
+/**
+ * Forwards inserted and removed users to the {@link EmailFilter}. Only the service knows whether an update
+ * replaced the email, so it reports changed emails itself; re-adding an unchanged one on every update would
+ * inflate the filter's count. The filter is resolved lazily because it depends on a repository created after
+ * the entity manager this listener belongs to.
+ */
+public class UserEmailListener {
+    private final ObjectProvider<EmailFilter> emailFilter;
+
+    public UserEmailListener(ObjectProvider<EmailFilter> emailFilter) {
+        this.emailFilter = emailFilter;
+    }
+
+    @PostPersist
+    public void onPersist(User user) {
+        emailFilter.ifAvailable(filter -> filter.added(user.getEmail()));
+    }
+
+    @PostRemove
+    public void onRemove(User user) {
+        emailFilter.ifAvailable(EmailFilter::removed);
+    }
+}
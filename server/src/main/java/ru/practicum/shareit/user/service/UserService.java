@@ -1,13 +1,12 @@
 package ru.practicum.shareit.user.service;
 
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.user.dto.CreateUserRequestDto;
 import ru.practicum.shareit.user.dto.UpdateUserRequestDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
-import java.util.List;
-
 public interface UserService {
-    List<UserDto> getAll();
+    CursorPage<UserDto> getAll(Integer from, Integer size, String cursor);
 
     UserDto getById(Long userId);
 
@@ -15,5 +14,11 @@ public interface UserService {
 
     UserDto update(Long userId, UpdateUserRequestDto user);
 
-    void delete(Long userId);
+    /**
+     * Deletes the user with their items, bookings, comments and requests.
+     *
+     * @return {@code false} if the user has too much history to delete at once and the rest is being
+     * deleted in the background
+     */
+    boolean delete(Long userId);
 }
@@ -3,49 +3,73 @@ package ru.practicum.shareit.user.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.IdCursor;
+import ru.practicum.shareit.pagination.Pagination;
 import ru.practicum.shareit.user.exception.UserAlreadyExistsException;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.dto.CreateUserRequestDto;
 import ru.practicum.shareit.user.dto.UpdateUserRequestDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserShort;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
+    private static final Sort BY_ID = Sort.by("id");
+    private static final int MAX_PAGE_SIZE = 1000;
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final UserCache userCache;
+    private final EmailFilter emailFilter;
+    private final UserDeletion userDeletion;
 
     @Override
-    public List<UserDto> getAll() {
-        return userRepository.findAll().stream()
-                .map(userMapper::toUserDto)
-                .collect(Collectors.toList());
+    public CursorPage<UserDto> getAll(Integer from, Integer size, String cursor) {
+        Pagination.validate(from, size, MAX_PAGE_SIZE);
+
+        Window<UserShort> users = userRepository.findBy(Pagination.position(from, cursor), Pagination.limit(size),
+                BY_ID);
+        List<UserDto> content = users.getContent().stream()
+                .map(userMapper::fromShort)
+                .toList();
+        String nextCursor = null;
+        if (users.hasNext() && !content.isEmpty()) {
+            nextCursor = new IdCursor(content.get(content.size() - 1).getId()).encode();
+        }
+        return new CursorPage<>(content, nextCursor);
     }
 
     @Override
     public UserDto getById(Long userId) {
-        User user = userRepository.findById(userId)
+        return userCache.find(userId)
                 .orElseThrow(() -> new UserNotFoundException("User with ID " + userId + " not found"));
-        return userMapper.toUserDto(user);
     }
 
     @Override
     @Transactional
     public UserDto create(CreateUserRequestDto userDto) {
+        if (userDto.getEmail() != null && isTaken(userDto.getEmail(), null)) {
+            throw new UserAlreadyExistsException("User with email " + userDto.getEmail() + " already exists");
+        }
         try {
             User user = userMapper.fromCreateDto(userDto);
-            User savedUser = userRepository.save(user);
+            // A concurrent signup can still take the email first. With sequence ids the INSERT waits for a flush;
+            // flush here so that duplicate fails inside the try
+            User savedUser = userRepository.saveAndFlush(user);
             log.info("Created user: {}", savedUser);
             return userMapper.toUserDto(savedUser);
         } catch (DataIntegrityViolationException e) {
@@ -59,24 +83,48 @@ public class UserServiceImpl implements UserService {
         User existingUser = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User with ID " + userId + " not found"));
 
-        if (userDto.getEmail() != null && !userDto.getEmail().isBlank()) {
-            userRepository.findByEmail(userDto.getEmail())
-                    .ifPresent(user -> {
-                        if (!user.getId().equals(userId)) {
-                            throw new UserAlreadyExistsException("Email " + userDto.getEmail() + " already in use");
-                        }
-                    });
+        if (userDto.getEmail() != null && !userDto.getEmail().isBlank() && isTaken(userDto.getEmail(), userId)) {
+            throw new UserAlreadyExistsException("Email " + userDto.getEmail() + " already in use");
         }
 
+        String previousEmail = existingUser.getEmail();
         userMapper.updateFromDto(userDto, existingUser);
-        return userMapper.toUserDto(userRepository.save(existingUser));
+        userCache.evict(userId);
+        User savedUser = userRepository.save(existingUser);
+        if (!Objects.equals(previousEmail, savedUser.getEmail())) {
+            emailFilter.added(savedUser.getEmail());
+            emailFilter.removed();
+        }
+        return userMapper.toUserDto(savedUser);
     }
 
-
     @Override
-    public void delete(Long userId) {
-        userRepository.deleteById(userId);
-        log.info("Deleted user with id: {}", userId);
+    @Transactional
+    public boolean delete(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User with ID " + userId + " not found");
+        }
+        userCache.evict(userId);
+        if (userDeletion.isInBackground(userId)) {
+            return false;
+        }
+        if (userDeletion.deleteChunk(userId)) {
+            log.info("Deleted user with id: {}", userId);
+            return true;
+        }
+        userDeletion.continueInBackground(userId);
+        log.info("Deleting user with id {} in the background", userId);
+        return false;
+    }
+
+    /**
+     * Whether a user other than {@code userId} has the email. Emails the filter has never seen are
+     * answered without a query.
+     */
+    private boolean isTaken(String email, Long userId) {
+        return emailFilter.mightContain(email) && userRepository.findByEmail(email)
+                .filter(user -> !user.getId().equals(userId))
+                .isPresent();
     }
 }
 
@@ -0,0 +1,38 @@
+-- Разовая миграция для PostgreSQL, при запуске приложения не выполняется.
+-- Нужна, если сервер не стартует с ошибкой "Approved bookings overlap": подтверждённые бронирования одной вещи
+-- пересекаются по времени, и ограничение ex_booking_approved_overlap из schema-postgresql.sql добавить нельзя.
+-- Из пересекающихся подтверждённых бронирований вещи остаётся самое раннее по id, остальные отклоняются (REJECTED).
+-- Порядок работы:
+--   1. выполнить запрос ниже и согласовать список с владельцами вещей;
+--   2. при необходимости вручную поменять статусы, которые нужно решить иначе;
+--   3. выполнить скрипт целиком: psql -v ON_ERROR_STOP=1 -f resolve-approved-booking-overlaps.sql
+--      каждое отклонённое бронирование выводится как NOTICE;
+--   4. запустить сервер, ограничение будет добавлено при старте.
+
+-- Пересекающиеся подтверждённые бронирования с более ранним бронированием той же вещи, которое их перекрывает
+SELECT c.id, c.item_id, c.booker_id, c.start_date, c.end_date, o.id AS overlapped_by
+FROM bookings c
+         JOIN bookings o ON o.item_id = c.item_id AND o.status = 'APPROVED' AND o.id < c.id
+    AND tsrange(o.start_date, o.end_date, '[]') && tsrange(c.start_date, c.end_date, '[]')
+WHERE c.status = 'APPROVED'
+ORDER BY c.item_id, c.id, o.id;
+
+BEGIN;
+
+-- Бронирования проверяются по возрастанию id, поэтому уже отклонённые больше ни с кем не конфликтуют
+DO $$
+DECLARE
+    b record;
+BEGIN
+    FOR b IN SELECT id, item_id, start_date, end_date FROM bookings WHERE status = 'APPROVED' ORDER BY id LOOP
+        IF EXISTS (SELECT 1 FROM bookings o
+                   WHERE o.item_id = b.item_id AND o.status = 'APPROVED' AND o.id < b.id
+                     AND tsrange(o.start_date, o.end_date, '[]') && tsrange(b.start_date, b.end_date, '[]')) THEN
+            UPDATE bookings SET status = 'REJECTED' WHERE id = b.id;
+            RAISE NOTICE 'Booking % of item % overlaps an earlier approved booking and was rejected', b.id, b.item_id;
+        END IF;
+    END LOOP;
+END
+$$;
+
+COMMIT;
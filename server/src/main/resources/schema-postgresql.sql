@@ -0,0 +1,39 @@
+-- Только для PostgreSQL: подтверждённые бронирования одной вещи не могут пересекаться по времени.
+-- В базах, созданных до появления ограничения, пересечения уже могли накопиться, и ALTER TABLE на них упал бы.
+-- Данные здесь не исправляются: запуск прерывается со списком пересекающихся бронирований, а решать, какие из них
+-- отклонить, нужно вручную разовым скриптом db/resolve-approved-booking-overlaps.sql после его проверки
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+DO 'DECLARE conflicting text; BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''ex_booking_approved_overlap'') THEN
+        SELECT string_agg(c.id::text, '', '' ORDER BY c.id) INTO conflicting FROM bookings c
+            WHERE c.status = ''APPROVED'' AND EXISTS (
+                SELECT 1 FROM bookings o
+                WHERE o.item_id = c.item_id AND o.status = ''APPROVED'' AND o.id <> c.id
+                    AND tsrange(o.start_date, o.end_date, ''[]'') && tsrange(c.start_date, c.end_date, ''[]''));
+        IF conflicting IS NOT NULL THEN
+            RAISE EXCEPTION ''Approved bookings overlap, constraint ex_booking_approved_overlap cannot be added: %'',
+                    conflicting
+                USING HINT = ''Resolve them with db/resolve-approved-booking-overlaps.sql, then restart'';
+        END IF;
+        ALTER TABLE bookings ADD CONSTRAINT EX_BOOKING_APPROVED_OVERLAP
+            EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date, ''[]'') WITH &&)
+            WHERE (status = ''APPROVED'');
+    END IF;
+END';
+
+-- Только для PostgreSQL: триграммные индексы для поиска вещей по подстроке
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS IDX_ITEM_NAME_TRGM ON items USING gin (LOWER(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS IDX_ITEM_DESCRIPTION_TRGM ON items USING gin (LOWER(description) gin_trgm_ops);
+
+-- Только для PostgreSQL: в базах, созданных до перехода на последовательности, id выдавались через IDENTITY;
+-- последовательность сдвигается за максимальный id, чтобы новые записи не пересекались со старыми
+DO 'DECLARE t text; BEGIN
+    FOREACH t IN ARRAY ARRAY[''users'', ''requests'', ''items'', ''bookings'', ''comments''] LOOP
+        IF to_regclass(t || ''_seq'') IS NOT NULL AND to_regclass(t) IS NOT NULL THEN
+            EXECUTE format(''SELECT setval(%L, MAX(id) + 50, false) FROM %I HAVING MAX(id) >= (SELECT last_value FROM %I)'',
+                    t || ''_seq'', t, t || ''_seq'');
+        END IF;
+    END LOOP;
+END';
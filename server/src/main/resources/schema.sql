@@ -1,6 +1,14 @@
+-- Последовательности для id: Hibernate резервирует по 50 значений за одно обращение (allocationSize),
+-- поэтому вставки можно отправлять пачками
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+
 -- Сначала создаем users, так как на них ссылаются другие таблицы
 CREATE TABLE IF NOT EXISTS users (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT DEFAULT nextval('users_seq') NOT NULL,
     name VARCHAR(255) NOT NULL,
     email VARCHAR(512) NOT NULL,
     CONSTRAINT pk_user PRIMARY KEY (id),
@@ -9,7 +17,7 @@ CREATE TABLE IF NOT EXISTS users (
 
 -- Затем requests, так как items ссылается на requests
 CREATE TABLE IF NOT EXISTS requests (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT DEFAULT nextval('requests_seq') NOT NULL,
     description VARCHAR(1000) NOT NULL,
     requester_id BIGINT NOT NULL,
     created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
@@ -19,7 +27,7 @@ CREATE TABLE IF NOT EXISTS requests (
 
 -- Теперь items (сначала без FK на requests, потом ALTER)
 CREATE TABLE IF NOT EXISTS items (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT DEFAULT nextval('items_seq') NOT NULL,
     name VARCHAR(255) NOT NULL,
     description TEXT NOT NULL,
     available BOOLEAN NOT NULL,
@@ -32,9 +40,19 @@ CREATE TABLE IF NOT EXISTS items (
 -- Добавляем FK на requests отдельно (после создания items и requests)
 ALTER TABLE items ADD CONSTRAINT FK_ITEM_REQUEST FOREIGN KEY (request_id) REFERENCES requests (id);
 
+-- Вещи владельца и вещи, созданные в ответ на запрос
+CREATE INDEX IF NOT EXISTS IDX_ITEM_OWNER ON items (owner_id, id);
+CREATE INDEX IF NOT EXISTS IDX_ITEM_REQUEST ON items (request_id);
+
+-- Запросы пользователя, от новых к старым
+CREATE INDEX IF NOT EXISTS IDX_REQUEST_REQUESTER_CREATED ON requests (requester_id, created);
+
+-- Лента чужих запросов: прокрутка по ключу (created, id), от новых к старым
+CREATE INDEX IF NOT EXISTS IDX_REQUEST_CREATED_ID ON requests (created, id);
+
 -- Остальные таблицы (bookings, comments)
 CREATE TABLE IF NOT EXISTS bookings (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT DEFAULT nextval('bookings_seq') NOT NULL,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     item_id BIGINT NOT NULL,
@@ -45,8 +63,18 @@ CREATE TABLE IF NOT EXISTS bookings (
     CONSTRAINT FK_BOOKING_BOOKER FOREIGN KEY (booker_id) REFERENCES users (id)
 );
 
+-- Проверка пересечений: подтверждённые бронирования вещи, упорядоченные по интервалу
+CREATE INDEX IF NOT EXISTS IDX_BOOKING_ITEM_STATUS_DATES ON bookings (item_id, status, start_date, end_date);
+
+-- Бронирования пользователя, от новых к старым
+CREATE INDEX IF NOT EXISTS IDX_BOOKING_BOOKER_START ON bookings (booker_id, start_date);
+
+-- Последнее и следующее бронирование вещи
+CREATE INDEX IF NOT EXISTS IDX_BOOKING_ITEM_START ON bookings (item_id, start_date);
+CREATE INDEX IF NOT EXISTS IDX_BOOKING_ITEM_END ON bookings (item_id, end_date);
+
 CREATE TABLE IF NOT EXISTS comments (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT DEFAULT nextval('comments_seq') NOT NULL,
     text VARCHAR(1000) NOT NULL,
     item_id BIGINT NOT NULL,
     author_id BIGINT NOT NULL,
@@ -54,4 +82,10 @@ CREATE TABLE IF NOT EXISTS comments (
     CONSTRAINT pk_comment PRIMARY KEY (id),
     CONSTRAINT FK_COMMENT_ITEM FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT FK_COMMENT_AUTHOR FOREIGN KEY (author_id) REFERENCES users (id)
-);
\ No newline at end of file
+);
+
+-- Отзывы к вещи
+CREATE INDEX IF NOT EXISTS IDX_COMMENT_ITEM ON comments (item_id, created);
+
+-- Отзывы пользователя (удаление пользователя)
+CREATE INDEX IF NOT EXISTS IDX_COMMENT_AUTHOR ON comments (author_id);
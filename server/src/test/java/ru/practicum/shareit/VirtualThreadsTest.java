@@ -0,0 +1,169 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.cache.LocalCache;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties")
+class VirtualThreadsTest {
+    private static final Duration BLOCKED = Duration.ofMillis(100);
+
+    @Autowired
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @MockBean
+    private BookingService bookingService;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void tomcat_ShouldHandleRequestsOnVirtualThreads() {
+        TomcatWebServer webServer = (TomcatWebServer) context.getWebServer();
+
+        assertThat(webServer.getTomcat().getConnector().getProtocolHandler().getExecutor())
+                .isInstanceOf(VirtualThreadExecutor.class);
+    }
+
+    @Test
+    void applicationTaskExecutor_ShouldRunTasksOnVirtualThreads() throws Exception {
+        assertThat(applicationTaskExecutor.submit(() -> Thread.currentThread().isVirtual()).get()).isTrue();
+    }
+
+    @Test
+    void exports_ShouldBeWrittenOnVirtualThreads() throws Exception {
+        AtomicBoolean virtual = new AtomicBoolean();
+        doAnswer(invocation -> {
+            virtual.set(Thread.currentThread().isVirtual());
+            return null;
+        }).when(bookingService).exportByOwner(anyLong(), any());
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bookings/owner/export"))
+                .header("X-Sharer-User-Id", "1")
+                .build();
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(virtual).isTrue();
+    }
+
+    @Test
+    void repositories_ShouldServeMoreVirtualThreadsThanConnections() throws Exception {
+        long users = userRepository.count();
+        List<Future<Long>> counts = new ArrayList<>();
+        // Well beyond the 20 pooled connections; the rest wait for one instead of failing
+        for (int i = 0; i < 200; i++) {
+            counts.add(applicationTaskExecutor.submit(() -> userRepository.count()));
+        }
+
+        for (Future<Long> count : counts) {
+            assertThat(count.get()).isEqualTo(users);
+        }
+    }
+
+    @Test
+    void localCache_ShouldNotPinCarrierWhileLoading() throws Exception {
+        LocalCache<Long, String> cache = new LocalCache<>("pinning", Duration.ofMinutes(1), 10,
+                new SimpleMeterRegistry(), System::nanoTime);
+        Object monitor = new Object();
+
+        // Shows the recording catches pinning at all
+        assertThat(pinnedWhile(() -> {
+            synchronized (monitor) {
+                block();
+            }
+        })).isNotEmpty();
+        assertThat(pinnedWhile(() -> cache.get(1L, id -> {
+            block();
+            return Optional.of("loaded");
+        }))).isEmpty();
+    }
+
+    @Test
+    void availabilityIndex_ShouldNotPinCarrierWhileLoadingSchedule() throws Exception {
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findByItemIdAndStatusAndEndAfter(eq(1L), eq(BookingStatus.APPROVED), any()))
+                .thenAnswer(invocation -> {
+                    block();
+                    return List.of();
+                });
+        BookingAvailabilityIndex index = new BookingAvailabilityIndex(bookingRepository, new SimpleMeterRegistry(),
+                Duration.ofMinutes(1), 10, System::nanoTime);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        assertThat(pinnedWhile(() -> index.hasConflict(1L, start, start.plusHours(1)))).isEmpty();
+    }
+
+    /**
+     * Runs {@code work} on a virtual thread and returns the times it pinned its carrier thread while
+     * blocked.
+     */
+    private static List<RecordedEvent> pinnedWhile(Runnable work) throws Exception {
+        List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+        try (RecordingStream events = new RecordingStream()) {
+            events.enable("jdk.VirtualThreadPinned").withThreshold(BLOCKED.dividedBy(2));
+            events.onEvent("jdk.VirtualThreadPinned", pinned::add);
+            events.startAsync();
+            Thread.ofVirtual().start(work).join();
+            events.stop();
+        }
+        return pinned;
+    }
+
+    private static void block() {
+        try {
+            Thread.sleep(BLOCKED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
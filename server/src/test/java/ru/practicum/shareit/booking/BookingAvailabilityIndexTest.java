@@ -0,0 +1,134 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingAvailabilityIndexTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private final AtomicLong now = new AtomicLong();
+    private BookingAvailabilityIndex index;
+
+    private final Long itemId = 1L;
+    private final LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+
+    @BeforeEach
+    void setUp() {
+        index = new BookingAvailabilityIndex(bookingRepository, new SimpleMeterRegistry(), Duration.ofMinutes(10), 2,
+                now::get);
+        when(bookingRepository.findByItemIdAndStatusAndEndAfter(eq(itemId), eq(BookingStatus.APPROVED), any()))
+                .thenReturn(List.of(booking(10, 12)));
+    }
+
+    @Test
+    void hasConflict_OverlappingOrTouchingRange_ReturnsTrue() {
+        assertTrue(index.hasConflict(itemId, at(11), at(13)));
+        assertTrue(index.hasConflict(itemId, at(9), at(10)));
+        assertTrue(index.hasConflict(itemId, at(12), at(14)));
+        assertTrue(index.hasConflict(itemId, at(8), at(15)));
+    }
+
+    @Test
+    void hasConflict_FreeRange_ReturnsFalse() {
+        assertFalse(index.hasConflict(itemId, at(7), at(9)));
+        assertFalse(index.hasConflict(itemId, at(13), at(15)));
+    }
+
+    @Test
+    void hasConflict_LoadsItemScheduleOnce() {
+        index.hasConflict(itemId, at(1), at(2));
+        index.hasConflict(itemId, at(3), at(4));
+
+        verify(bookingRepository, times(1))
+                .findByItemIdAndStatusAndEndAfter(eq(itemId), eq(BookingStatus.APPROVED), any());
+    }
+
+    @Test
+    void hasConflict_AfterTtl_ReloadsItemSchedule() {
+        index.hasConflict(itemId, at(1), at(2));
+        now.addAndGet(Duration.ofMinutes(11).toNanos());
+        index.hasConflict(itemId, at(1), at(2));
+
+        verify(bookingRepository, times(2))
+                .findByItemIdAndStatusAndEndAfter(eq(itemId), eq(BookingStatus.APPROVED), any());
+    }
+
+    @Test
+    void hasConflict_BeyondMaxSize_DropsLeastRecentlyCheckedItem() {
+        index.hasConflict(itemId, at(1), at(2));
+        index.hasConflict(2L, at(1), at(2));
+        index.hasConflict(3L, at(1), at(2));
+        index.hasConflict(itemId, at(1), at(2));
+
+        verify(bookingRepository, times(2))
+                .findByItemIdAndStatusAndEndAfter(eq(itemId), eq(BookingStatus.APPROVED), any());
+    }
+
+    @Test
+    void register_NotLoadedItem_IsLeftToTheNextLoad() {
+        index.register(booking(14, 16));
+
+        assertFalse(index.hasConflict(itemId, at(14), at(15)));
+    }
+
+    @Test
+    void register_ApprovedBooking_BlocksItsRange() {
+        assertFalse(index.hasConflict(itemId, at(14), at(15)));
+
+        index.register(booking(14, 16));
+
+        assertTrue(index.hasConflict(itemId, at(15), at(17)));
+        assertFalse(index.hasConflict(itemId, at(13), at(13).plusMinutes(30)));
+    }
+
+    @Test
+    void register_BridgingBooking_MergesNeighbouringRanges() {
+        index.hasConflict(itemId, at(1), at(2));
+        index.register(booking(20, 22));
+        index.register(booking(11, 21));
+
+        assertTrue(index.hasConflict(itemId, at(16), at(17)));
+        assertTrue(index.hasConflict(itemId, at(21), at(23)));
+        assertFalse(index.hasConflict(itemId, at(23), at(24)));
+    }
+
+    private LocalDateTime at(int hour) {
+        return base.plusHours(hour);
+    }
+
+    private Booking booking(int startHour, int endHour) {
+        Item item = new Item();
+        item.setId(itemId);
+        Booking booking = new Booking();
+        booking.setItem(item);
+        booking.setStart(at(startHour));
+        booking.setEnd(at(endHour));
+        booking.setStatus(BookingStatus.APPROVED);
+        return booking;
+    }
+}
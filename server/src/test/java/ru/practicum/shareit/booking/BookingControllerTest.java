@@ -5,8 +5,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchApprovalRequestDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateBookingRequestDto;
 import ru.practicum.shareit.booking.exception.BookingAccessDeniedException;
@@ -14,19 +18,30 @@ import ru.practicum.shareit.booking.exception.BookingAlreadyProcessedException;
 import ru.practicum.shareit.booking.exception.BookingOwnItemException;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.user.exception.UserNotFoundException;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import ru.practicum.shareit.exception.BadRequestException;
@@ -107,6 +122,28 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.status").value("APPROVED"));
     }
 
+    @Test
+    void approveAll_ValidRequest_ReturnsResultPerBooking() throws Exception {
+        BookingDto approvedDto = createBookingDto();
+        approvedDto.setStatus(BookingStatus.APPROVED);
+        BookingBatchApprovalRequestDto requestDto = new BookingBatchApprovalRequestDto(List.of(bookingId, 99L), true);
+
+        when(bookingService.approveAll(eq(userId), any(BookingBatchApprovalRequestDto.class)))
+                .thenReturn(List.of(BookingApprovalResultDto.succeeded(approvedDto),
+                        BookingApprovalResultDto.failed(99L, "Booking not found")));
+
+        mockMvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-Id", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].success").value(true))
+                .andExpect(jsonPath("$[0].booking.status").value("APPROVED"))
+                .andExpect(jsonPath("$[1].bookingId").value(99))
+                .andExpect(jsonPath("$[1].success").value(false))
+                .andExpect(jsonPath("$[1].error").value("Booking not found"));
+    }
+
     @Test
     void cancel_ValidRequest_ReturnsCancelledBooking() throws Exception {
         BookingDto responseDto = createBookingDto();
@@ -139,8 +176,8 @@ class BookingControllerTest {
         BookingDto bookingDto = createBookingDto();
         List<BookingDto> bookings = List.of(bookingDto);
 
-        when(bookingService.getAllByUser(anyLong(), eq("ALL")))
-                .thenReturn(bookings);
+        when(bookingService.getAllByUser(anyLong(), eq("ALL"), anyInt(), anyInt(), any()))
+                .thenReturn(new CursorPage<>(bookings, null));
 
         mockMvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", userId)
@@ -154,8 +191,8 @@ class BookingControllerTest {
         BookingDto bookingDto = createBookingDto();
         List<BookingDto> bookings = List.of(bookingDto);
 
-        when(bookingService.getAllByOwner(anyLong(), eq("ALL")))
-                .thenReturn(bookings);
+        when(bookingService.getAllByOwner(anyLong(), eq("ALL"), anyInt(), anyInt(), any()))
+                .thenReturn(new CursorPage<>(bookings, null));
 
         mockMvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", userId)
@@ -164,6 +201,33 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].id").value(bookingDto.getId()));
     }
 
+    @Test
+    void getAllByUser_WithCursor_PassesPagingAndReturnsNextCursor() throws Exception {
+        when(bookingService.getAllByUser(userId, "ALL", 0, 2, "abc"))
+                .thenReturn(new CursorPage<>(List.of(createBookingDto()), "next"));
+
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("size", "2")
+                        .param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("$[0].id").value(1L));
+    }
+
+    @Test
+    void getAllByOwner_LastPage_HasNoCursorHeader() throws Exception {
+        when(bookingService.getAllByOwner(userId, "ALL", 5, 5, null))
+                .thenReturn(new CursorPage<>(List.of(createBookingDto()), null));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("from", "5")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
     @Test
     void create_InvalidDates_ReturnsBadRequest() throws Exception {
         CreateBookingRequestDto requestDto = new CreateBookingRequestDto();
@@ -183,7 +247,7 @@ class BookingControllerTest {
 
     @Test
     void getAllByUser_InvalidState_ReturnsBadRequest() throws Exception {
-        when(bookingService.getAllByUser(anyLong(), eq("INVALID_STATE")))
+        when(bookingService.getAllByUser(anyLong(), eq("INVALID_STATE"), anyInt(), anyInt(), any()))
                 .thenThrow(new BadRequestException("Unknown state: INVALID_STATE"));
 
         mockMvc.perform(get("/bookings")
@@ -243,8 +307,8 @@ class BookingControllerTest {
     @Test
     void getAllByUser_AllStates_ShouldWork() throws Exception {
         for (String state : List.of("ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED")) {
-            when(bookingService.getAllByUser(userId, state))
-                    .thenReturn(List.of(createBookingDto()));
+            when(bookingService.getAllByUser(userId, state, 0, 10, null))
+                    .thenReturn(new CursorPage<>(List.of(createBookingDto()), null));
 
             mockMvc.perform(get("/bookings")
                             .header("X-Sharer-User-Id", userId)
@@ -281,8 +345,8 @@ class BookingControllerTest {
 
     @Test
     void getAllByUser_NoBookings_ShouldReturnEmptyList() throws Exception {
-        when(bookingService.getAllByUser(anyLong(), eq("ALL")))
-                .thenReturn(List.of());
+        when(bookingService.getAllByUser(anyLong(), eq("ALL"), anyInt(), anyInt(), any()))
+                .thenReturn(new CursorPage<>(List.of(), null));
 
         mockMvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", userId)
@@ -365,4 +429,45 @@ class BookingControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").value("Invalid dates"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportByOwner_StreamsOneJsonDocumentPerLine() throws Exception {
+        BookingDto second = createBookingDto();
+        second.setId(2L);
+        doAnswer(invocation -> {
+            Consumer<BookingDto> sink = invocation.getArgument(1);
+            sink.accept(createBookingDto());
+            sink.accept(second);
+            return null;
+        }).when(bookingService).exportByOwner(eq(userId), any());
+
+        MvcResult result = mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andReturn().getResponse().getContentAsString();
+        List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size());
+        assertEquals(1L, objectMapper.readValue(lines.get(0), BookingDto.class).getId());
+        assertEquals(2L, objectMapper.readValue(lines.get(1), BookingDto.class).getId());
+    }
+
+    @Test
+    void exportByOwner_UnknownUser_ReturnsNotFound() throws Exception {
+        doThrow(new UserNotFoundException("User not found"))
+                .when(bookingService).exportByOwner(eq(userId), any());
+
+        MvcResult result = mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -1,44 +1,71 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.OffsetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchApprovalRequestDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateBookingRequestDto;
 import ru.practicum.shareit.booking.exception.BookingAccessDeniedException;
 import ru.practicum.shareit.booking.exception.BookingAlreadyProcessedException;
+import ru.practicum.shareit.booking.exception.BookingConflictException;
 import ru.practicum.shareit.booking.exception.BookingOwnItemException;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingAvailabilityIndex;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.booking.service.ItemBookingLocks;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.exception.ItemNotOwnedByUserException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemDetailCache;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -56,6 +83,21 @@ class BookingServiceImplTest {
     @Mock
     private BookingMapper bookingMapper;
 
+    @Mock
+    private BookingAvailabilityIndex availabilityIndex;
+
+    @Mock
+    private ItemBookingLocks itemLocks;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private ItemDetailCache itemDetailCache;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -75,7 +117,7 @@ class BookingServiceImplTest {
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(booker));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingRepository.existsApprovedBookingsForItemBetweenDates(anyLong(), any(), any()))
+        when(availabilityIndex.hasConflict(anyLong(), any(), any()))
                 .thenReturn(false);
         when(bookingMapper.fromCreateDto(any(), any(), any(), any())).thenReturn(booking);
         when(bookingRepository.save(any())).thenReturn(booking);
@@ -142,7 +184,7 @@ class BookingServiceImplTest {
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(booker));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(bookingRepository.existsApprovedBookingsForItemBetweenDates(anyLong(), any(), any()))
+        when(availabilityIndex.hasConflict(anyLong(), any(), any()))
                 .thenReturn(true);
 
         assertThrows(BadRequestException.class, () -> bookingService.create(userId, requestDto));
@@ -158,14 +200,93 @@ class BookingServiceImplTest {
         expectedDto.setStatus(BookingStatus.APPROVED);
 
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any())).thenReturn(booking);
+        when(bookingRepository.saveAndFlush(any())).thenReturn(booking);
         when(bookingMapper.toDto(any())).thenReturn(expectedDto);
 
         BookingDto result = bookingService.approve(ownerId, bookingId, true);
 
         assertNotNull(result);
         assertEquals(BookingStatus.APPROVED, result.getStatus());
-        verify(bookingRepository).save(booking);
+        verify(bookingRepository).saveAndFlush(booking);
+    }
+
+    @Test
+    void approve_Approved_RegistersBookingInAvailabilityIndex() {
+        User owner = createUser(ownerId, "owner@email.com");
+        Booking booking = createBooking(createUser(userId, "booker@email.com"), createAvailableItem(owner));
+
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        doAnswer(invocation -> {
+            booking.setStatus(BookingStatus.APPROVED);
+            return null;
+        }).when(bookingMapper).updateStatus(true, booking);
+        when(bookingRepository.saveAndFlush(booking)).thenReturn(booking);
+
+        bookingService.approve(ownerId, bookingId, true);
+
+        verify(availabilityIndex).register(booking);
+    }
+
+    @Test
+    void approve_Rejected_EvictsItemScheduleInsteadOfRegistering() {
+        User owner = createUser(ownerId, "owner@email.com");
+        Booking booking = createBooking(createUser(userId, "booker@email.com"), createAvailableItem(owner));
+
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.saveAndFlush(booking)).thenReturn(booking);
+
+        bookingService.approve(ownerId, bookingId, false);
+
+        verify(availabilityIndex, never()).register(any());
+        verify(availabilityIndex).evict(itemId);
+        verify(itemDetailCache).evictBookings(itemId);
+    }
+
+    @Test
+    void approve_OverlapsApprovedBooking_ThrowsConflict() {
+        User owner = createUser(ownerId, "owner@email.com");
+        Booking booking = createBooking(createUser(userId, "booker@email.com"), createAvailableItem(owner));
+
+        when(bookingRepository.findItemIdsByIdIn(List.of(bookingId))).thenReturn(List.of(itemId));
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.existsApprovedOverlap(itemId, booking.getStart(), booking.getEnd())).thenReturn(true);
+
+        assertThrows(BookingConflictException.class, () -> bookingService.approve(ownerId, bookingId, true));
+
+        verify(itemLocks).lockAllUntilCompletion(List.of(itemId));
+        verify(bookingRepository, never()).saveAndFlush(any());
+        verify(itemDetailCache, never()).evictBookings(any());
+    }
+
+    @Test
+    void approve_ExclusionConstraintViolated_ThrowsConflict() {
+        User owner = createUser(ownerId, "owner@email.com");
+        Booking booking = createBooking(createUser(userId, "booker@email.com"), createAvailableItem(owner));
+
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        // As PostgreSQL reports it: Hibernate leaves the constraint name of exclusion violations empty
+        SQLException overlap = new SQLException(
+                "ERROR: conflicting key value violates exclusion constraint \"ex_booking_approved_overlap\"", "23P01");
+        when(bookingRepository.saveAndFlush(booking)).thenThrow(new DataIntegrityViolationException("overlap",
+                new ConstraintViolationException("could not execute statement", overlap, null)));
+
+        assertThrows(BookingConflictException.class, () -> bookingService.approve(ownerId, bookingId, true));
+    }
+
+    @Test
+    void approve_OtherIntegrityViolation_IsNotReportedAsConflict() {
+        User owner = createUser(ownerId, "owner@email.com");
+        Booking booking = createBooking(createUser(userId, "booker@email.com"), createAvailableItem(owner));
+        DataIntegrityViolationException foreignKey = new DataIntegrityViolationException("fk",
+                new ConstraintViolationException("could not execute statement",
+                        new SQLException("violates foreign key constraint", "23503"), "fk_booking_item"));
+
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.saveAndFlush(booking)).thenThrow(foreignKey);
+
+        DataIntegrityViolationException thrown = assertThrows(DataIntegrityViolationException.class,
+                () -> bookingService.approve(ownerId, bookingId, true));
+        assertSame(foreignKey, thrown);
     }
 
     @Test
@@ -195,6 +316,92 @@ class BookingServiceImplTest {
                 () -> bookingService.approve(ownerId, bookingId, true));
     }
 
+    @Test
+    void approveAll_MixedBatch_ReturnsResultPerIdInRequestOrder() {
+        User owner = createUser(ownerId, "owner@email.com");
+        User booker = createUser(userId, "booker@email.com");
+        Item item = createAvailableItem(owner);
+        Booking waiting = createBooking(booker, item);
+        Booking processed = createBooking(booker, item);
+        processed.setId(3L);
+        processed.setStatus(BookingStatus.APPROVED);
+        Booking overlapping = createBooking(booker, item);
+        overlapping.setId(4L);
+        BookingDto approvedDto = createBookingDto();
+
+        when(bookingRepository.findItemIdsByIdIn(List.of(1L, 2L, 3L, 4L))).thenReturn(List.of(itemId));
+        when(bookingRepository.findByIdIn(List.of(1L, 2L, 3L, 4L)))
+                .thenReturn(List.of(overlapping, processed, waiting));
+        when(bookingRepository.findApprovedOverlapping(eq(Set.of(itemId)), any(), any()))
+                .thenReturn(List.of());
+        doAnswer(invocation -> {
+            waiting.setStatus(BookingStatus.APPROVED);
+            return null;
+        }).when(bookingMapper).updateStatus(true, waiting);
+        when(bookingMapper.toDto(waiting)).thenReturn(approvedDto);
+
+        List<BookingApprovalResultDto> results = bookingService.approveAll(ownerId,
+                new BookingBatchApprovalRequestDto(List.of(1L, 2L, 3L, 4L, 1L), true));
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(approvedDto, results.get(0).getBooking());
+        assertEquals("Booking not found", results.get(1).getError());
+        assertEquals("Booking already processed", results.get(2).getError());
+        assertEquals(4L, results.get(3).getBookingId());
+        assertEquals("Item is already booked for the selected dates", results.get(3).getError());
+        verify(itemLocks).lockAllUntilCompletion(List.of(itemId));
+        verify(bookingRepository).saveAllAndFlush(List.of(waiting));
+        verify(availabilityIndex).register(waiting);
+    }
+
+    @Test
+    void approveAll_Rejected_LocksItemsButSkipsOverlapQuery() {
+        User owner = createUser(ownerId, "owner@email.com");
+        Booking booking = createBooking(createUser(userId, "booker@email.com"), createAvailableItem(owner));
+
+        when(bookingRepository.findItemIdsByIdIn(List.of(bookingId))).thenReturn(List.of(itemId));
+        when(bookingRepository.findByIdIn(List.of(bookingId))).thenReturn(List.of(booking));
+        when(bookingMapper.toDto(booking)).thenReturn(createBookingDto());
+
+        List<BookingApprovalResultDto> results = bookingService.approveAll(ownerId,
+                new BookingBatchApprovalRequestDto(List.of(bookingId), false));
+
+        assertTrue(results.get(0).isSuccess());
+        verify(bookingMapper).updateStatus(false, booking);
+        verify(itemLocks).lockAllUntilCompletion(List.of(itemId));
+        verify(bookingRepository, never()).findApprovedOverlapping(any(), any(), any());
+        verify(availabilityIndex, never()).register(any());
+        verify(availabilityIndex).evict(itemId);
+    }
+
+    @Test
+    void approveAll_NotOwner_ReportsFailureWithoutSaving() {
+        User owner = createUser(ownerId, "owner@email.com");
+        Booking booking = createBooking(createUser(userId, "booker@email.com"), createAvailableItem(owner));
+
+        when(bookingRepository.findByIdIn(List.of(bookingId))).thenReturn(List.of(booking));
+
+        List<BookingApprovalResultDto> results = bookingService.approveAll(userId,
+                new BookingBatchApprovalRequestDto(List.of(bookingId), true));
+
+        assertFalse(results.get(0).isSuccess());
+        assertEquals("User is not the owner", results.get(0).getError());
+        verify(bookingMapper, never()).updateStatus(any(), any());
+    }
+
+    @Test
+    void approveAll_EmptyOrOversizedBatch_ThrowsBadRequest() {
+        List<Long> tooMany = LongStream.rangeClosed(1, 101).boxed().toList();
+
+        assertThrows(BadRequestException.class, () -> bookingService.approveAll(ownerId,
+                new BookingBatchApprovalRequestDto(List.of(), true)));
+        assertThrows(BadRequestException.class, () -> bookingService.approveAll(ownerId,
+                new BookingBatchApprovalRequestDto(tooMany, true)));
+        assertThrows(BadRequestException.class, () -> bookingService.approveAll(ownerId,
+                new BookingBatchApprovalRequestDto(List.of(bookingId), null)));
+    }
+
     @Test
     void cancel_ValidRequest_ReturnsCancelledBooking() {
         User owner = createUser(ownerId, "owner@email.com");
@@ -204,6 +411,7 @@ class BookingServiceImplTest {
         BookingDto expectedDto = createBookingDto();
         expectedDto.setStatus(BookingStatus.CANCELLED);
 
+        when(bookingRepository.findItemIdsByIdIn(List.of(bookingId))).thenReturn(List.of(itemId));
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
         when(bookingRepository.save(any())).thenReturn(booking);
         when(bookingMapper.toDto(any())).thenReturn(expectedDto);
@@ -212,7 +420,10 @@ class BookingServiceImplTest {
 
         assertNotNull(result);
         assertEquals(BookingStatus.CANCELLED, result.getStatus());
+        verify(itemLocks).lockAllUntilCompletion(List.of(itemId));
         verify(bookingRepository).save(booking);
+        verify(availabilityIndex).evict(itemId);
+        verify(itemDetailCache).evictBookings(itemId);
     }
 
     @Test
@@ -265,15 +476,68 @@ class BookingServiceImplTest {
         List<Booking> bookings = List.of(createBooking(booker, createAvailableItem(createUser(ownerId, "owner@email.com"))));
         BookingDto bookingDto = createBookingDto();
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findByBookerIdOrderByStartDesc(userId)).thenReturn(bookings);
+        when(userCache.exists(userId)).thenReturn(true);
+        when(bookingRepository.findByBookerId(eq(userId), any(), any(), any(Sort.class))).thenReturn(window(bookings));
         when(bookingMapper.toDto(any())).thenReturn(bookingDto);
 
-        List<BookingDto> result = bookingService.getAllByUser(userId, "ALL");
+        CursorPage<BookingDto> result = bookingService.getAllByUser(userId, "ALL", 0, 10, null);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
+        assertFalse(result.content().isEmpty());
+        assertEquals(1, result.content().size());
+    }
+
+    @Test
+    void getAllByUser_FullPage_ReturnsKeysetCursorOfLastRow() {
+        User booker = createUser(userId, "booker@email.com");
+        Booking booking = createBooking(booker, createAvailableItem(createUser(ownerId, "owner@email.com")));
+        Window<Booking> page = Window.from(List.of(booking), OffsetScrollPosition.positionFunction(0), true);
+
+        when(userCache.exists(userId)).thenReturn(true);
+        when(bookingRepository.findByBookerId(eq(userId), any(), eq(Limit.of(1)), any(Sort.class))).thenReturn(page);
+        when(bookingMapper.toDto(any())).thenReturn(createBookingDto());
+
+        CursorPage<BookingDto> result = bookingService.getAllByUser(userId, "ALL", 0, 1, null);
+
+        KeysetCursor cursor = KeysetCursor.decode(result.nextCursor());
+        assertEquals(booking.getStart(), cursor.timestamp());
+        assertEquals(booking.getId(), cursor.id());
+    }
+
+    @Test
+    void getAllByUser_WithCursor_ScrollsFromKeyset() {
+        User booker = createUser(userId, "booker@email.com");
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        String cursor = new KeysetCursor(start, 5L).encode();
+
+        when(userCache.exists(userId)).thenReturn(true);
+        when(bookingRepository.findByBookerId(eq(userId),
+                eq(ScrollPosition.forward(Map.of("start", start, "id", 5L))), any(), any(Sort.class)))
+                .thenReturn(window(List.of()));
+
+        CursorPage<BookingDto> result = bookingService.getAllByUser(userId, "ALL", 0, 10, cursor);
+
+        assertTrue(result.content().isEmpty());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void getAllByUser_InvalidPaging_ThrowsBadRequest() {
+        when(userCache.exists(userId)).thenReturn(true);
+
+        assertThrows(BadRequestException.class, () -> bookingService.getAllByUser(userId, "ALL", -1, 10, null));
+        assertThrows(BadRequestException.class, () -> bookingService.getAllByUser(userId, "ALL", 0, 0, null));
+        assertThrows(BadRequestException.class, () -> bookingService.getAllByUser(userId, "ALL", 0, 10, "%%%"));
+        assertThrows(BadRequestException.class, () -> bookingService.getAllByUser(userId, "ALL", 0, 101, null));
+    }
+
+    @Test
+    void getAllByOwner_SizeExceedsMaximum_ThrowsBadRequest() {
+        when(userCache.exists(userId)).thenReturn(true);
+
+        assertThrows(BadRequestException.class, () -> bookingService.getAllByOwner(userId, "ALL", 0, 101, null));
+
+        verifyNoInteractions(bookingRepository);
     }
 
     @Test
@@ -282,15 +546,48 @@ class BookingServiceImplTest {
         List<Booking> bookings = List.of(createBooking(createUser(2L, "booker@email.com"), createAvailableItem(owner)));
         BookingDto bookingDto = createBookingDto();
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItemOwnerIdOrderByStartDesc(userId)).thenReturn(bookings);
+        when(userCache.exists(userId)).thenReturn(true);
+        when(bookingRepository.findByItemOwnerId(eq(userId), any(), any(), any(Sort.class))).thenReturn(window(bookings));
         when(bookingMapper.toDto(any())).thenReturn(bookingDto);
 
-        List<BookingDto> result = bookingService.getAllByOwner(userId, "ALL");
+        CursorPage<BookingDto> result = bookingService.getAllByOwner(userId, "ALL", 0, 10, null);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
+        assertFalse(result.content().isEmpty());
+        assertEquals(1, result.content().size());
+    }
+
+    @Test
+    void exportByOwner_ValidRequest_PassesEveryBookingAndClosesStream() {
+        User owner = createUser(ownerId, "owner@email.com");
+        User booker = createUser(userId, "booker@email.com");
+        Item item = createAvailableItem(owner);
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Booking> bookings = Stream.of(createBooking(booker, item), createBooking(booker, item))
+                .onClose(() -> closed.set(true));
+        List<BookingDto> exported = new ArrayList<>();
+
+        when(userCache.exists(ownerId)).thenReturn(true);
+        when(bookingRepository.streamByItemOwnerIdOrderByStartDescIdDesc(ownerId)).thenReturn(bookings);
+        when(bookingMapper.toDto(any())).thenReturn(createBookingDto());
+
+        bookingService.exportByOwner(ownerId, exported::add);
+
+        assertEquals(2, exported.size());
+        assertTrue(closed.get());
+        verify(entityManager).clear();
+    }
+
+    @Test
+    void exportByOwner_UserNotFound_ThrowsBeforeReading() {
+        when(userCache.exists(ownerId)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () -> bookingService.exportByOwner(ownerId, dto -> { }));
+        verify(bookingRepository, never()).streamByItemOwnerIdOrderByStartDescIdDesc(anyLong());
+    }
+
+    private Window<Booking> window(List<Booking> bookings) {
+        return Window.from(bookings, OffsetScrollPosition.positionFunction(0));
     }
 
     private CreateBookingRequestDto createValidBookingRequest() {
@@ -367,7 +664,7 @@ class BookingServiceImplTest {
 
         verify(userRepository, never()).findById(anyLong());
         verify(itemRepository, never()).findById(anyLong());
-        verify(bookingRepository, never()).existsApprovedBookingsForItemBetweenDates(anyLong(), any(), any());
+        verify(availabilityIndex, never()).hasConflict(anyLong(), any(), any());
     }
 
     @Test
@@ -381,7 +678,7 @@ class BookingServiceImplTest {
 
         verify(userRepository, never()).findById(anyLong());
         verify(itemRepository, never()).findById(anyLong());
-        verify(bookingRepository, never()).existsApprovedBookingsForItemBetweenDates(anyLong(), any(), any());
+        verify(availabilityIndex, never()).hasConflict(anyLong(), any(), any());
     }
 
     @Test
@@ -395,7 +692,7 @@ class BookingServiceImplTest {
 
         verify(userRepository, never()).findById(anyLong());
         verify(itemRepository, never()).findById(anyLong());
-        verify(bookingRepository, never()).existsApprovedBookingsForItemBetweenDates(anyLong(), any(), any());
+        verify(availabilityIndex, never()).hasConflict(anyLong(), any(), any());
     }
 
     @Test
@@ -410,7 +707,7 @@ class BookingServiceImplTest {
 
         verify(userRepository, never()).findById(anyLong());
         verify(itemRepository, never()).findById(anyLong());
-        verify(bookingRepository, never()).existsApprovedBookingsForItemBetweenDates(anyLong(), any(), any());
+        verify(availabilityIndex, never()).hasConflict(anyLong(), any(), any());
     }
 
     @Test
@@ -418,38 +715,38 @@ class BookingServiceImplTest {
         User owner = createUser(userId, "owner@email.com");
         LocalDateTime now = LocalDateTime.now();
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(owner));
+        when(userCache.exists(userId)).thenReturn(true);
 
-        when(bookingRepository.findByItemOwnerIdAndStatus(eq(userId), eq(BookingStatus.WAITING), any(Sort.class)))
-                .thenReturn(List.of(createBooking(createUser(2L, "booker@email.com"), createAvailableItem(owner))));
+        when(bookingRepository.findByItemOwnerIdAndStatus(eq(userId), eq(BookingStatus.WAITING), any(), any(), any(Sort.class)))
+                .thenReturn(window(List.of(createBooking(createUser(2L, "booker@email.com"), createAvailableItem(owner)))));
 
-        List<BookingDto> waitingResult = bookingService.getAllByOwner(userId, "WAITING");
-        assertFalse(waitingResult.isEmpty());
+        CursorPage<BookingDto> waitingResult = bookingService.getAllByOwner(userId, "WAITING", 0, 10, null);
+        assertFalse(waitingResult.content().isEmpty());
 
-        when(bookingRepository.findByItemOwnerIdAndStatus(eq(userId), eq(BookingStatus.REJECTED), any(Sort.class)))
-                .thenReturn(List.of(createBooking(createUser(2L, "booker@email.com"), createAvailableItem(owner))));
+        when(bookingRepository.findByItemOwnerIdAndStatus(eq(userId), eq(BookingStatus.REJECTED), any(), any(), any(Sort.class)))
+                .thenReturn(window(List.of(createBooking(createUser(2L, "booker@email.com"), createAvailableItem(owner)))));
 
-        List<BookingDto> rejectedResult = bookingService.getAllByOwner(userId, "REJECTED");
-        assertFalse(rejectedResult.isEmpty());
+        CursorPage<BookingDto> rejectedResult = bookingService.getAllByOwner(userId, "REJECTED", 0, 10, null);
+        assertFalse(rejectedResult.content().isEmpty());
 
-        when(bookingRepository.findByItemOwnerIdOrderByStartDesc(userId))
-                .thenReturn(List.of(createBooking(createUser(2L, "booker@email.com"), createAvailableItem(owner))));
+        when(bookingRepository.findByItemOwnerId(eq(userId), any(), any(), any(Sort.class)))
+                .thenReturn(window(List.of(createBooking(createUser(2L, "booker@email.com"), createAvailableItem(owner)))));
 
-        List<BookingDto> invalidResult = bookingService.getAllByOwner(userId, "INVALID_STATE");
-        assertFalse(invalidResult.isEmpty());
+        CursorPage<BookingDto> invalidResult = bookingService.getAllByOwner(userId, "INVALID_STATE", 0, 10, null);
+        assertFalse(invalidResult.content().isEmpty());
     }
 
     @Test
     void getAllByOwner_WithEmptyResults_ShouldReturnEmptyList() {
         User owner = createUser(userId, "owner@email.com");
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItemOwnerIdOrderByStartDesc(userId)).thenReturn(List.of());
+        when(userCache.exists(userId)).thenReturn(true);
+        when(bookingRepository.findByItemOwnerId(eq(userId), any(), any(), any(Sort.class))).thenReturn(window(List.of()));
 
-        List<BookingDto> result = bookingService.getAllByOwner(userId, "ALL");
+        CursorPage<BookingDto> result = bookingService.getAllByOwner(userId, "ALL", 0, 10, null);
 
         assertNotNull(result);
-        assertTrue(result.isEmpty());
+        assertTrue(result.content().isEmpty());
     }
 
     @Test
@@ -457,14 +754,14 @@ class BookingServiceImplTest {
         User owner = createUser(userId, "owner@email.com");
         LocalDateTime now = LocalDateTime.now();
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItemOwnerIdAndStartAfter(eq(userId), any(LocalDateTime.class), any(Sort.class)))
-                .thenReturn(List.of(createBooking(createUser(2L, "booker@email.com"), createAvailableItem(owner))));
+        when(userCache.exists(userId)).thenReturn(true);
+        when(bookingRepository.findByItemOwnerIdAndStartAfter(eq(userId), any(LocalDateTime.class), any(), any(), any(Sort.class)))
+                .thenReturn(window(List.of(createBooking(createUser(2L, "booker@email.com"), createAvailableItem(owner)))));
 
-        List<BookingDto> result = bookingService.getAllByOwner(userId, "FUTURE");
+        CursorPage<BookingDto> result = bookingService.getAllByOwner(userId, "FUTURE", 0, 10, null);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
+        assertFalse(result.content().isEmpty());
     }
 
     @Test
@@ -472,14 +769,14 @@ class BookingServiceImplTest {
         User owner = createUser(userId, "owner@email.com");
         LocalDateTime now = LocalDateTime.now();
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByItemOwnerIdAndEndBefore(eq(userId), any(LocalDateTime.class), any(Sort.class)))
-                .thenReturn(List.of(createBooking(createUser(2L, "booker@email.com"), createAvailableItem(owner))));
+        when(userCache.exists(userId)).thenReturn(true);
+        when(bookingRepository.findByItemOwnerIdAndEndBefore(eq(userId), any(LocalDateTime.class), any(), any(), any(Sort.class)))
+                .thenReturn(window(List.of(createBooking(createUser(2L, "booker@email.com"), createAvailableItem(owner)))));
 
-        List<BookingDto> result = bookingService.getAllByOwner(userId, "PAST");
+        CursorPage<BookingDto> result = bookingService.getAllByOwner(userId, "PAST", 0, 10, null);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
+        assertFalse(result.content().isEmpty());
     }
 
     @Test
@@ -487,15 +784,15 @@ class BookingServiceImplTest {
         User owner = createUser(userId, "owner@email.com");
         LocalDateTime now = LocalDateTime.now();
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(owner));
+        when(userCache.exists(userId)).thenReturn(true);
         when(bookingRepository.findByItemOwnerIdAndStartBeforeAndEndAfter(
-                eq(userId), any(LocalDateTime.class), any(LocalDateTime.class), any(Sort.class)))
-                .thenReturn(List.of(createBooking(createUser(2L, "booker@email.com"), createAvailableItem(owner))));
+                eq(userId), any(LocalDateTime.class), any(LocalDateTime.class), any(), any(), any(Sort.class)))
+                .thenReturn(window(List.of(createBooking(createUser(2L, "booker@email.com"), createAvailableItem(owner)))));
 
-        List<BookingDto> result = bookingService.getAllByOwner(userId, "CURRENT");
+        CursorPage<BookingDto> result = bookingService.getAllByOwner(userId, "CURRENT", 0, 10, null);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
+        assertFalse(result.content().isEmpty());
     }
 
     @Test
@@ -503,38 +800,38 @@ class BookingServiceImplTest {
         User booker = createUser(userId, "booker@email.com");
         LocalDateTime now = LocalDateTime.now();
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(booker));
+        when(userCache.exists(userId)).thenReturn(true);
 
-        when(bookingRepository.findByBookerIdAndStatus(eq(userId), eq(BookingStatus.WAITING), any(Sort.class)))
-                .thenReturn(List.of(createBooking(booker, createAvailableItem(createUser(ownerId, "owner@email.com")))));
+        when(bookingRepository.findByBookerIdAndStatus(eq(userId), eq(BookingStatus.WAITING), any(), any(), any(Sort.class)))
+                .thenReturn(window(List.of(createBooking(booker, createAvailableItem(createUser(ownerId, "owner@email.com"))))));
 
-        List<BookingDto> waitingResult = bookingService.getAllByUser(userId, "WAITING");
-        assertFalse(waitingResult.isEmpty());
+        CursorPage<BookingDto> waitingResult = bookingService.getAllByUser(userId, "WAITING", 0, 10, null);
+        assertFalse(waitingResult.content().isEmpty());
 
-        when(bookingRepository.findByBookerIdAndStatus(eq(userId), eq(BookingStatus.REJECTED), any(Sort.class)))
-                .thenReturn(List.of(createBooking(booker, createAvailableItem(createUser(ownerId, "owner@email.com")))));
+        when(bookingRepository.findByBookerIdAndStatus(eq(userId), eq(BookingStatus.REJECTED), any(), any(), any(Sort.class)))
+                .thenReturn(window(List.of(createBooking(booker, createAvailableItem(createUser(ownerId, "owner@email.com"))))));
 
-        List<BookingDto> rejectedResult = bookingService.getAllByUser(userId, "REJECTED");
-        assertFalse(rejectedResult.isEmpty());
+        CursorPage<BookingDto> rejectedResult = bookingService.getAllByUser(userId, "REJECTED", 0, 10, null);
+        assertFalse(rejectedResult.content().isEmpty());
 
-        when(bookingRepository.findByBookerIdAndStartAfter(eq(userId), any(LocalDateTime.class), any(Sort.class)))
-                .thenReturn(List.of(createBooking(booker, createAvailableItem(createUser(ownerId, "owner@email.com")))));
+        when(bookingRepository.findByBookerIdAndStartAfter(eq(userId), any(LocalDateTime.class), any(), any(), any(Sort.class)))
+                .thenReturn(window(List.of(createBooking(booker, createAvailableItem(createUser(ownerId, "owner@email.com"))))));
 
-        List<BookingDto> futureResult = bookingService.getAllByUser(userId, "FUTURE");
-        assertFalse(futureResult.isEmpty());
+        CursorPage<BookingDto> futureResult = bookingService.getAllByUser(userId, "FUTURE", 0, 10, null);
+        assertFalse(futureResult.content().isEmpty());
 
-        when(bookingRepository.findByBookerIdAndEndBefore(eq(userId), any(LocalDateTime.class), any(Sort.class)))
-                .thenReturn(List.of(createBooking(booker, createAvailableItem(createUser(ownerId, "owner@email.com")))));
+        when(bookingRepository.findByBookerIdAndEndBefore(eq(userId), any(LocalDateTime.class), any(), any(), any(Sort.class)))
+                .thenReturn(window(List.of(createBooking(booker, createAvailableItem(createUser(ownerId, "owner@email.com"))))));
 
-        List<BookingDto> pastResult = bookingService.getAllByUser(userId, "PAST");
-        assertFalse(pastResult.isEmpty());
+        CursorPage<BookingDto> pastResult = bookingService.getAllByUser(userId, "PAST", 0, 10, null);
+        assertFalse(pastResult.content().isEmpty());
 
         when(bookingRepository.findByBookerIdAndStartBeforeAndEndAfter(
-                eq(userId), any(LocalDateTime.class), any(LocalDateTime.class), any(Sort.class)))
-                .thenReturn(List.of(createBooking(booker, createAvailableItem(createUser(ownerId, "owner@email.com")))));
+                eq(userId), any(LocalDateTime.class), any(LocalDateTime.class), any(), any(), any(Sort.class)))
+                .thenReturn(window(List.of(createBooking(booker, createAvailableItem(createUser(ownerId, "owner@email.com"))))));
 
-        List<BookingDto> currentResult = bookingService.getAllByUser(userId, "CURRENT");
-        assertFalse(currentResult.isEmpty());
+        CursorPage<BookingDto> currentResult = bookingService.getAllByUser(userId, "CURRENT", 0, 10, null);
+        assertFalse(currentResult.content().isEmpty());
     }
 
     @Test
@@ -561,14 +858,14 @@ class BookingServiceImplTest {
         expectedDto.setStatus(BookingStatus.REJECTED);
 
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(any())).thenReturn(booking);
+        when(bookingRepository.saveAndFlush(any())).thenReturn(booking);
         when(bookingMapper.toDto(any())).thenReturn(expectedDto);
 
         BookingDto result = bookingService.approve(ownerId, bookingId, false);
 
         assertNotNull(result);
         assertEquals(BookingStatus.REJECTED, result.getStatus());
-        verify(bookingRepository).save(booking);
+        verify(bookingRepository).saveAndFlush(booking);
     }
 
     @Test
@@ -576,27 +873,27 @@ class BookingServiceImplTest {
         User booker = createUser(userId, "booker@email.com");
         List<Booking> bookings = List.of(createBooking(booker, createAvailableItem(createUser(ownerId, "owner@email.com"))));
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findByBookerIdOrderByStartDesc(userId)).thenReturn(bookings);
+        when(userCache.exists(userId)).thenReturn(true);
+        when(bookingRepository.findByBookerId(eq(userId), any(), any(), any(Sort.class))).thenReturn(window(bookings));
         when(bookingMapper.toDto(any())).thenReturn(createBookingDto());
 
-        List<BookingDto> result = bookingService.getAllByUser(userId, "INVALID_STATE");
+        CursorPage<BookingDto> result = bookingService.getAllByUser(userId, "INVALID_STATE", 0, 10, null);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
+        assertFalse(result.content().isEmpty());
     }
 
     @Test
     void getAllByUser_WithEmptyResults_ShouldReturnEmptyList() {
         User booker = createUser(userId, "booker@email.com");
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(booker));
-        when(bookingRepository.findByBookerIdOrderByStartDesc(userId)).thenReturn(List.of());
+        when(userCache.exists(userId)).thenReturn(true);
+        when(bookingRepository.findByBookerId(eq(userId), any(), any(), any(Sort.class))).thenReturn(window(List.of()));
 
-        List<BookingDto> result = bookingService.getAllByUser(userId, "ALL");
+        CursorPage<BookingDto> result = bookingService.getAllByUser(userId, "ALL", 0, 10, null);
 
         assertNotNull(result);
-        assertTrue(result.isEmpty());
+        assertTrue(result.content().isEmpty());
     }
 
     @Test
@@ -610,7 +907,7 @@ class BookingServiceImplTest {
 
         verify(userRepository, never()).findById(anyLong());
         verify(itemRepository, never()).findById(anyLong());
-        verify(bookingRepository, never()).existsApprovedBookingsForItemBetweenDates(anyLong(), any(), any());
+        verify(availabilityIndex, never()).hasConflict(anyLong(), any(), any());
     }
 
     @Test
@@ -9,6 +9,7 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 
 import ru.practicum.shareit.booking.exception.BookingAccessDeniedException;
 import ru.practicum.shareit.booking.exception.BookingAlreadyProcessedException;
+import ru.practicum.shareit.booking.exception.BookingConflictException;
 import ru.practicum.shareit.booking.exception.BookingOwnItemException;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.exception.ItemNotOwnedByUserException;
@@ -88,6 +89,16 @@ class ErrorHandlerExceptionTest {
         assertEquals("Conflict", response.getBody().getError());
     }
 
+    @Test
+    void handleConflictExceptions_BookingConflict_ShouldReturnConflict() {
+        BookingConflictException ex = new BookingConflictException("Item is already booked");
+
+        ResponseEntity<ErrorResponseException> response = errorHandler.handleConflictExceptions(ex);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("Item is already booked", response.getBody().getError());
+    }
+
     @Test
     void handleBadRequestExceptions_ShouldReturnBadRequest() {
         BadRequestException ex = new BadRequestException("Bad request");
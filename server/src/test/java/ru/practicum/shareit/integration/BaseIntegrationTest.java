@@ -101,7 +101,7 @@ public abstract class BaseIntegrationTest {
         item.setAvailable(available);
         item.setOwner(owner);
         item.setRequestId(request);
-        return itemRepository.save(item);
+        return itemRepository.saveAndFlush(item);
     }
 
     protected Booking createBooking(LocalDateTime start, LocalDateTime end, Item item, User booker, BookingStatus status) {
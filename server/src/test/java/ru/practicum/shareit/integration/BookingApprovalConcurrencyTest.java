@@ -0,0 +1,173 @@
+package ru.practicum.shareit.integration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.booking.exception.BookingAlreadyProcessedException;
+import ru.practicum.shareit.booking.exception.BookingConflictException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties")
+class BookingApprovalConcurrencyTest {
+    private static final int BOOKINGS = 48;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Booking> bookings = new ArrayList<>();
+    private Item item;
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll(bookings);
+        itemRepository.delete(item);
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void approve_ConcurrentOverlappingBookings_NeverDoubleBooksItem() throws Exception {
+        User owner = createUser();
+        item = new Item(null, "Drill", "Concurrent drill", true, owner, null);
+        item = itemRepository.save(item);
+
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+        for (int i = 0; i < BOOKINGS; i++) {
+            LocalDateTime start = base.plusHours(i);
+            bookings.add(bookingRepository.save(
+                    new Booking(null, start, start.plusHours(3), item, createUser(), BookingStatus.WAITING)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (Booking booking : bookings) {
+            results.add(executor.submit(() -> {
+                startGate.await();
+                try {
+                    bookingService.approve(owner.getId(), booking.getId(), true);
+                    return true;
+                } catch (BookingConflictException e) {
+                    return false;
+                }
+            }));
+        }
+        startGate.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+
+        long succeeded = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                succeeded++;
+            }
+        }
+
+        List<Booking> approved = bookingRepository.findByItemIdAndStatusAndEndAfter(
+                item.getId(), BookingStatus.APPROVED, LocalDateTime.now());
+        assertThat(approved).hasSize((int) succeeded).isNotEmpty();
+        for (Booking first : approved) {
+            for (Booking second : approved) {
+                if (!first.getId().equals(second.getId())) {
+                    boolean overlaps = !first.getStart().isAfter(second.getEnd())
+                            && !first.getEnd().isBefore(second.getStart());
+                    assertThat(overlaps)
+                            .as("bookings %d and %d overlap", first.getId(), second.getId())
+                            .isFalse();
+                }
+            }
+        }
+    }
+
+    @Test
+    void approve_RacingCancel_ExactlyOneTransitionWins() throws Exception {
+        User owner = createUser();
+        User booker = createUser();
+        item = itemRepository.save(new Item(null, "Saw", "Contested saw", true, owner, null));
+
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+        for (int i = 0; i < BOOKINGS; i++) {
+            LocalDateTime start = base.plusHours(i * 4L);
+            bookings.add(bookingRepository.save(
+                    new Booking(null, start, start.plusHours(1), item, booker, BookingStatus.WAITING)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<BookingStatus>> approvals = new ArrayList<>();
+        List<Future<BookingStatus>> cancellations = new ArrayList<>();
+        for (Booking booking : bookings) {
+            approvals.add(executor.submit(() -> {
+                startGate.await();
+                try {
+                    return bookingService.approve(owner.getId(), booking.getId(), true).getStatus();
+                } catch (BookingAlreadyProcessedException e) {
+                    return null;
+                }
+            }));
+            cancellations.add(executor.submit(() -> {
+                startGate.await();
+                try {
+                    return bookingService.cancel(booker.getId(), booking.getId()).getStatus();
+                } catch (BookingAlreadyProcessedException e) {
+                    return null;
+                }
+            }));
+        }
+        startGate.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < BOOKINGS; i++) {
+            BookingStatus approved = approvals.get(i).get();
+            BookingStatus cancelled = cancellations.get(i).get();
+            BookingStatus stored = bookingRepository.findById(bookings.get(i).getId()).orElseThrow().getStatus();
+            assertThat(approved == null ^ cancelled == null)
+                    .as("exactly one transition of booking %d succeeds", bookings.get(i).getId())
+                    .isTrue();
+            assertThat(stored).isEqualTo(approved != null ? approved : cancelled);
+        }
+    }
+
+    private User createUser() {
+        User user = userRepository.save(new User(null, "User", UUID.randomUUID() + "@email.com"));
+        users.add(user);
+        return user;
+    }
+}
@@ -1,8 +1,13 @@
 package ru.practicum.shareit.integration;
 
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingBatchApprovalRequestDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateBookingRequestDto;
 import ru.practicum.shareit.booking.exception.BookingAccessDeniedException;
@@ -10,8 +15,13 @@ import ru.practicum.shareit.booking.exception.BookingAlreadyProcessedException;
 import ru.practicum.shareit.booking.exception.BookingOwnItemException;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -24,6 +34,9 @@ class BookingServiceIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
     void createBooking_ShouldCreateBookingSuccessfully() {
         CreateBookingRequestDto requestDto = new CreateBookingRequestDto();
@@ -71,6 +84,20 @@ class BookingServiceIntegrationTest extends BaseIntegrationTest {
         assertThat(result.getStatus()).isEqualTo(BookingStatus.APPROVED);
     }
 
+    @Test
+    void createBooking_OverlappingApprovedBooking_ShouldThrowException() {
+        bookingService.approve(user1.getId(), booking2.getId(), true);
+
+        CreateBookingRequestDto requestDto = new CreateBookingRequestDto();
+        requestDto.setItemId(item1.getId());
+        requestDto.setStart(booking2.getStart().plusHours(1));
+        requestDto.setEnd(booking2.getEnd().plusDays(1));
+
+        assertThrows(BadRequestException.class, () ->
+                bookingService.create(user2.getId(), requestDto)
+        );
+    }
+
     @Test
     void approveBooking_ShouldRejectSuccessfully() {
         BookingDto result = bookingService.approve(user1.getId(), booking2.getId(), false);
@@ -133,7 +160,7 @@ class BookingServiceIntegrationTest extends BaseIntegrationTest {
 
     @Test
     void getAllByUser_ShouldReturnUserBookings() {
-        List<BookingDto> result = bookingService.getAllByUser(user2.getId(), "ALL");
+        List<BookingDto> result = bookingService.getAllByUser(user2.getId(), "ALL", 0, 10, null).content();
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getId()).isEqualTo(booking1.getId());
@@ -141,19 +168,146 @@ class BookingServiceIntegrationTest extends BaseIntegrationTest {
 
     @Test
     void getAllByOwner_ShouldReturnOwnerBookings() {
-        List<BookingDto> result = bookingService.getAllByOwner(user1.getId(), "ALL");
+        List<BookingDto> result = bookingService.getAllByOwner(user1.getId(), "ALL", 0, 10, null).content();
 
         assertThat(result).hasSize(2);
     }
 
     @Test
     void getAllByUser_WithStateFilter_ShouldReturnFilteredBookings() {
-        List<BookingDto> past = bookingService.getAllByUser(user2.getId(), "PAST");
-        List<BookingDto> future = bookingService.getAllByUser(user3.getId(), "FUTURE");
-        List<BookingDto> waiting = bookingService.getAllByUser(user3.getId(), "WAITING");
+        List<BookingDto> past = bookingService.getAllByUser(user2.getId(), "PAST", 0, 10, null).content();
+        List<BookingDto> future = bookingService.getAllByUser(user3.getId(), "FUTURE", 0, 10, null).content();
+        List<BookingDto> waiting = bookingService.getAllByUser(user3.getId(), "WAITING", 0, 10, null).content();
 
         assertThat(past).hasSize(1);
         assertThat(future).hasSize(1);
         assertThat(waiting).hasSize(1);
     }
+
+    @Test
+    void getAllByOwner_ScrollingWithCursor_VisitsEveryBookingOnce() {
+        LocalDateTime start = LocalDateTime.now().plusDays(10);
+        for (int i = 0; i < 5; i++) {
+            createBooking(start, start.plusDays(1), item1, user2, BookingStatus.WAITING);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> seen = new ArrayList<>();
+        CursorPage<BookingDto> page = bookingService.getAllByOwner(user1.getId(), "ALL", 0, 3, null);
+        seen.addAll(page.content().stream().map(BookingDto::getId).toList());
+        while (page.nextCursor() != null) {
+            page = bookingService.getAllByOwner(user1.getId(), "ALL", 0, 3, page.nextCursor());
+            seen.addAll(page.content().stream().map(BookingDto::getId).toList());
+        }
+
+        List<Long> all = bookingService.getAllByOwner(user1.getId(), "ALL", 0, 100, null).content().stream()
+                .map(BookingDto::getId)
+                .toList();
+        assertThat(seen).hasSize(7).doesNotHaveDuplicates().containsExactlyElementsOf(all);
+    }
+
+    @Test
+    void exportByOwner_ShouldStreamEveryBookingNewestFirstWithoutLoadingRelationsPerRow() {
+        LocalDateTime start = LocalDateTime.now().plusDays(10);
+        for (int i = 0; i < 20; i++) {
+            createBooking(start.plusHours(i), start.plusHours(i + 1), item1, i % 2 == 0 ? user2 : user3,
+                    BookingStatus.WAITING);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> expected = bookingService.getAllByOwner(user1.getId(), "ALL", 0, 100, null).content().stream()
+                .map(BookingDto::getId)
+                .toList();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<BookingDto> exported = new ArrayList<>();
+        bookingService.exportByOwner(user1.getId(), exported::add);
+
+        assertThat(exported).extracting(BookingDto::getId).hasSize(22).containsExactlyElementsOf(expected);
+        assertThat(exported).allSatisfy(booking -> assertThat(booking.getItem().getName()).isNotNull());
+        // owner check and the bookings with their items and bookers
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void getAllByOwner_WithOffset_SkipsRows() {
+        List<BookingDto> all = bookingService.getAllByOwner(user1.getId(), "ALL", 0, 10, null).content();
+        List<BookingDto> skipped = bookingService.getAllByOwner(user1.getId(), "ALL", 1, 10, null).content();
+
+        assertThat(skipped).hasSize(1);
+        assertThat(skipped.get(0).getId()).isEqualTo(all.get(1).getId());
+    }
+
+    @Test
+    void getAllByOwner_LoadsPageInFixedNumberOfStatements() {
+        LocalDateTime start = LocalDateTime.now().plusDays(10);
+        for (int i = 0; i < 20; i++) {
+            User booker = createUser("Booker" + i, "booker" + i + "@email.com");
+            Item item = createItem("Item" + i, "Description" + i, true, user1, null);
+            createBooking(start.plusHours(i), start.plusHours(i + 1), item, booker, BookingStatus.WAITING);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<BookingDto> result = bookingService.getAllByOwner(user1.getId(), "ALL", 0, 50, null).content();
+
+        assertThat(result).hasSize(22);
+        assertThat(result).allSatisfy(booking -> {
+            assertThat(booking.getItem().getName()).isNotNull();
+            assertThat(booking.getBooker().getName()).isNotNull();
+        });
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void approveAll_ProcessesBatchInFixedNumberOfStatements() {
+        LocalDateTime start = LocalDateTime.now().plusDays(10);
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            User booker = createUser("Booker" + i, "booker" + i + "@email.com");
+            Item item = createItem("Item" + i, "Description" + i, true, user1, null);
+            bookingIds.add(createBooking(start, start.plusDays(1), item, booker, BookingStatus.WAITING).getId());
+        }
+        bookingIds.add(createBooking(start, start.plusDays(1), item1, user2, BookingStatus.WAITING).getId());
+        bookingIds.add(createBooking(start.plusHours(1), start.plusDays(2), item1, user3, BookingStatus.WAITING).getId());
+        bookingIds.add(booking1.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<BookingApprovalResultDto> results = bookingService.approveAll(user1.getId(),
+                new BookingBatchApprovalRequestDto(bookingIds, true));
+
+        // Item ids to lock, bookings, approved overlaps, batched update
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+        assertThat(results).hasSize(23);
+        assertThat(results.subList(0, 21)).allSatisfy(result -> {
+            assertThat(result.isSuccess()).isTrue();
+            assertThat(result.getBooking().getStatus()).isEqualTo(BookingStatus.APPROVED);
+        });
+        assertThat(results.get(21).getError()).isEqualTo("Item is already booked for the selected dates");
+        assertThat(results.get(22).getError()).isEqualTo("Booking already processed");
+
+        entityManager.clear();
+        assertThat(bookingRepository.findById(bookingIds.get(21)).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.WAITING);
+    }
 }
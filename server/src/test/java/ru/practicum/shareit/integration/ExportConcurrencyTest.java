@@ -0,0 +1,85 @@
+package ru.practicum.shareit.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "shareit.exports.max-concurrent=" + ExportConcurrencyTest.MAX_CONCURRENT)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties")
+class ExportConcurrencyTest {
+    // More than the 8 threads of Boot's default task executor
+    static final int MAX_CONCURRENT = 12;
+
+    @LocalServerPort
+    private int port;
+
+    @MockBean
+    private BookingService bookingService;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    void exports_UpToLimit_RunAtOnceAndFurtherOnesAreRefused() throws Exception {
+        CountDownLatch started = new CountDownLatch(MAX_CONCURRENT);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            assertThat(release.await(10, TimeUnit.SECONDS)).isTrue();
+            Consumer<BookingDto> sink = invocation.getArgument(1);
+            sink.accept(new BookingDto());
+            return null;
+        }).when(bookingService).exportByOwner(anyLong(), any());
+
+        List<CompletableFuture<HttpResponse<String>>> exports = new ArrayList<>();
+        try {
+            for (int i = 0; i < MAX_CONCURRENT; i++) {
+                exports.add(export());
+            }
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+            HttpResponse<String> refused = export().get(10, TimeUnit.SECONDS);
+            assertThat(refused.statusCode()).isEqualTo(503);
+            assertThat(refused.body()).contains("\"error\"");
+        } finally {
+            release.countDown();
+        }
+
+        for (CompletableFuture<HttpResponse<String>> export : exports) {
+            HttpResponse<String> response = export.get(10, TimeUnit.SECONDS);
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.body()).contains("\"id\":null");
+        }
+    }
+
+    private CompletableFuture<HttpResponse<String>> export() {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bookings/owner/export"))
+                .header("X-Sharer-User-Id", "1")
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
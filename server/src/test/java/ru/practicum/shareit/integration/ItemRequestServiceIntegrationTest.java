@@ -1,11 +1,18 @@
 package ru.practicum.shareit.integration;
 
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.CreateItemRequestDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestWithItemsDto;
 import ru.practicum.shareit.request.exception.ItemRequestNotFoundException;
@@ -13,6 +20,7 @@ import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.dto.CreateUserRequestDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -29,6 +37,12 @@ class ItemRequestServiceIntegrationTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private EntityManager entityManager;
+
     private Long userId;
     private Long secondUserId;
 
@@ -66,7 +80,7 @@ class ItemRequestServiceIntegrationTest {
         ItemRequestDto request2 = new ItemRequestDto("Need a hammer");
         itemRequestService.create(secondUserId, request2);
 
-        List<ItemRequestWithItemsDto> otherRequests = itemRequestService.getAll(userId, 0, 10);
+        List<ItemRequestWithItemsDto> otherRequests = itemRequestService.getAll(userId, 0, 10, null).content();
 
         assertThat(otherRequests).hasSize(1);
         assertThat(otherRequests.get(0).getDescription()).isEqualTo("Need a hammer");
@@ -96,12 +110,75 @@ class ItemRequestServiceIntegrationTest {
             ItemRequestDto request = new ItemRequestDto("Request " + i);
             itemRequestService.create(secondUserId, request);
         }
-        List<ItemRequestWithItemsDto> firstPage = itemRequestService.getAll(userId, 0, 2);
+        List<ItemRequestWithItemsDto> firstPage = itemRequestService.getAll(userId, 0, 2, null).content();
 
         assertThat(firstPage).hasSize(2);
 
-        List<ItemRequestWithItemsDto> secondPage = itemRequestService.getAll(userId, 2, 2);
+        List<ItemRequestWithItemsDto> secondPage = itemRequestService.getAll(userId, 2, 2, null).content();
 
         assertThat(secondPage).hasSize(1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAll_withFromNotMultipleOfSize_shouldStartAtFrom() {
+        for (int i = 1; i <= 4; i++) {
+            itemRequestService.create(secondUserId, new ItemRequestDto("Request " + i));
+        }
+
+        List<ItemRequestWithItemsDto> page = itemRequestService.getAll(userId, 1, 2, null).content();
+
+        assertThat(page).extracting(ItemRequestWithItemsDto::getDescription)
+                .containsExactly("Request 3", "Request 2");
+    }
+
+    @Test
+    void getAll_withCursor_shouldScrollThroughAllRequestsOnce() {
+        for (int i = 1; i <= 5; i++) {
+            itemRequestService.create(secondUserId, new ItemRequestDto("Request " + i));
+        }
+
+        List<String> scrolled = new ArrayList<>();
+        CursorPage<ItemRequestWithItemsDto> page = itemRequestService.getAll(userId, 0, 2, null);
+        scrolled.addAll(page.content().stream().map(ItemRequestWithItemsDto::getDescription).toList());
+        while (page.nextCursor() != null) {
+            page = itemRequestService.getAll(userId, 0, 2, page.nextCursor());
+            scrolled.addAll(page.content().stream().map(ItemRequestWithItemsDto::getDescription).toList());
+        }
+
+        assertThat(scrolled).containsExactly("Request 5", "Request 4", "Request 3", "Request 2", "Request 1");
+    }
+
+    @Test
+    void getAll_ShouldLoadItemsOfWholePageInOneStatement() {
+        for (int i = 1; i <= 5; i++) {
+            ItemRequestWithItemsDto request = itemRequestService.create(secondUserId,
+                    new ItemRequestDto("Request " + i));
+            itemService.create(userId, new CreateItemRequestDto("Item " + i + "a", "Answer", true, request.getId()));
+            itemService.create(userId, new CreateItemRequestDto("Item " + i + "b", "Answer", true, request.getId()));
+        }
+        itemRequestService.create(secondUserId, new ItemRequestDto("Unanswered"));
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<ItemRequestWithItemsDto> page = itemRequestService.getAll(userId, 0, 10, null).content();
+
+        assertThat(page).hasSize(6);
+        assertThat(page).filteredOn(request -> request.getDescription().startsWith("Request "))
+                .hasSize(5)
+                .allSatisfy(request -> assertThat(request.getItems())
+                        .extracting(ItemDto::getName)
+                        .containsExactly(request.getDescription().replace("Request", "Item") + "a",
+                                request.getDescription().replace("Request", "Item") + "b"));
+        assertThat(page).filteredOn(request -> request.getDescription().equals("Unanswered"))
+                .singleElement()
+                .satisfies(request -> assertThat(request.getItems()).isEmpty());
+        // requester check, the page of requests, and the items of all of them
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+}
@@ -1,20 +1,43 @@
 package ru.practicum.shareit.integration;
 
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateItemRequestDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.dto.UpdateItemRequestDto;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.exception.ItemNotOwnedByUserException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.item.search.PostgresItemSearchEngine;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
+import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
 
+import static java.time.temporal.ChronoUnit.MILLIS;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
@@ -23,6 +46,15 @@ class ItemServiceIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private ItemService itemService;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ItemSearchEngine searchEngine;
+
     @Test
     void createItem_ShouldCreateItemSuccessfully() {
         CreateItemRequestDto requestDto = new CreateItemRequestDto(
@@ -142,6 +174,45 @@ class ItemServiceIntegrationTest extends BaseIntegrationTest {
         assertThat(result.getComments()).hasSize(1);
     }
 
+    @Test
+    void getItemById_AsOwner_SkipsRejectedBookingsWithoutLoadingBookingEntities() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 50; i++) {
+            createBooking(now.minusDays(100 + i), now.minusDays(99 + i), item1, user2, BookingStatus.APPROVED);
+            createBooking(now.plusDays(100 + i), now.plusDays(101 + i), item1, user3, BookingStatus.APPROVED);
+        }
+        Booking rejected = createBooking(now.plusHours(1), now.plusHours(2), item1, user2, BookingStatus.REJECTED);
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        ItemDto result = itemService.getById(item1.getId(), user1.getId());
+
+        assertThat(result.getLastBooking().getId()).isEqualTo(booking1.getId());
+        assertThat(result.getNextBooking().getId()).isEqualTo(booking2.getId()).isNotEqualTo(rejected.getId());
+        assertThat(statistics.getEntityStatistics(Booking.class.getName()).getLoadCount()).isZero();
+        // item, comments, last and next booking, and when that pair next changes
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+    }
+
+    @Test
+    void findNextRollover_ShouldReturnEarliestUpcomingStartOrCurrentEnd() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        assertThat(bookingRepository.findNextRollover(item1.getId(), now))
+                .hasValueSatisfying(rollover -> assertThat(rollover).isCloseTo(booking2.getStart(), within(1, MILLIS)));
+
+        createBooking(now.minusHours(1), now.plusHours(1), item1, user3, BookingStatus.REJECTED);
+        Booking current = createBooking(now.minusHours(1), now.plusHours(2), item1, user3, BookingStatus.APPROVED);
+
+        assertThat(bookingRepository.findNextRollover(item1.getId(), now)).contains(current.getEnd());
+        assertThat(bookingRepository.findNextRollover(item2.getId(), now)).isEmpty();
+    }
+
     @Test
     void getItemById_AsNonOwner_ShouldReturnItemWithoutBookings() {
         ItemDto result = itemService.getById(item1.getId(), user3.getId());
@@ -166,11 +237,106 @@ class ItemServiceIntegrationTest extends BaseIntegrationTest {
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getId()).isEqualTo(item1.getId());
+        assertThat(result.get(0).getLastBooking().getId()).isEqualTo(booking1.getId());
+        assertThat(result.get(0).getNextBooking().getId()).isEqualTo(booking2.getId());
+        assertThat(result.get(0).getNextBooking().getBookerId()).isEqualTo(user3.getId());
+        assertThat(result.get(0).getComments()).extracting(CommentDto::getText).containsExactly("Great item!");
+    }
+
+    @Test
+    void exportByOwner_ShouldStreamSameItemsAsGetAllByOwnerInIdOrder() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            Item item = createItem("Exported" + i, "Description" + i, true, user1, null);
+            createBooking(now.minusDays(3), now.minusDays(2), item, user3, BookingStatus.APPROVED);
+            createComment("Comment" + i, item, user2);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ItemDto> expected = itemService.getAllByOwner(user1.getId()).stream()
+                .sorted(Comparator.comparing(ItemDto::getId))
+                .toList();
+        List<ItemDto> exported = new ArrayList<>();
+        itemService.exportByOwner(user1.getId(), exported::add);
+
+        assertThat(exported).hasSize(6)
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void importItems_ShouldInsertValidRowsInBatchesAndReportTheRest() {
+        List<CreateItemRequestDto> rows = IntStream.range(0, 1200)
+                .mapToObj(i -> switch (i % 100) {
+                    case 7 -> new CreateItemRequestDto("", "No name", true, null);
+                    case 8 -> new CreateItemRequestDto("Answer" + i, "Unknown request", true, -1L);
+                    case 9 -> new CreateItemRequestDto("Answer" + i, "Known request", true, request2.getId());
+                    default -> new CreateItemRequestDto("Imported" + i, "Description" + i, i % 2 == 0, null);
+                })
+                .toList();
+        entityManager.flush();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        ItemImportResultDto result = itemService.importItems(user1.getId(), rows.iterator());
+
+        assertThat(result.getImported()).isEqualTo(1176);
+        assertThat(result.getErrors()).hasSize(24)
+                .extracting(ItemImportErrorDto::getIndex)
+                .isSorted()
+                .allMatch(index -> index % 100 == 7 || index % 100 == 8);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1176);
+        // per chunk of 500 rows: one request id check, then ids and inserts 50 at a time
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3 + 2 * (1176 / 50 + 3));
+
+        entityManager.clear();
+        assertThat(itemService.getAllByOwner(user1.getId())).hasSize(1177);
+        assertThat(itemRepository.findByRequestIds(List.of(request2.getId()))).hasSize(13);
+    }
+
+    @Test
+    void getAllByOwner_LoadsBookingsAndCommentsInFixedNumberOfStatements() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> nearest = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Item item = createItem("Owned" + i, "Description" + i, true, user1, null);
+            createBooking(now.minusDays(5), now.minusDays(4), item, user2, BookingStatus.APPROVED);
+            nearest.add(createBooking(now.minusDays(3), now.minusDays(2), item, user3, BookingStatus.APPROVED));
+            nearest.add(createBooking(now.plusDays(2), now.plusDays(3), item, user2, BookingStatus.WAITING));
+            createBooking(now.plusDays(4), now.plusDays(5), item, user3, BookingStatus.WAITING);
+            createComment("Comment" + i, item, user2);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<ItemDto> result = itemService.getAllByOwner(user1.getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+        assertThat(result).hasSize(31);
+        List<Long> nearestIds = nearest.stream().map(Booking::getId).toList();
+        assertThat(result.subList(1, 31)).allSatisfy(item -> {
+            assertThat(nearestIds).contains(item.getLastBooking().getId(), item.getNextBooking().getId());
+            assertThat(item.getLastBooking().getBookerId()).isEqualTo(user3.getId());
+            assertThat(item.getNextBooking().getBookerId()).isEqualTo(user2.getId());
+            assertThat(item.getComments()).hasSize(1);
+            assertThat(item.getComments().get(0).getAuthorName()).isEqualTo(user2.getName());
+        });
     }
 
     @Test
     void searchItems_ShouldReturnAvailableItemsMatchingText() {
-        List<ItemDto> result = itemService.search("item1");
+        List<ItemDto> result = search("item1");
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getId()).isEqualTo(item1.getId());
@@ -178,18 +344,130 @@ class ItemServiceIntegrationTest extends BaseIntegrationTest {
 
     @Test
     void searchItems_WithBlankText_ShouldReturnEmptyList() {
-        List<ItemDto> result = itemService.search("");
+        List<ItemDto> result = search("");
 
         assertThat(result).isEmpty();
     }
 
     @Test
     void searchItems_UnavailableItem_ShouldNotReturn() {
-        List<ItemDto> result = itemService.search("item3");
+        List<ItemDto> result = search("item3");
 
         assertThat(result).isEmpty();
     }
 
+    @Test
+    void searchItems_ShouldRankNameMatchesBeforeDescriptionMatches() {
+        Item inDescription = createItem("Tool", "Cordless drill", true, user1, null);
+        Item substring = createItem("Power drill", "Tool", true, user1, null);
+        Item prefix = createItem("Drill set", "Tool", true, user1, null);
+        Item exact = createItem("Drill", "Tool", true, user1, null);
+
+        List<ItemDto> result = search("DRILL");
+
+        assertThat(result).extracting(ItemDto::getId)
+                .containsExactly(exact.getId(), prefix.getId(), substring.getId(), inDescription.getId());
+    }
+
+    @Test
+    void searchItems_ShouldFollowUpdatesOfNameAndAvailability() {
+        itemService.update(user1.getId(), item1.getId(), new UpdateItemRequestDto("Ladder", null, null, null));
+        entityManager.flush();
+
+        assertThat(search("item1")).isEmpty();
+        assertThat(search("ladder")).extracting(ItemDto::getId).containsExactly(item1.getId());
+
+        itemService.update(user1.getId(), item1.getId(), new UpdateItemRequestDto(null, null, false, null));
+        entityManager.flush();
+
+        assertThat(search("ladder")).isEmpty();
+    }
+
+    @Test
+    void searchItems_ShouldForgetItemsOfRolledBackTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        transaction.executeWithoutResult(status -> {
+            User owner = createUser("Rollback", "rollback@email.com");
+            createItem("Unicycle", "Never committed", true, owner, null);
+            assertThat(search("unicycle")).hasSize(1);
+            status.setRollbackOnly();
+        });
+
+        assertThat(search("unicycle")).isEmpty();
+    }
+
+    @Test
+    void searchItems_CursorPagesShouldCoverAllMatchesOnce() {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            expected.add(createItem("Lamp " + i, "Desk lamp", true, user1, null).getId());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        CursorPage<ItemDto> page = itemService.search("lamp", 0, 3, null);
+        seen.addAll(page.content().stream().map(ItemDto::getId).toList());
+        while (page.nextCursor() != null) {
+            createItem("Lamp late", "Added between pages", true, user1, null);
+            page = itemService.search("lamp", 0, 3, page.nextCursor());
+            seen.addAll(page.content().stream().map(ItemDto::getId).toList());
+        }
+
+        assertThat(seen).startsWith(expected.toArray(Long[]::new)).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void searchItems_OffsetPagesShouldFollowRanking() {
+        Item exact = createItem("Lamp", "Desk", true, user1, null);
+        Item prefix = createItem("Lamp shade", "Desk", true, user1, null);
+        Item inDescription = createItem("Shade", "Fits any lamp", true, user1, null);
+
+        CursorPage<ItemDto> first = itemService.search("lamp", 0, 2, null);
+        CursorPage<ItemDto> second = itemService.search("lamp", 2, 2, null);
+
+        assertThat(first.content()).extracting(ItemDto::getId).containsExactly(exact.getId(), prefix.getId());
+        assertThat(first.nextCursor()).isNotNull();
+        assertThat(second.content()).extracting(ItemDto::getId).containsExactly(inDescription.getId());
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void postgresSearchQuery_ShouldMatchInMemoryEngine() {
+        createItem("Drill", "Tool", true, user1, null);
+        createItem("Drill set", "Tool", true, user1, null);
+        createItem("Power drill", "Tool", true, user1, null);
+        createItem("Tool", "Cordless drill", true, user1, null);
+        createItem("Broken drill", "Tool", false, user1, null);
+        createItem("Drill_100%", "Tool", true, user1, null);
+        entityManager.flush();
+        ItemSearchEngine postgres = new PostgresItemSearchEngine(itemRepository);
+
+        List<ItemSearchHit> expected = searchEngine.search("Drill", null, 0, 100);
+        List<ItemSearchHit> firstPage = postgres.search("Drill", null, 0, 2);
+        List<ItemSearchHit> rest = postgres.search("Drill", firstPage.get(1), 0, 100);
+
+        assertThat(postgres.search("Drill", null, 0, 100)).isEqualTo(expected).hasSize(5);
+        assertThat(firstPage).isEqualTo(expected.subList(0, 2));
+        assertThat(rest).isEqualTo(expected.subList(2, 5));
+        assertThat(postgres.search("dri_l", null, 0, 100)).isEmpty();
+        assertThat(postgres.search("_100%", null, 0, 100)).hasSize(1);
+    }
+
+    @Test
+    void postgresSearch_InTurkishLocale_ShouldMatchUppercaseI() {
+        createItem("Power drill", "Tool", true, user1, null);
+        entityManager.flush();
+        ItemSearchEngine postgres = new PostgresItemSearchEngine(itemRepository);
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            assertThat(postgres.search("DRILL", null, 0, 100)).hasSize(1);
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
     @Test
     void addComment_ShouldAddCommentSuccessfully() {
         CommentDto commentDto = new CommentDto(null, "Excellent item!", null, null);
@@ -201,6 +479,10 @@ class ItemServiceIntegrationTest extends BaseIntegrationTest {
         assertThat(result.getAuthorName()).isEqualTo("User2");
     }
 
+    private List<ItemDto> search(String text) {
+        return itemService.search(text, 0, 10, null).content();
+    }
+
     @Test
     void addComment_ByUserWhoNeverBooked_ShouldThrowException() {
         CommentDto commentDto = new CommentDto(null, "Comment", null, null);
@@ -2,8 +2,11 @@ package ru.practicum.shareit.integration;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingShort;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
@@ -12,6 +15,7 @@ import ru.practicum.shareit.user.mapper.UserMapper;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -134,19 +138,22 @@ class MapperIntegrationTest extends BaseIntegrationTest {
 
         var comments = List.of(comment1);
 
-        var result = itemMapper.toDtoWithBookings(item1, List.of(lastBooking), List.of(nextBooking),
+        var result = itemMapper.toDtoWithBookings(item1,
+                toBookingShort(lastBooking),
+                toBookingShort(nextBooking),
                 comments.stream().map(commentMapper::toDto).collect(Collectors.toList()));
 
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(item1.getId());
-        assertThat(result.getLastBooking()).isNotNull();
-        assertThat(result.getNextBooking()).isNotNull();
+        assertThat(result.getLastBooking().getId()).isEqualTo(lastBooking.getId());
+        assertThat(result.getLastBooking().getBookerId()).isEqualTo(user2.getId());
+        assertThat(result.getNextBooking().getId()).isEqualTo(nextBooking.getId());
         assertThat(result.getComments()).hasSize(1);
     }
 
     @Test
     void itemMapper_ShouldMapToDtoWithBookings_WhenNoBookings() {
-        var result = itemMapper.toDtoWithBookings(item2, List.of(), List.of(), List.of());
+        var result = itemMapper.toDtoWithBookings(item2, null, null, List.of());
 
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(item2.getId());
@@ -240,4 +247,11 @@ class MapperIntegrationTest extends BaseIntegrationTest {
         assertThat(result).isNotNull();
         assertThat(result.getDescription()).isEqualTo(request1.getDescription());
     }
-}
\ No newline at end of file
+
+    private static BookingShort toBookingShort(Booking booking) {
+        return new SpelAwareProxyProjectionFactory().createProjection(BookingShort.class, Map.of(
+                "id", booking.getId(),
+                "itemId", booking.getItem().getId(),
+                "bookerId", booking.getBooker().getId()));
+    }
+}
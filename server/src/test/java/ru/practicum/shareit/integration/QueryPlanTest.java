@@ -0,0 +1,214 @@
+package ru.practicum.shareit.integration;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository finder, captures the SQL Hibernate actually sent to H2 and checks its
+ * EXPLAIN plan against a few thousand rows: no table may be scanned, and every index the plan
+ * uses has to lead with a column that schema.sql (or a primary key / unique constraint) indexes.
+ * The second rule matters because H2 silently indexes foreign keys and PostgreSQL does not.
+ */
+class QueryPlanTest extends BaseIntegrationTest {
+    private static final Pattern ACCESS_PATH = Pattern.compile("/\\* PUBLIC\\.([A-Z0-9_]+)(\\.tableScan|: | \\*/)");
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "start", "id");
+    private static final Sort REQUESTS_NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "created", "id");
+    /**
+     * Bulk rows get explicit ids well above anything the id sequences hand out during the tests.
+     */
+    private static final long PLANNED_IDS = 1_000_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Map<String, String> leadingColumns;
+    private Set<String> declaredAccessPaths;
+
+    @BeforeEach
+    void fillTables() {
+        entityManager.flush();
+        jdbcTemplate.update("INSERT INTO users (id, name, email) " +
+                "SELECT ? + X, 'Planner' || X, 'planner' || X || '@plan.test' FROM SYSTEM_RANGE(0, 199)", PLANNED_IDS);
+        jdbcTemplate.update("INSERT INTO items (id, name, description, available, owner_id) " +
+                "SELECT ? + X, 'Item' || X, 'Description' || X, TRUE, ? + MOD(X, 200) FROM SYSTEM_RANGE(0, 999)",
+                PLANNED_IDS, PLANNED_IDS);
+        jdbcTemplate.update("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                "SELECT ? + X, DATEADD('HOUR', X - 5000, LOCALTIMESTAMP), DATEADD('HOUR', X - 4990, LOCALTIMESTAMP), " +
+                "? + MOD(X, 1000), ? + MOD(X * 7, 200), " +
+                "CASE MOD(X, 3) WHEN 0 THEN 'APPROVED' WHEN 1 THEN 'WAITING' ELSE 'REJECTED' END " +
+                "FROM SYSTEM_RANGE(1, 10000)", PLANNED_IDS, PLANNED_IDS, PLANNED_IDS);
+        jdbcTemplate.update("INSERT INTO requests (id, description, requester_id, created) " +
+                "SELECT ? + X, 'Request' || X, ? + MOD(X, 200), " +
+                "DATEADD('MINUTE', -X, LOCALTIMESTAMP) FROM SYSTEM_RANGE(1, 5000)", PLANNED_IDS, PLANNED_IDS);
+
+        leadingColumns = new LinkedHashMap<>();
+        declaredAccessPaths = new HashSet<>();
+        jdbcTemplate.query("SELECT i.INDEX_NAME, i.TABLE_NAME, i.INDEX_TYPE_NAME, c.COLUMN_NAME " +
+                "FROM INFORMATION_SCHEMA.INDEXES i JOIN INFORMATION_SCHEMA.INDEX_COLUMNS c " +
+                "ON c.INDEX_NAME = i.INDEX_NAME AND c.TABLE_NAME = i.TABLE_NAME AND c.ORDINAL_POSITION = 1 " +
+                "WHERE i.TABLE_SCHEMA = 'PUBLIC'", rs -> {
+            String accessPath = rs.getString("TABLE_NAME") + "." + rs.getString("COLUMN_NAME");
+            leadingColumns.put(rs.getString("INDEX_NAME"), accessPath);
+            if (rs.getString("INDEX_NAME").startsWith("IDX_") || !"INDEX".equals(rs.getString("INDEX_TYPE_NAME"))) {
+                declaredAccessPaths.add(accessPath);
+            }
+        });
+    }
+
+    @AfterEach
+    void disableQueryStatistics() throws SQLException {
+        setQueryStatistics(false);
+    }
+
+    @Test
+    void repositoryQueries_ReachEveryTableThroughDeclaredIndexes() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        ScrollPosition first = ScrollPosition.offset();
+        Limit limit = Limit.of(10);
+        Long userId = user1.getId();
+        Long itemId = item1.getId();
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("bookings by booker", () -> bookingRepository.findByBookerId(userId, first, limit, NEWEST_FIRST));
+        queries.put("current bookings by booker", () -> bookingRepository
+                .findByBookerIdAndStartBeforeAndEndAfter(userId, now, now, first, limit, NEWEST_FIRST));
+        queries.put("past bookings by booker", () -> bookingRepository
+                .findByBookerIdAndEndBefore(userId, now, first, limit, NEWEST_FIRST));
+        queries.put("future bookings by booker", () -> bookingRepository
+                .findByBookerIdAndStartAfter(userId, now, first, limit, NEWEST_FIRST));
+        queries.put("bookings by booker and status", () -> bookingRepository
+                .findByBookerIdAndStatus(userId, BookingStatus.WAITING, first, limit, NEWEST_FIRST));
+        queries.put("bookings by owner", () -> bookingRepository.findByItemOwnerId(userId, first, limit, NEWEST_FIRST));
+        queries.put("current bookings by owner", () -> bookingRepository
+                .findByItemOwnerIdAndStartBeforeAndEndAfter(userId, now, now, first, limit, NEWEST_FIRST));
+        queries.put("past bookings by owner", () -> bookingRepository
+                .findByItemOwnerIdAndEndBefore(userId, now, first, limit, NEWEST_FIRST));
+        queries.put("future bookings by owner", () -> bookingRepository
+                .findByItemOwnerIdAndStartAfter(userId, now, first, limit, NEWEST_FIRST));
+        queries.put("bookings by owner and status", () -> bookingRepository
+                .findByItemOwnerIdAndStatus(userId, BookingStatus.WAITING, first, limit, NEWEST_FIRST));
+        queries.put("export of bookings by owner", () -> {
+            try (Stream<Booking> bookings = bookingRepository.streamByItemOwnerIdOrderByStartDescIdDesc(userId)) {
+                bookings.forEach(booking -> { });
+            }
+        });
+        queries.put("last booking of item", () -> bookingRepository.findLastBooking(itemId, now, Limit.of(1)));
+        queries.put("next booking of item", () -> bookingRepository.findNextBooking(itemId, now, Limit.of(1)));
+        queries.put("next rollover of item", () -> bookingRepository.findNextRollover(itemId, now));
+        queries.put("finished booking of item by booker", () -> bookingRepository
+                .existsByItemIdAndBookerIdAndEndBefore(itemId, userId, now));
+        queries.put("approved bookings of item", () -> bookingRepository
+                .findByItemIdAndStatusAndEndAfter(itemId, BookingStatus.APPROVED, now));
+        queries.put("approved overlap", () -> bookingRepository.existsApprovedOverlap(itemId, now, now.plusDays(1)));
+        queries.put("approved overlap for items", () -> bookingRepository
+                .findApprovedOverlapping(List.of(itemId), now, now.plusDays(1)));
+        queries.put("bookings by ids", () -> bookingRepository.findByIdIn(List.of(booking1.getId())));
+        queries.put("last booking per item", () -> bookingRepository.findLastBookings(List.of(itemId), now));
+        queries.put("next booking per item", () -> bookingRepository.findNextBookings(List.of(itemId), now));
+        queries.put("booking ids by booker", () -> bookingRepository.findIdsByBookerId(userId, limit));
+        queries.put("booking ids by owner", () -> bookingRepository.findIdsByItemOwnerId(userId, limit));
+        queries.put("items of bookings", () -> bookingRepository.findItemIdsByIdIn(List.of(booking1.getId())));
+        queries.put("items by owner", () -> itemRepository.findByOwnerId(userId));
+        queries.put("item ids by owner", () -> itemRepository.findIdsByOwnerId(userId, limit));
+        queries.put("export of items by owner", () -> {
+            try (Stream<Item> items = itemRepository.streamByOwnerIdOrderById(userId)) {
+                items.forEach(item -> { });
+            }
+        });
+        queries.put("items answering requests", () -> itemRepository
+                .findByRequestIds(List.of(request1.getId(), request2.getId())));
+        queries.put("comments of item", () -> commentRepository.findByItemId(itemId));
+        queries.put("comments of items", () -> commentRepository.findByItemIdIn(List.of(itemId)));
+        queries.put("comment ids by author", () -> commentRepository.findIdsByAuthorId(userId, limit));
+        queries.put("comment ids by owner", () -> commentRepository.findIdsByItemOwnerId(userId, limit));
+        queries.put("items of comments", () -> commentRepository.findItemIdsByIdIn(List.of(comment1.getId())));
+        queries.put("requests by requester", () -> itemRequestRepository.findByRequesterIdOrderByCreatedDesc(userId));
+        queries.put("request ids by requester", () -> itemRequestRepository.findIdsByRequesterId(userId, limit));
+        queries.put("requests from others", () -> itemRequestRepository
+                .findByRequesterIdNotAndCreatedLessThanEqual(userId, now, first, limit, REQUESTS_NEWEST_FIRST));
+        queries.put("requests from others after cursor", () -> itemRequestRepository
+                .findByRequesterIdNotAndCreatedLessThanEqual(userId, now.minusHours(1),
+                        ScrollPosition.forward(Map.of("created", now.minusHours(1), "id", 1L)),
+                        limit, REQUESTS_NEWEST_FIRST));
+        queries.put("user by email", () -> userRepository.findByEmail("user1@email.com"));
+        // The first page of users has no predicate and walks the primary key in order up to the limit;
+        // only the cursor query is checked, since later pages must seek instead of skipping rows
+        queries.put("users after cursor", () -> userRepository
+                .findBy(ScrollPosition.forward(Map.of("id", userId)), limit, Sort.by("id")));
+
+        List<String> violations = new ArrayList<>();
+        for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+            List<String> statements = capture(query.getValue());
+            assertThat(statements).as(query.getKey()).isNotEmpty();
+            for (String sql : statements) {
+                String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+                Matcher accessPath = ACCESS_PATH.matcher(plan);
+                while (accessPath.find()) {
+                    String index = accessPath.group(1);
+                    if (!": ".equals(accessPath.group(2))) {
+                        violations.add(query.getKey() + ": full scan of " + index + "\n" + plan);
+                    } else if (!declaredAccessPaths.contains(leadingColumns.get(index))) {
+                        violations.add(query.getKey() + ": no declared index on " + leadingColumns.get(index) + "\n" + plan);
+                    }
+                }
+            }
+        }
+
+        assertThat(violations).isEmpty();
+    }
+
+    private List<String> capture(Runnable query) throws SQLException {
+        setQueryStatistics(false);
+        setQueryStatistics(true);
+        entityManager.clear();
+        query.run();
+        return jdbcTemplate.queryForList(
+                        "SELECT SQL_STATEMENT FROM INFORMATION_SCHEMA.QUERY_STATISTICS", String.class).stream()
+                .filter(sql -> sql.trim().toLowerCase().startsWith("select"))
+                .filter(sql -> !sql.contains("INFORMATION_SCHEMA"))
+                .toList();
+    }
+
+    /**
+     * SET commits the current transaction in H2, so it goes through its own connection and the
+     * test data still rolls back.
+     */
+    private void setQueryStatistics(boolean enabled) throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SET QUERY_STATISTICS " + enabled);
+        }
+    }
+}
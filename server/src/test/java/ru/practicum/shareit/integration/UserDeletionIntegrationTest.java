@@ -0,0 +1,102 @@
+package ru.practicum.shareit.integration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = "shareit.users.deletion.chunk-size=2")
+class UserDeletionIntegrationTest {
+    private static final int ITEMS = 3;
+    private static final int BOOKINGS = 5;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> itemIds = new ArrayList<>();
+    private final List<Long> bookingIds = new ArrayList<>();
+    private final List<Long> commentIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        // Whatever the background deletion left behind
+        commentRepository.deleteAllByIdInBatch(commentIds);
+        bookingRepository.deleteAllByIdInBatch(bookingIds);
+        itemRepository.deleteAllByIdInBatch(itemIds);
+        userRepository.deleteAllByIdInBatch(userIds);
+    }
+
+    @Test
+    void delete_UserWithMoreThanOneChunk_FinishesInBackground() throws Exception {
+        User leaving = createUser();
+        User renter = createUser();
+        Item rented = itemRepository.save(new Item(null, "Ladder", "Rented out", true, renter, null));
+        itemIds.add(rented.getId());
+
+        for (int i = 0; i < ITEMS; i++) {
+            itemIds.add(itemRepository.save(new Item(null, "Tool" + i, "Owned", true, leaving, null)).getId());
+        }
+        LocalDateTime base = LocalDateTime.now().minusDays(30).withNano(0);
+        for (int i = 0; i < BOOKINGS; i++) {
+            LocalDateTime start = base.plusDays(i);
+            bookingIds.add(bookingRepository.save(new Booking(null, start, start.plusHours(1), rented, leaving,
+                    BookingStatus.APPROVED)).getId());
+        }
+        commentIds.add(commentRepository.save(new Comment(null, "Fine", rented, leaving, base)).getId());
+
+        boolean deleted = userService.delete(leaving.getId());
+
+        assertThat(deleted).isFalse();
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (userRepository.existsById(leaving.getId()) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(userRepository.existsById(leaving.getId())).isFalse();
+        assertThat(bookingRepository.findAllById(bookingIds)).isEmpty();
+        assertThat(itemRepository.findAllById(itemIds)).extracting(Item::getId).containsExactly(rented.getId());
+        assertThat(commentRepository.findAllById(commentIds)).isEmpty();
+    }
+
+    private User createUser() {
+        User user = userRepository.save(new User(null, "User", UUID.randomUUID() + "@email.com"));
+        userIds.add(user.getId());
+        return user;
+    }
+}
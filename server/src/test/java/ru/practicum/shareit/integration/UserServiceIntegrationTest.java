@@ -1,16 +1,27 @@
 package ru.practicum.shareit.integration;
 
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.user.dto.CreateUserRequestDto;
 import ru.practicum.shareit.user.dto.UpdateUserRequestDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.exception.UserAlreadyExistsException;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.EmailFilter;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -22,13 +33,48 @@ class UserServiceIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private EmailFilter emailFilter;
+
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
     void getAll_ShouldReturnAllUsers() {
-        List<UserDto> result = userService.getAll();
+        List<UserDto> result = userService.getAll(0, 10, null).content();
 
         assertThat(result).hasSize(3);
     }
 
+    @Test
+    void getAll_ScrollingWithCursor_VisitsEveryUserOnce() {
+        CursorPage<UserDto> page = userService.getAll(0, 2, null);
+        List<Long> ids = new ArrayList<>(page.content().stream().map(UserDto::getId).toList());
+        while (page.nextCursor() != null) {
+            page = userService.getAll(0, 2, page.nextCursor());
+            page.content().forEach(user -> ids.add(user.getId()));
+        }
+
+        assertThat(ids).containsExactly(user1.getId(), user2.getId(), user3.getId());
+    }
+
+    @Test
+    void getAll_ShouldNotLoadUserEntities() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        entityManager.clear();
+
+        List<UserDto> result = userService.getAll(1, 2, null).content();
+
+        assertThat(result).extracting(UserDto::getEmail).containsExactly(user2.getEmail(), user3.getEmail());
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
     @Test
     void getById_ShouldReturnUser() {
         UserDto result = userService.getById(user1.getId());
@@ -60,6 +106,36 @@ class UserServiceIntegrationTest extends BaseIntegrationTest {
         assertThat(result.getEmail()).isEqualTo("newuser@email.com");
     }
 
+    @Test
+    void create_WithNewEmail_ShouldNotLookUpEmail() {
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        userService.create(new CreateUserRequestDto("Newcomer", "newcomer@email.com"));
+
+        assertThat(statistics.getQueryExecutionCount()).isZero();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+    }
+
+    @Test
+    void update_ToEmailOfDeletedUser_ShouldSucceed() {
+        UserDto leaving = userService.create(new CreateUserRequestDto("Leaving", "leaving@email.com"));
+        userService.delete(leaving.getId());
+
+        UserDto result = userService.update(user1.getId(), new UpdateUserRequestDto("leaving@email.com", null));
+
+        assertThat(result.getEmail()).isEqualTo("leaving@email.com");
+    }
+
+    @Test
+    void update_ToNewEmail_ShouldAddItToEmailFilter() {
+        userService.update(user1.getId(), new UpdateUserRequestDto("changed@email.com", null));
+
+        assertThat(emailFilter.mightContain("changed@email.com")).isTrue();
+    }
+
     @Test
     void create_WithDuplicateEmail_ShouldThrowException() {
         CreateUserRequestDto requestDto = new CreateUserRequestDto(
@@ -116,9 +192,66 @@ class UserServiceIntegrationTest extends BaseIntegrationTest {
     void delete_ShouldDeleteUserSuccessfully() {
 
         userService.delete(user3.getId());
+        entityManager.clear();
 
         assertThrows(UserNotFoundException.class, () ->
                 userService.getById(user3.getId())
         );
     }
+
+    @Test
+    void delete_ShouldRemoveHistoryAndKeepItemsAnsweringRequests() {
+        Item answer = createItem("Answer", "Answer to request1", true, user1, request1);
+        assertThat(itemService.search("item2", 0, 10, null).content()).hasSize(1);
+
+        boolean deleted = userService.delete(user2.getId());
+        entityManager.clear();
+
+        assertThat(deleted).isTrue();
+        assertThat(userRepository.existsById(user2.getId())).isFalse();
+        assertThat(bookingRepository.existsById(booking1.getId())).isFalse();
+        assertThat(commentRepository.existsById(comment1.getId())).isFalse();
+        assertThat(itemRequestRepository.existsById(request1.getId())).isFalse();
+        assertThat(itemRepository.existsById(item2.getId())).isFalse();
+        assertThat(itemRepository.findById(answer.getId())).get()
+                .extracting(Item::getRequestId).isNull();
+        assertThat(bookingRepository.existsById(booking2.getId())).isTrue();
+        assertThat(itemService.search("item2", 0, 10, null).content()).isEmpty();
+    }
+
+    @Test
+    void delete_ShouldNotLoadEntities() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        userService.delete(user3.getId());
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getEntityDeleteCount()).isZero();
+    }
+
+    @Test
+    void saveAll_ShouldInsertInBatchesWithPooledIds() {
+        entityManager.flush();
+        List<User> users = IntStream.range(0, 500)
+                .mapToObj(i -> new User(null, "Batch" + i, "batch" + i + "@email.com"))
+                .toList();
+
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        userRepository.saveAll(users);
+        entityManager.flush();
+
+        assertThat(users).extracting(User::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(500);
+        // one sequence call per 50 ids and one insert statement per batch of 50 rows, not one per row
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(21);
+    }
 }
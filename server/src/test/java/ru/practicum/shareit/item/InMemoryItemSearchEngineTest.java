@@ -0,0 +1,121 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryItemSearchEngineTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private InMemoryItemSearchEngine engine;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        engine = new InMemoryItemSearchEngine(itemRepository);
+        owner = new User(1L, "Owner", "owner@email.com");
+    }
+
+    @Test
+    void loadAll_ShouldIndexExistingAvailableItems() {
+        when(itemRepository.findAll()).thenReturn(List.of(
+                item(1L, "Drill", "Cordless", true),
+                item(2L, "Drill", "Broken", false)));
+
+        engine.loadAll();
+
+        assertThat(ids("drill", 0, 10)).containsExactly(1L);
+    }
+
+    @Test
+    void search_ShouldRankExactPrefixSubstringThenDescription() {
+        engine.indexed(item(1L, "Tool", "Cordless drill", true));
+        engine.indexed(item(2L, "Power drill", "Tool", true));
+        engine.indexed(item(3L, "Drill set", "Tool", true));
+        engine.indexed(item(4L, "Drill", "Tool", true));
+        engine.indexed(item(5L, "Hammer", "Tool", true));
+
+        assertThat(ids(" DRILL ", 0, 10)).containsExactly(4L, 3L, 2L, 1L);
+    }
+
+    @Test
+    void search_ShouldMatchShortAndLongSubstrings() {
+        engine.indexed(item(1L, "Screwdriver", "Flat head", true));
+        engine.indexed(item(2L, "Saw", "Wood", true));
+
+        assertThat(ids("w", 0, 10)).containsExactly(1L, 2L);
+        assertThat(ids("rewdri", 0, 10)).containsExactly(1L);
+        assertThat(ids("flat head", 0, 10)).containsExactly(1L);
+        assertThat(ids("driverx", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void search_ShouldNotMatchWhenTrigramsAreScattered() {
+        engine.indexed(item(1L, "abcd xbcde", "", true));
+
+        assertThat(ids("abcde", 0, 10)).isEmpty();
+        assertThat(ids("bcde", 0, 10)).containsExactly(1L);
+    }
+
+    @Test
+    void search_ShouldApplyOffsetAndLimit() {
+        for (long id = 1; id <= 5; id++) {
+            engine.indexed(item(id, "Item" + id, "Description", true));
+        }
+
+        assertThat(ids("description", 1, 2)).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void search_ShouldContinueAfterGivenHit() {
+        engine.indexed(item(1L, "Drill", "Tool", true));
+        engine.indexed(item(2L, "Drill", "Tool", true));
+        engine.indexed(item(3L, "Drill set", "Tool", true));
+        engine.indexed(item(4L, "Hammer", "Drill bits", true));
+
+        List<ItemSearchHit> firstPage = engine.search("drill", null, 0, 2);
+        List<ItemSearchHit> secondPage = engine.search("drill", firstPage.get(1), 0, 2);
+
+        assertThat(firstPage).containsExactly(new ItemSearchHit(1L, 0), new ItemSearchHit(2L, 0));
+        assertThat(secondPage).containsExactly(new ItemSearchHit(3L, 1), new ItemSearchHit(4L, 3));
+    }
+
+    @Test
+    void indexedAndRemoved_ShouldReplacePreviousVersion() {
+        engine.indexed(item(1L, "Drill", "Cordless", true));
+        engine.indexed(item(1L, "Ladder", "Aluminium", true));
+
+        assertThat(ids("drill", 0, 10)).isEmpty();
+        assertThat(ids("ladder", 0, 10)).containsExactly(1L);
+
+        engine.indexed(item(1L, "Ladder", "Aluminium", false));
+        assertThat(ids("ladder", 0, 10)).isEmpty();
+
+        engine.indexed(item(2L, "Ladder", "Wooden", true));
+        engine.removed(2L);
+        assertThat(ids("ladder", 0, 10)).isEmpty();
+    }
+
+    private List<Long> ids(String text, long offset, int limit) {
+        return engine.search(text, null, offset, limit).stream().map(ItemSearchHit::id).toList();
+    }
+
+    private Item item(Long id, String name, String description, boolean available) {
+        return new Item(id, name, description, available, owner, null);
+    }
+}
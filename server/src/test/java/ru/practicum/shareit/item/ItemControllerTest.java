@@ -6,24 +6,40 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateItemRequestDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.dto.UpdateItemRequestDto;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.pagination.CursorPage;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ItemController.class)
@@ -96,6 +112,43 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.name").value("Item"));
     }
 
+    @Test
+    void getItemById_shouldReturnWeakEtagAndNotModifiedWhenItMatches() throws Exception {
+        when(itemService.getById(anyLong(), anyLong())).thenReturn(itemDto);
+
+        String etag = mockMvc.perform(get("/items/1")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("W/\"")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/items/1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        itemDto.setName("Renamed");
+        mockMvc.perform(get("/items/1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Renamed"));
+    }
+
+    @Test
+    void updateItem_shouldNotReturnEtag() throws Exception {
+        when(itemService.update(anyLong(), anyLong(), any(UpdateItemRequestDto.class))).thenReturn(itemDto);
+
+        mockMvc.perform(patch("/items/1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateItemDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
     @Test
     void getAllItemsByOwner_shouldReturnItemsList() throws Exception {
         when(itemService.getAllByOwner(anyLong())).thenReturn(List.of(itemDto));
@@ -109,12 +162,27 @@ class ItemControllerTest {
 
     @Test
     void searchItems_shouldReturnSearchResults() throws Exception {
-        when(itemService.search(any())).thenReturn(List.of(itemDto));
+        when(itemService.search("item", 0, 10, null)).thenReturn(new CursorPage<>(List.of(itemDto), null));
 
         mockMvc.perform(get("/items/search")
                         .param("text", "item")
                         .header("X-Sharer-User-Id", 1L))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$[0].id").value(1L));
+    }
+
+    @Test
+    void searchItems_withCursor_shouldPassPagingAndReturnNextCursor() throws Exception {
+        when(itemService.search("item", 0, 2, "abc")).thenReturn(new CursorPage<>(List.of(itemDto), "next"));
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "item")
+                        .param("size", "2")
+                        .param("cursor", "abc")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
                 .andExpect(jsonPath("$[0].id").value(1L));
     }
 
@@ -182,4 +250,85 @@ class ItemControllerTest {
                         .content(objectMapper.writeValueAsString(comment)))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportItemsByOwner_shouldStreamNdjsonWithoutEtag() throws Exception {
+        ItemDto second = new ItemDto(2L, "Second", "Description", false, null, null, List.of());
+        doAnswer(invocation -> {
+            Consumer<ItemDto> sink = invocation.getArgument(1);
+            sink.accept(itemDto);
+            sink.accept(second);
+            return null;
+        }).when(itemService).exportByOwner(eq(1L), any());
+
+        MvcResult result = mockMvc.perform(get("/items/export")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(content().string(objectMapper.writeValueAsString(itemDto) + "\n"
+                        + objectMapper.writeValueAsString(second) + "\n"));
+    }
+
+    @Test
+    void importItems_shouldReadJsonArray() throws Exception {
+        List<CreateItemRequestDto> imported = stubImport();
+
+        mockMvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(createItemDto, createItemDto))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.errors[0].index").value(1))
+                .andExpect(jsonPath("$.errors[0].error").value("name: Name cannot be blank"));
+
+        assertThat(imported).containsExactly(createItemDto, createItemDto);
+    }
+
+    @Test
+    void importItems_shouldReadNdjsonStream() throws Exception {
+        List<CreateItemRequestDto> imported = stubImport();
+        CreateItemRequestDto second = new CreateItemRequestDto("Second", "Description", false, 7L);
+
+        mockMvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(createItemDto) + "\n"
+                                + objectMapper.writeValueAsString(second) + "\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+
+        assertThat(imported).containsExactly(createItemDto, second);
+    }
+
+    @Test
+    void importItems_withMalformedBody_shouldReturnBadRequest() throws Exception {
+        stubImport();
+
+        mockMvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(objectMapper.writeValueAsString(createItemDto) + "\n{\"name\": "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", startsWith("Malformed import body")));
+    }
+
+    /**
+     * Drains the rows the controller hands to the service, as the service would.
+     */
+    private List<CreateItemRequestDto> stubImport() {
+        List<CreateItemRequestDto> imported = new ArrayList<>();
+        when(itemService.importItems(eq(1L), any())).thenAnswer(invocation -> {
+            Iterator<CreateItemRequestDto> rows = invocation.getArgument(1);
+            rows.forEachRemaining(imported::add);
+            return new ItemImportResultDto(imported.size(),
+                    List.of(new ItemImportErrorDto(1, "name: Name cannot be blank")));
+        });
+        return imported;
+    }
+}
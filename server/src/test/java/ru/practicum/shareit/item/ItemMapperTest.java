@@ -2,7 +2,7 @@ package ru.practicum.shareit.item;
 
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingShort;
 import ru.practicum.shareit.item.dto.CreateItemRequestDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.UpdateItemRequestDto;
@@ -41,15 +41,35 @@ class ItemMapperTest {
     void toDtoWithBookings_ShouldMapCorrectly() {
         User owner = new User(1L, "Owner", "owner@email.com");
         Item item = new Item(1L, "Test Item", "Test Description", true, owner, null);
-        List<Booking> lastBookings = Collections.emptyList();
-        List<Booking> nextBookings = Collections.emptyList();
+        BookingShort nextBooking = bookingShort(5L, item.getId(), 7L);
         List<ru.practicum.shareit.item.dto.CommentDto> comments = Collections.emptyList();
 
-        ItemDto result = mapper.toDtoWithBookings(item, lastBookings, nextBookings, comments);
+        ItemDto result = mapper.toDtoWithBookings(item, null, nextBooking, comments);
 
         assertNotNull(result);
         assertEquals(item.getId(), result.getId());
         assertEquals(item.getName(), result.getName());
+        assertNull(result.getLastBooking());
+        assertEquals(new ItemDto.BookingInfo(5L, 7L), result.getNextBooking());
+    }
+
+    private static BookingShort bookingShort(Long id, Long itemId, Long bookerId) {
+        return new BookingShort() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Long getBookerId() {
+                return bookerId;
+            }
+        };
     }
 
     @Test
@@ -1,17 +1,24 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Limit;
+import ru.practicum.shareit.booking.dto.BookingShort;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.export.Export;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreateItemRequestDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.dto.UpdateItemRequestDto;
 import ru.practicum.shareit.item.exception.ItemNotFoundException;
 import ru.practicum.shareit.item.exception.ItemNotOwnedByUserException;
@@ -20,22 +27,38 @@ import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchHit;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.item.service.ItemDetailCache;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -61,6 +84,22 @@ class ItemServiceImplTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private ItemSearchEngine searchEngine;
+
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+
+    @Spy
+    private ItemDetailCache itemDetailCache =
+            new ItemDetailCache(new SimpleMeterRegistry(), Duration.ofMinutes(10), 100, System::nanoTime);
+
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -83,7 +122,8 @@ class ItemServiceImplTest {
 
     @Test
     void createItem_shouldCreateItemSuccessfully() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(userCache.exists(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(owner);
         when(itemMapper.fromCreateDto(createItemDto, owner)).thenReturn(item);
         when(itemRepository.save(item)).thenReturn(item);
         when(itemMapper.toItemDto(item)).thenReturn(itemDto);
@@ -96,15 +136,66 @@ class ItemServiceImplTest {
 
     @Test
     void createItem_withNonExistentUser_shouldThrowException() {
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userCache.exists(1L)).thenReturn(false);
 
         assertThatThrownBy(() -> itemService.create(1L, createItemDto))
                 .isInstanceOf(UserNotFoundException.class);
     }
 
+    @Test
+    void importItems_shouldSkipInvalidRowsAndReportThemByIndex() {
+        ItemRequest request = new ItemRequest();
+        request.setId(5L);
+        List<CreateItemRequestDto> rows = List.of(
+                createItemDto,
+                new CreateItemRequestDto(" ", "Description", true, null),
+                new CreateItemRequestDto("Item", "Description", null, null),
+                new CreateItemRequestDto("Item", "Description", true, 99L),
+                new CreateItemRequestDto("Item", "Description", true, 5L));
+        when(userCache.exists(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(owner);
+        when(itemRequestRepository.findAllById(Set.of(99L, 5L))).thenReturn(List.of(request));
+        when(itemMapper.fromCreateDto(any(), eq(owner))).thenReturn(item);
+
+        ItemImportResultDto result = itemService.importItems(1L, rows.iterator());
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ItemImportErrorDto::getIndex).containsExactly(1L, 2L, 3L);
+        assertThat(result.getErrors().get(2).getError()).isEqualTo("Request with id 99 not found");
+        verify(itemMapper).fromCreateDto(rows.get(0), owner);
+        verify(itemMapper).fromCreateDto(rows.get(4), owner);
+        verify(itemRepository).saveAll(List.of(item, item));
+    }
+
+    @Test
+    void importItems_shouldFlushAndClearEveryChunk() {
+        List<CreateItemRequestDto> rows = Collections.nCopies(ItemServiceImpl.IMPORT_CHUNK_SIZE + 1, createItemDto);
+        when(userCache.exists(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(owner);
+        when(itemMapper.fromCreateDto(createItemDto, owner)).thenReturn(item);
+
+        ItemImportResultDto result = itemService.importItems(1L, rows.iterator());
+
+        assertThat(result.getImported()).isEqualTo(ItemServiceImpl.IMPORT_CHUNK_SIZE + 1);
+        assertThat(result.getErrors()).isEmpty();
+        verify(itemRepository, times(2)).saveAll(anyList());
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        verifyNoInteractions(itemRequestRepository);
+    }
+
+    @Test
+    void importItems_withNonExistentUser_shouldThrowException() {
+        when(userCache.exists(1L)).thenReturn(false);
+
+        assertThatThrownBy(() -> itemService.importItems(1L, List.of(createItemDto).iterator()))
+                .isInstanceOf(UserNotFoundException.class);
+        verifyNoInteractions(itemRepository);
+    }
+
     @Test
     void updateItem_shouldUpdateItemSuccessfully() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(userCache.exists(1L)).thenReturn(true);
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
         when(itemRepository.save(item)).thenReturn(item);
         when(itemMapper.toItemDto(item)).thenReturn(itemDto);
@@ -117,7 +208,7 @@ class ItemServiceImplTest {
 
     @Test
     void updateItem_withNonExistentItem_shouldThrowException() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
+        when(userCache.exists(1L)).thenReturn(true);
         when(itemRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> itemService.update(1L, 1L, updateItemDto))
@@ -126,7 +217,7 @@ class ItemServiceImplTest {
 
     @Test
     void updateItem_byNonOwner_shouldThrowException() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(otherUser));
+        when(userCache.exists(2L)).thenReturn(true);
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
 
         assertThatThrownBy(() -> itemService.update(2L, 1L, updateItemDto))
@@ -135,20 +226,28 @@ class ItemServiceImplTest {
 
     @Test
     void getItemById_shouldReturnItem() {
+        LocalDateTime rollover = LocalDateTime.now().plusDays(1);
+        ItemDto.BookingInfo nextInfo = new ItemDto.BookingInfo(5L, 2L);
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
-        when(bookingRepository.findByItemIdAndEndBefore(anyLong(), any(LocalDateTime.class), any(Sort.class)))
-                .thenReturn(Collections.emptyList());
-        when(bookingRepository.findByItemIdAndStartAfter(anyLong(), any(LocalDateTime.class), any(Sort.class)))
+        BookingShort nextBooking = mock(BookingShort.class);
+        when(bookingRepository.findLastBooking(anyLong(), any(LocalDateTime.class), eq(Limit.of(1))))
                 .thenReturn(Collections.emptyList());
+        when(bookingRepository.findNextBooking(anyLong(), any(LocalDateTime.class), eq(Limit.of(1))))
+                .thenReturn(List.of(nextBooking));
+        when(bookingRepository.findNextRollover(anyLong(), any(LocalDateTime.class))).thenReturn(Optional.of(rollover));
+        when(itemMapper.mapBookingInfo(null)).thenReturn(null);
+        when(itemMapper.mapBookingInfo(nextBooking)).thenReturn(nextInfo);
         when(commentRepository.findByItemId(1L)).thenReturn(Collections.emptyList());
-        when(itemMapper.toDtoWithBookings(item, Collections.emptyList(), Collections.emptyList(), Collections.emptyList()))
+        when(itemMapper.toDtoWithBookings(item, null, null, Collections.emptyList()))
                 .thenReturn(itemDto);
 
         ItemDto result = itemService.getById(1L, 1L);
 
-        assertThat(result).isEqualTo(itemDto);
-        verify(bookingRepository).findByItemIdAndEndBefore(anyLong(), any(LocalDateTime.class), any(Sort.class));
-        verify(bookingRepository).findByItemIdAndStartAfter(anyLong(), any(LocalDateTime.class), any(Sort.class));
+        assertThat(result.getId()).isEqualTo(itemDto.getId());
+        assertThat(result.getLastBooking()).isNull();
+        assertThat(result.getNextBooking()).isEqualTo(nextInfo);
+        verify(bookingRepository).findLastBooking(anyLong(), any(LocalDateTime.class), eq(Limit.of(1)));
+        verify(bookingRepository).findNextBooking(anyLong(), any(LocalDateTime.class), eq(Limit.of(1)));
     }
 
     @Test
@@ -162,8 +261,52 @@ class ItemServiceImplTest {
         ItemDto result = itemService.getById(1L, 2L);
 
         assertThat(result).isEqualTo(itemDto);
-        verify(bookingRepository, never()).findByItemIdAndEndBefore(anyLong(), any(LocalDateTime.class), any(Sort.class));
-        verify(bookingRepository, never()).findByItemIdAndStartAfter(anyLong(), any(LocalDateTime.class), any(Sort.class));
+        verify(bookingRepository, never()).findLastBooking(anyLong(), any(LocalDateTime.class), any(Limit.class));
+        verify(bookingRepository, never()).findNextBooking(anyLong(), any(LocalDateTime.class), any(Limit.class));
+    }
+
+    @Test
+    void getItemById_repeated_shouldServeBothViewsFromCache() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(commentRepository.findByItemId(1L)).thenReturn(Collections.emptyList());
+        when(itemMapper.toDtoWithBookings(item, null, null, Collections.emptyList())).thenReturn(itemDto);
+        when(bookingRepository.findNextRollover(anyLong(), any(LocalDateTime.class))).thenReturn(Optional.empty());
+
+        itemService.getById(1L, 2L);
+        itemService.getById(1L, 1L).setName("Changed by caller");
+        ItemDto result = itemService.getById(1L, 1L);
+
+        assertThat(result.getName()).isEqualTo("Item");
+        verify(itemRepository, times(1)).findById(1L);
+        verify(commentRepository, times(1)).findByItemId(1L);
+        verify(bookingRepository, times(1)).findLastBooking(anyLong(), any(LocalDateTime.class), any(Limit.class));
+    }
+
+    @Test
+    void getItemById_ownerBookings_shouldBeReloadedAfterRollover() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(commentRepository.findByItemId(1L)).thenReturn(Collections.emptyList());
+        when(itemMapper.toDtoWithBookings(item, null, null, Collections.emptyList())).thenReturn(itemDto);
+        when(bookingRepository.findNextRollover(anyLong(), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(LocalDateTime.now().minusSeconds(1)));
+
+        itemService.getById(1L, 1L);
+        itemService.getById(1L, 1L);
+
+        verify(itemRepository, times(1)).findById(1L);
+        verify(bookingRepository, times(2)).findNextBooking(anyLong(), any(LocalDateTime.class), any(Limit.class));
+    }
+
+    @Test
+    void updateItem_shouldEvictPublicViewOnly() {
+        when(userCache.exists(1L)).thenReturn(true);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(itemRepository.save(item)).thenReturn(item);
+
+        itemService.update(1L, 1L, updateItemDto);
+
+        verify(itemDetailCache).evictItem(1L);
+        verify(itemDetailCache, never()).evictBookings(anyLong());
     }
 
     @Test
@@ -176,8 +319,13 @@ class ItemServiceImplTest {
 
     @Test
     void getAllByOwner_shouldReturnItemsList() {
+        BookingShort lastBooking = mock(BookingShort.class);
+        when(lastBooking.getItemId()).thenReturn(item.getId());
         when(itemRepository.findByOwnerId(1L)).thenReturn(List.of(item));
-        when(itemMapper.toItemDto(item)).thenReturn(itemDto);
+        when(bookingRepository.findLastBookings(eq(List.of(item.getId())), any())).thenReturn(List.of(lastBooking));
+        when(bookingRepository.findNextBookings(eq(List.of(item.getId())), any())).thenReturn(List.of());
+        when(commentRepository.findByItemIdIn(List.of(item.getId()))).thenReturn(List.of());
+        when(itemMapper.toDtoWithBookings(item, lastBooking, null, List.of())).thenReturn(itemDto);
 
         List<ItemDto> result = itemService.getAllByOwner(1L);
 
@@ -185,23 +333,101 @@ class ItemServiceImplTest {
         assertThat(result.get(0)).isEqualTo(itemDto);
     }
 
+    @Test
+    void getAllByOwner_withoutItems_shouldNotQueryBookingsOrComments() {
+        when(itemRepository.findByOwnerId(1L)).thenReturn(List.of());
+
+        assertThat(itemService.getAllByOwner(1L)).isEmpty();
+        verifyNoInteractions(bookingRepository, commentRepository);
+    }
+
+    @Test
+    void exportByOwner_shouldEnrichItemsChunkByChunk() {
+        List<Item> items = LongStream.rangeClosed(1, Export.FETCH_SIZE + 1)
+                .mapToObj(id -> new Item(id, "Item " + id, "Description", true, owner, null))
+                .toList();
+        List<ItemDto> exported = new ArrayList<>();
+        when(itemRepository.streamByOwnerIdOrderById(1L)).thenReturn(items.stream());
+        when(bookingRepository.findLastBookings(anyList(), any())).thenReturn(List.of());
+        when(bookingRepository.findNextBookings(anyList(), any())).thenReturn(List.of());
+        when(commentRepository.findByItemIdIn(anyList())).thenReturn(List.of());
+        when(itemMapper.toDtoWithBookings(any(), isNull(), isNull(), eq(List.of()))).thenReturn(itemDto);
+
+        itemService.exportByOwner(1L, exported::add);
+
+        assertThat(exported).hasSize(Export.FETCH_SIZE + 1);
+        verify(bookingRepository, times(2)).findLastBookings(anyList(), any());
+        verify(entityManager, times(2)).clear();
+    }
+
     @Test
     void searchItems_shouldReturnSearchResults() {
-        when(itemRepository.search("item")).thenReturn(List.of(item));
+        when(searchEngine.search("item", null, 0, 11)).thenReturn(List.of(new ItemSearchHit(1L, 0)));
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(item));
         when(itemMapper.toItemDto(item)).thenReturn(itemDto);
 
-        List<ItemDto> result = itemService.search("item");
+        CursorPage<ItemDto> result = itemService.search(" item ", 0, 10, null);
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0)).isEqualTo(itemDto);
+        assertThat(result.content()).containsExactly(itemDto);
+        assertThat(result.nextCursor()).isNull();
+    }
+
+    @Test
+    void searchItems_shouldKeepEngineOrderAndSkipUnavailableItems() {
+        Item second = new Item(2L, "Second", "Description", true, owner, null);
+        Item hidden = new Item(3L, "Hidden", "Description", false, owner, null);
+        ItemDto secondDto = new ItemDto(2L, "Second", "Description", true, null, null, List.of());
+        when(searchEngine.search("desc", null, 0, 11)).thenReturn(List.of(
+                new ItemSearchHit(2L, 3), new ItemSearchHit(3L, 3), new ItemSearchHit(1L, 3)));
+        when(itemRepository.findAllById(List.of(2L, 3L, 1L))).thenReturn(List.of(item, hidden, second));
+        when(itemMapper.toItemDto(item)).thenReturn(itemDto);
+        when(itemMapper.toItemDto(second)).thenReturn(secondDto);
+
+        CursorPage<ItemDto> result = itemService.search("desc", 0, 10, null);
+
+        assertThat(result.content()).containsExactly(secondDto, itemDto);
+    }
+
+    @Test
+    void searchItems_fullPage_shouldReturnCursorOfLastHit() {
+        ItemSearchHit last = new ItemSearchHit(1L, 2);
+        when(searchEngine.search("item", null, 5, 2)).thenReturn(List.of(last, new ItemSearchHit(4L, 2)));
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(item));
+        when(itemMapper.toItemDto(item)).thenReturn(itemDto);
+
+        CursorPage<ItemDto> result = itemService.search("item", 5, 1, null);
+
+        assertThat(result.content()).containsExactly(itemDto);
+        assertThat(ItemSearchHit.decode(result.nextCursor())).isEqualTo(last);
+    }
+
+    @Test
+    void searchItems_withCursor_shouldContinueAfterItAndIgnoreFrom() {
+        ItemSearchHit after = new ItemSearchHit(7L, 1);
+        when(searchEngine.search("item", after, 0, 11)).thenReturn(List.of());
+        when(itemRepository.findAllById(List.of())).thenReturn(List.of());
+
+        CursorPage<ItemDto> result = itemService.search("item", 30, 10, after.encode());
+
+        assertThat(result.content()).isEmpty();
+        assertThat(result.nextCursor()).isNull();
+    }
+
+    @Test
+    void searchItems_withInvalidPaging_shouldThrowException() {
+        assertThrows(BadRequestException.class, () -> itemService.search("item", 0, 101, null));
+        assertThrows(BadRequestException.class, () -> itemService.search("item", -1, 10, null));
+        assertThrows(BadRequestException.class, () -> itemService.search("item", 0, 10, "%%%"));
+        verifyNoInteractions(searchEngine);
     }
 
     @Test
     void searchItems_withEmptyText_shouldReturnEmptyList() {
-        List<ItemDto> result = itemService.search("");
+        CursorPage<ItemDto> result = itemService.search("", 0, 10, null);
 
-        assertThat(result).isEmpty();
-        verifyNoInteractions(itemRepository);
+        assertThat(result.content()).isEmpty();
+        assertThat(result.nextCursor()).isNull();
+        verifyNoInteractions(itemRepository, searchEngine);
     }
 
     @Test
@@ -226,7 +452,7 @@ class ItemServiceImplTest {
 
     @Test
     void updateItem_NotOwner_ShouldThrow() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(otherUser));
+        when(userCache.exists(2L)).thenReturn(true);
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
 
         assertThrows(ItemNotOwnedByUserException.class, () ->
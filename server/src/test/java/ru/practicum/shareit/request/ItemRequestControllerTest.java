@@ -8,6 +8,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestWithItemsDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -21,6 +22,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -81,14 +83,29 @@ class ItemRequestControllerTest {
 
     @Test
     void getAll_shouldReturnOtherUsersRequests() throws Exception {
-        when(itemRequestService.getAll(anyLong(), any(Integer.class), any(Integer.class)))
-                .thenReturn(List.of(itemRequestWithItemsDto));
+        when(itemRequestService.getAll(anyLong(), any(Integer.class), any(Integer.class), any()))
+                .thenReturn(new CursorPage<>(List.of(itemRequestWithItemsDto), null));
 
         mockMvc.perform(get("/requests/all")
                         .header("X-Sharer-User-Id", 1L)
                         .param("from", "0")
                         .param("size", "10"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$[0].id").value(1L));
+    }
+
+    @Test
+    void getAll_withCursor_shouldPassItAndReturnNextCursor() throws Exception {
+        when(itemRequestService.getAll(1L, 0, 2, "abc"))
+                .thenReturn(new CursorPage<>(List.of(itemRequestWithItemsDto), "next"));
+
+        mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "2")
+                        .param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
                 .andExpect(jsonPath("$[0].id").value(1L));
     }
 
@@ -129,7 +146,7 @@ class ItemRequestControllerTest {
     @Test
     void getAll_withInvalidPagination_shouldReturnBadRequest() throws Exception {
 
-        when(itemRequestService.getAll(anyLong(), eq(-1), any(Integer.class)))
+        when(itemRequestService.getAll(anyLong(), eq(-1), any(Integer.class), any()))
                 .thenThrow(new BadRequestException("Invalid pagination parameters"));
 
         mockMvc.perform(get("/requests/all")
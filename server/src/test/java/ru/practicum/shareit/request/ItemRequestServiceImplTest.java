@@ -6,8 +6,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.OffsetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestWithItemsDto;
 import ru.practicum.shareit.request.exception.ItemRequestNotFoundException;
@@ -15,12 +21,15 @@ import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
+import ru.practicum.shareit.request.service.RequestItemsLoader;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -30,8 +39,8 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.anyList;
-import static org.mockito.Mockito.argThat;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -47,6 +56,12 @@ class ItemRequestServiceImplTest {
     @Mock
     private ItemRequestMapper itemRequestMapper;
 
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private RequestItemsLoader requestItemsLoader;
+
     @InjectMocks
     private ItemRequestServiceImpl itemRequestService;
 
@@ -65,7 +80,8 @@ class ItemRequestServiceImplTest {
 
     @Test
     void create_shouldCreateItemRequest() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userCache.exists(1L)).thenReturn(true);
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
         when(itemRequestMapper.fromDto(any(ItemRequestDto.class), any(User.class), any(LocalDateTime.class)))
                 .thenReturn(itemRequest);
         when(itemRequestRepository.save(any(ItemRequest.class))).thenReturn(itemRequest);
@@ -79,18 +95,19 @@ class ItemRequestServiceImplTest {
 
     @Test
     void create_whenUserNotFound_shouldThrowException() {
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userCache.exists(1L)).thenReturn(false);
 
         assertThrows(UserNotFoundException.class,
                 () -> itemRequestService.create(1L, itemRequestDto));
+        verify(userRepository, never()).getReferenceById(1L);
     }
 
     @Test
     void getAllByUser_shouldReturnUserRequests() {
-        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userCache.exists(1L)).thenReturn(true);
         when(itemRequestRepository.findByRequesterIdOrderByCreatedDesc(1L))
                 .thenReturn(List.of(itemRequest));
-        when(itemRequestMapper.toDtoList(anyList())).thenReturn(List.of(itemRequestWithItemsDto));
+        when(requestItemsLoader.withItems(anyList())).thenReturn(List.of(itemRequestWithItemsDto));
 
         List<ItemRequestWithItemsDto> result = itemRequestService.getAllByUser(1L);
 
@@ -100,7 +117,7 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getAllByUser_whenUserNotFound_shouldThrowException() {
-        when(userRepository.existsById(1L)).thenReturn(false);
+        when(userCache.exists(1L)).thenReturn(false);
 
         assertThrows(UserNotFoundException.class,
                 () -> itemRequestService.getAllByUser(1L));
@@ -108,22 +125,23 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getAll_shouldReturnOtherUsersRequests() {
-        when(userRepository.existsById(1L)).thenReturn(true);
-        when(itemRequestRepository.findByRequesterIdNotOrderByCreatedDesc(eq(1L), any(PageRequest.class)))
-                .thenReturn(List.of(itemRequest));
-        when(itemRequestMapper.toDtoList(anyList())).thenReturn(List.of(itemRequestWithItemsDto));
+        when(userCache.exists(1L)).thenReturn(true);
+        when(itemRequestRepository.findByRequesterIdNotAndCreatedLessThanEqual(
+                eq(1L), any(), any(), any(), any(Sort.class)))
+                .thenReturn(window(List.of(itemRequest)));
+        when(requestItemsLoader.withItems(anyList())).thenReturn(List.of(itemRequestWithItemsDto));
 
-        List<ItemRequestWithItemsDto> result = itemRequestService.getAll(1L, 0, 10);
+        CursorPage<ItemRequestWithItemsDto> result = itemRequestService.getAll(1L, 0, 10, null);
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0)).isEqualTo(itemRequestWithItemsDto);
+        assertThat(result.content()).containsExactly(itemRequestWithItemsDto);
+        assertThat(result.nextCursor()).isNull();
     }
 
     @Test
     void getById_shouldReturnRequest() {
-        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userCache.exists(1L)).thenReturn(true);
         when(itemRequestRepository.findById(1L)).thenReturn(Optional.of(itemRequest));
-        when(itemRequestMapper.toDtoWithItems(any(ItemRequest.class))).thenReturn(itemRequestWithItemsDto);
+        when(requestItemsLoader.withItems(itemRequest)).thenReturn(itemRequestWithItemsDto);
 
         ItemRequestWithItemsDto result = itemRequestService.getById(1L, 1L);
 
@@ -132,7 +150,7 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getById_whenRequestNotFound_shouldThrowException() {
-        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userCache.exists(1L)).thenReturn(true);
         when(itemRequestRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(ItemRequestNotFoundException.class,
@@ -141,23 +159,25 @@ class ItemRequestServiceImplTest {
 
     @Test
     void getById_whenUserNotFound_shouldThrowException() {
-        when(userRepository.existsById(1L)).thenReturn(false);
+        when(userCache.exists(1L)).thenReturn(false);
 
         assertThrows(UserNotFoundException.class,
                 () -> itemRequestService.getById(1L, 1L));
     }
 
     @Test
-    void getAll_withPagination_shouldUseCorrectPage() {
-        when(userRepository.existsById(1L)).thenReturn(true);
-        when(itemRequestRepository.findByRequesterIdNotOrderByCreatedDesc(eq(1L), any(PageRequest.class)))
-                .thenReturn(List.of(itemRequest));
-        when(itemRequestMapper.toDtoList(anyList())).thenReturn(List.of(itemRequestWithItemsDto));
-
-        itemRequestService.getAll(1L, 10, 5);
-
-        verify(itemRequestRepository).findByRequesterIdNotOrderByCreatedDesc(eq(1L),
-                argThat(page -> page.getPageNumber() == 2 && page.getPageSize() == 5));
+    void getAll_withPagination_shouldSkipExactlyFromRows() {
+        when(userCache.exists(1L)).thenReturn(true);
+        when(itemRequestRepository.findByRequesterIdNotAndCreatedLessThanEqual(
+                eq(1L), any(), any(), any(), any(Sort.class)))
+                .thenReturn(window(List.of(itemRequest)));
+        when(requestItemsLoader.withItems(anyList())).thenReturn(List.of(itemRequestWithItemsDto));
+
+        itemRequestService.getAll(1L, 7, 5, null);
+
+        // from=7 is not a multiple of size=5: rows 8..12 are returned, not the second page of five
+        verify(itemRequestRepository).findByRequesterIdNotAndCreatedLessThanEqual(eq(1L), any(),
+                eq(ScrollPosition.offset(6)), eq(Limit.of(5)), eq(Sort.by(Sort.Direction.DESC, "created", "id")));
     }
 
     @Test
@@ -167,85 +187,77 @@ class ItemRequestServiceImplTest {
         int from = 0;
         int size = 10;
 
-        when(userRepository.existsById(userId)).thenReturn(true);
-        when(itemRequestRepository.findByRequesterIdNotOrderByCreatedDesc(eq(userId), any(Pageable.class)))
-                .thenReturn(List.of(new ItemRequest()));
-        when(itemRequestMapper.toDtoList(anyList()))
+        when(userCache.exists(userId)).thenReturn(true);
+        when(itemRequestRepository.findByRequesterIdNotAndCreatedLessThanEqual(
+                eq(userId), any(), any(), any(), any(Sort.class)))
+                .thenReturn(window(List.of(new ItemRequest())));
+        when(requestItemsLoader.withItems(anyList()))
                 .thenReturn(List.of(new ItemRequestWithItemsDto()));
 
         // When
-        List<ItemRequestWithItemsDto> result = itemRequestService.getAll(userId, from, size);
+        CursorPage<ItemRequestWithItemsDto> result = itemRequestService.getAll(userId, from, size, null);
 
         // Then
         assertNotNull(result);
-        assertFalse(result.isEmpty());
-        verify(itemRequestRepository).findByRequesterIdNotOrderByCreatedDesc(
-                eq(userId),
-                argThat(page -> page.getPageNumber() == 0 && page.getPageSize() == 10)
-        );
+        assertFalse(result.content().isEmpty());
+        verify(itemRequestRepository).findByRequesterIdNotAndCreatedLessThanEqual(eq(userId), any(),
+                eq(ScrollPosition.offset()), eq(Limit.of(10)), any(Sort.class));
     }
 
     @Test
-    void getAll_WithDifferentPagination_ShouldUseCorrectPage() {
+    void getAll_FullPage_ShouldReturnKeysetCursorOfLastRow() {
         // Given
-        Long userId = 1L;
-        int from = 20;
-        int size = 5;
+        Long userId = 2L;
+        Window<ItemRequest> page = Window.from(List.of(itemRequest), OffsetScrollPosition.positionFunction(0), true);
 
-        when(userRepository.existsById(userId)).thenReturn(true);
-        when(itemRequestRepository.findByRequesterIdNotOrderByCreatedDesc(eq(userId), any(Pageable.class)))
-                .thenReturn(List.of(new ItemRequest()));
-        when(itemRequestMapper.toDtoList(anyList()))
-                .thenReturn(List.of(new ItemRequestWithItemsDto()));
+        when(userCache.exists(userId)).thenReturn(true);
+        when(itemRequestRepository.findByRequesterIdNotAndCreatedLessThanEqual(
+                eq(userId), any(), any(), eq(Limit.of(1)), any(Sort.class)))
+                .thenReturn(page);
+        when(requestItemsLoader.withItems(anyList())).thenReturn(List.of(itemRequestWithItemsDto));
 
         // When
-        itemRequestService.getAll(userId, from, size);
+        CursorPage<ItemRequestWithItemsDto> result = itemRequestService.getAll(userId, 0, 1, null);
 
-        // Then - should calculate page correctly: from=20, size=5 → page=4
-        verify(itemRequestRepository).findByRequesterIdNotOrderByCreatedDesc(
-                eq(userId),
-                argThat(page -> page.getPageNumber() == 4 && page.getPageSize() == 5)
-        );
+        // Then
+        KeysetCursor cursor = KeysetCursor.decode(result.nextCursor());
+        assertThat(cursor.timestamp()).isEqualTo(itemRequest.getCreated());
+        assertThat(cursor.id()).isEqualTo(itemRequest.getId());
     }
 
-//    @Test
-//    void getAll_WithZeroSize_ShouldUseDefaultPagination() {
-//        // Given
-//        Long userId = 1L;
-//        int from = 0;
-//        int size = 0; // Invalid size
-//
-//        when(userRepository.existsById(userId)).thenReturn(true);
-//        when(itemRequestRepository.findByRequesterIdNotOrderByCreatedDesc(eq(userId), any(Pageable.class)))
-//                .thenReturn(List.of(new ItemRequest()));
-//        when(itemRequestMapper.toDtoList(anyList()))
-//                .thenReturn(List.of(new ItemRequestWithItemsDto()));
-//
-//        // When
-//        List<ItemRequestWithItemsDto> result = itemRequestService.getAll(userId, from, size);
-//
-//        // Then - should handle zero size gracefully
-//        assertNotNull(result);
-//    }
-
     @Test
-    void getAll_WithNegativeFrom_ShouldUseDefaultPagination() {
+    void getAll_WithCursor_ShouldScrollFromKeyset() {
         // Given
         Long userId = 1L;
-        int from = -1; // Negative from
-        int size = 10;
+        LocalDateTime created = LocalDateTime.of(2030, 1, 1, 10, 0);
+        String cursor = new KeysetCursor(created, 5L).encode();
 
-        when(userRepository.existsById(userId)).thenReturn(true);
-        when(itemRequestRepository.findByRequesterIdNotOrderByCreatedDesc(eq(userId), any(Pageable.class)))
-                .thenReturn(List.of(new ItemRequest()));
-        when(itemRequestMapper.toDtoList(anyList()))
-                .thenReturn(List.of(new ItemRequestWithItemsDto()));
+        when(userCache.exists(userId)).thenReturn(true);
+        when(itemRequestRepository.findByRequesterIdNotAndCreatedLessThanEqual(eq(userId), eq(created),
+                eq(ScrollPosition.forward(Map.of("created", created, "id", 5L))), any(), any(Sort.class)))
+                .thenReturn(window(List.of()));
+        when(requestItemsLoader.withItems(anyList())).thenReturn(List.of());
 
         // When
-        List<ItemRequestWithItemsDto> result = itemRequestService.getAll(userId, from, size);
+        CursorPage<ItemRequestWithItemsDto> result = itemRequestService.getAll(userId, 0, 10, cursor);
 
-        // Then - should handle negative from gracefully
-        assertNotNull(result);
+        // Then
+        assertTrue(result.content().isEmpty());
+        assertThat(result.nextCursor()).isNull();
+    }
+
+    @Test
+    void getAll_WithInvalidPaging_ShouldThrowBadRequest() {
+        // Given
+        Long userId = 1L;
+
+        when(userCache.exists(userId)).thenReturn(true);
+
+        // When & Then
+        assertThrows(BadRequestException.class, () -> itemRequestService.getAll(userId, -1, 10, null));
+        assertThrows(BadRequestException.class, () -> itemRequestService.getAll(userId, 0, 0, null));
+        assertThrows(BadRequestException.class, () -> itemRequestService.getAll(userId, 0, 10, "%%%"));
+        assertThrows(BadRequestException.class, () -> itemRequestService.getAll(userId, 0, 101, null));
     }
 
     @Test
@@ -255,18 +267,19 @@ class ItemRequestServiceImplTest {
         int from = 0;
         int size = 10;
 
-        when(userRepository.existsById(userId)).thenReturn(true);
-        when(itemRequestRepository.findByRequesterIdNotOrderByCreatedDesc(eq(userId), any(Pageable.class)))
-                .thenReturn(List.of()); // Empty list
+        when(userCache.exists(userId)).thenReturn(true);
+        when(itemRequestRepository.findByRequesterIdNotAndCreatedLessThanEqual(
+                eq(userId), any(), any(), any(), any(Sort.class)))
+                .thenReturn(window(List.of())); // Empty list
 
-        when(itemRequestMapper.toDtoList(anyList())).thenReturn(List.of());
+        when(requestItemsLoader.withItems(anyList())).thenReturn(List.of());
 
         // When
-        List<ItemRequestWithItemsDto> result = itemRequestService.getAll(userId, from, size);
+        CursorPage<ItemRequestWithItemsDto> result = itemRequestService.getAll(userId, from, size, null);
 
         // Then
         assertNotNull(result);
-        assertTrue(result.isEmpty());
+        assertTrue(result.content().isEmpty());
     }
 
     @Test
@@ -276,11 +289,15 @@ class ItemRequestServiceImplTest {
         int from = 0;
         int size = 10;
 
-        when(userRepository.existsById(userId)).thenReturn(false);
+        when(userCache.exists(userId)).thenReturn(false);
 
         // When & Then
         assertThrows(UserNotFoundException.class, () ->
-                itemRequestService.getAll(userId, from, size)
+                itemRequestService.getAll(userId, from, size, null)
         );
     }
+
+    private Window<ItemRequest> window(List<ItemRequest> requests) {
+        return Window.from(requests, OffsetScrollPosition.positionFunction(0));
+    }
 }
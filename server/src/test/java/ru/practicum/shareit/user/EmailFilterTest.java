@@ -0,0 +1,144 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import ru.practicum.shareit.user.dto.UserShort;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.EmailFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EmailFilterTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Runnable> rebuilds = new ArrayList<>();
+
+    @Test
+    void mightContain_BeforeLoad_ShouldReportEveryEmailAsPossible() {
+        EmailFilter filter = filter();
+
+        assertThat(filter.mightContain("anyone@email.com")).isTrue();
+    }
+
+    @Test
+    void load_ShouldKeepEveryEmailAcrossGrowth() {
+        List<String> emails = emails("user", 5000);
+        storedEmails(emails);
+        EmailFilter filter = filter();
+
+        filter.load();
+
+        assertThat(emails).allMatch(filter::mightContain);
+        assertThat(meterRegistry.get("users.email.filter").tag("result", "possible").counter().count())
+                .isEqualTo(emails.size());
+    }
+
+    @Test
+    void mightContain_ForUnknownEmails_ShouldStayUnderFalsePositiveRate() {
+        storedEmails(emails("user", 5000));
+        EmailFilter filter = filter();
+        filter.load();
+
+        long falsePositives = emails("stranger", 20000).stream().filter(filter::mightContain).count();
+
+        // 1% requested; the bound holds for the whole series of slices
+        assertThat(falsePositives).isLessThan(200);
+    }
+
+    @Test
+    void added_BeforeAndAfterLoad_ShouldBeKept() {
+        storedEmails(List.of());
+        EmailFilter filter = filter();
+
+        filter.added("early@email.com");
+        filter.load();
+        filter.added("late@email.com");
+
+        assertThat(filter.mightContain("early@email.com")).isTrue();
+        assertThat(filter.mightContain("late@email.com")).isTrue();
+        assertThat(filter.mightContain("never@email.com")).isFalse();
+    }
+
+    @Test
+    void removed_WhenHalfTheEntriesAreStale_ShouldRebuildFromDatabase() {
+        storedEmails(emails("user", 4));
+        EmailFilter filter = filter();
+        filter.load();
+
+        filter.removed();
+        filter.removed();
+        assertThat(rebuilds).isEmpty();
+        filter.removed();
+        filter.added("during@email.com");
+        assertThat(rebuilds).hasSize(1);
+
+        storedEmails(emails("user", 1));
+        rebuilds.get(0).run();
+
+        assertThat(filter.mightContain("user0@email.com")).isTrue();
+        assertThat(filter.mightContain("during@email.com")).isTrue();
+        verify(userRepository, times(2)).findBy(any(), any(), any());
+    }
+
+    private EmailFilter filter() {
+        return new EmailFilter(userRepository, meterRegistry, 1000, 0.01, rebuilds::add);
+    }
+
+    private void storedEmails(List<String> emails) {
+        doAnswer(call -> {
+            KeysetScrollPosition position = call.getArgument(0);
+            int limit = call.<Limit>getArgument(1).max();
+            int from = position.isInitial() ? 0 : ((Long) position.getKeys().get("id")).intValue();
+            List<UserShort> page = IntStream.range(from, Math.min(from + limit, emails.size()))
+                    .mapToObj(i -> user(i + 1L, emails.get(i)))
+                    .toList();
+            return Window.from(page, i -> ScrollPosition.forward(Map.of("id", page.get(i).getId())),
+                    from + limit < emails.size());
+        }).when(userRepository).findBy(any(ScrollPosition.class), any(Limit.class), any(Sort.class));
+    }
+
+    private static List<String> emails(String prefix, int count) {
+        return IntStream.range(0, count).mapToObj(i -> prefix + i + "@email.com").toList();
+    }
+
+    private static UserShort user(Long id, String email) {
+        return new UserShort() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return "User" + id;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+}
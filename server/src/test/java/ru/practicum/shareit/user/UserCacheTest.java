@@ -0,0 +1,159 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final UserMapper userMapper = Mappers.getMapper(UserMapper.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong();
+
+    private UserCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserCache(userRepository, userMapper, meterRegistry, Duration.ofSeconds(10), 2, now::get);
+    }
+
+    @Test
+    void find_ShouldReadThroughOnceAndCountHitsAndMisses() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L)));
+
+        assertThat(cache.find(1L)).contains(new UserDto(1L, "User1", "user1@email.com"));
+        assertThat(cache.exists(1L)).isTrue();
+        assertThat(cache.exists(1L)).isTrue();
+
+        verify(userRepository, times(1)).findById(1L);
+        assertThat(gets("hit")).isEqualTo(2);
+        assertThat(gets("miss")).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.size").tag("cache", "users").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void find_ShouldNotCacheUnknownUsers() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty(), Optional.of(user(1L)));
+
+        assertThat(cache.exists(1L)).isFalse();
+        assertThat(cache.exists(1L)).isTrue();
+        assertThat(gets("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void find_ShouldReloadAfterTtl() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L)));
+
+        cache.find(1L);
+        now.addAndGet(Duration.ofSeconds(9).toNanos());
+        cache.find(1L);
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        cache.find(1L);
+
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void find_ShouldDropLeastRecentlyUsedBeyondMaxSize() {
+        for (long id = 1; id <= 3; id++) {
+            when(userRepository.findById(id)).thenReturn(Optional.of(user(id)));
+        }
+
+        cache.find(1L);
+        cache.find(2L);
+        cache.find(1L);
+        cache.find(3L);
+        cache.find(1L);
+        cache.find(2L);
+
+        assertThat(cache.size()).isEqualTo(2);
+        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, times(2)).findById(2L);
+        assertThat(meterRegistry.get("cache.evictions").tag("cache", "users").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void find_ShouldReturnCopiesOfCachedProfile() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L)));
+
+        cache.find(1L).orElseThrow().setName("Changed");
+
+        assertThat(cache.find(1L)).map(UserDto::getName).contains("User1");
+    }
+
+    @Test
+    void evict_ShouldForceReload() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L)));
+
+        cache.find(1L);
+        cache.evict(1L);
+        cache.find(1L);
+
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void find_InTransaction_ShouldStoreOnlyAfterCommit() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.find(1L);
+            assertThat(cache.size()).isZero();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void find_RacingWithEvict_ShouldNotStoreStaleProfile() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.find(1L);
+            cache.evict(2L);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(cache.size()).isZero();
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "users").tag("result", result).counter().count();
+    }
+
+    private static User user(Long id) {
+        return new User(id, "User" + id, "user" + id + "@email.com");
+    }
+}
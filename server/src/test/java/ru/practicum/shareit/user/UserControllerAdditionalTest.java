@@ -7,6 +7,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.user.dto.CreateUserRequestDto;
 import ru.practicum.shareit.user.dto.UpdateUserRequestDto;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -18,7 +19,6 @@ import java.util.Collections;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
@@ -42,14 +42,14 @@ class UserControllerAdditionalTest {
 
     @Test
     void getAllUsers_WhenNoUsers_ShouldReturnEmptyList() throws Exception {
-        when(userService.getAll()).thenReturn(Collections.emptyList());
+        when(userService.getAll(0, 10, null)).thenReturn(new CursorPage<>(Collections.emptyList(), null));
 
         mockMvc.perform(get("/users"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$").isEmpty());
 
-        verify(userService).getAll();
+        verify(userService).getAll(0, 10, null);
     }
 
     @Test
@@ -107,7 +107,7 @@ class UserControllerAdditionalTest {
 
     @Test
     void deleteUser_ShouldReturnNoContent() throws Exception {
-        doNothing().when(userService).delete(1L);
+        when(userService.delete(1L)).thenReturn(true);
 
         mockMvc.perform(delete("/users/1"))
                 .andExpect(status().isNoContent());
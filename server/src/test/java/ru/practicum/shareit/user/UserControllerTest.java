@@ -24,10 +24,12 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.pagination.CursorPage;
 
 @WebMvcTest(UserController.class)
 class UserControllerTest {
@@ -60,15 +62,28 @@ class UserControllerTest {
 
     @Test
     void getAllUsers_shouldReturnListOfUsers() throws Exception {
-        when(userService.getAll()).thenReturn(List.of(userDto));
+        when(userService.getAll(0, 10, null)).thenReturn(new CursorPage<>(List.of(userDto), null));
 
         mockMvc.perform(get("/users"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].name").value("Test User"))
                 .andExpect(jsonPath("$[0].email").value("test@email.com"));
     }
 
+    @Test
+    void getAllUsers_withCursor_shouldPassItAndReturnNextCursor() throws Exception {
+        when(userService.getAll(0, 500, "abc")).thenReturn(new CursorPage<>(List.of(userDto), "next"));
+
+        mockMvc.perform(get("/users")
+                        .param("size", "500")
+                        .param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("$[0].id").value(1L));
+    }
+
     @Test
     void getUserById_shouldReturnUser() throws Exception {
         when(userService.getById(1L)).thenReturn(userDto);
@@ -170,12 +185,20 @@ class UserControllerTest {
 
     @Test
     void deleteUser_shouldDeleteUserSuccessfully() throws Exception {
-        doNothing().when(userService).delete(1L);
+        when(userService.delete(1L)).thenReturn(true);
 
         mockMvc.perform(delete("/users/1"))
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void deleteUser_withLargeHistory_shouldReturnAccepted() throws Exception {
+        when(userService.delete(1L)).thenReturn(false);
+
+        mockMvc.perform(delete("/users/1"))
+                .andExpect(status().isAccepted());
+    }
+
     @Test
     void deleteUser_withNonExistentId_shouldReturnNotFound() throws Exception {
         doThrow(new UserNotFoundException("User not found")).when(userService).delete(999L);
@@ -6,6 +6,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.OffsetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.user.dto.CreateUserRequestDto;
 import ru.practicum.shareit.user.dto.UpdateUserRequestDto;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -14,20 +21,25 @@ import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.EmailFilter;
+import ru.practicum.shareit.user.service.UserCache;
+import ru.practicum.shareit.user.service.UserDeletion;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
 import java.util.Collections;
-import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -40,31 +52,42 @@ class UserServiceImplAdditionalTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private EmailFilter emailFilter;
+
+    @Mock
+    private UserDeletion userDeletion;
+
     @InjectMocks
     private UserServiceImpl userService;
 
     @Test
     void getAll_WhenNoUsers_ShouldReturnEmptyList() {
-        when(userRepository.findAll()).thenReturn(Collections.emptyList());
+        when(userRepository.findBy(eq(ScrollPosition.offset()), eq(Limit.of(10)), any(Sort.class)))
+                .thenReturn(Window.from(Collections.emptyList(), OffsetScrollPosition.positionFunction(0)));
 
-        List<UserDto> result = userService.getAll();
+        CursorPage<UserDto> result = userService.getAll(0, 10, null);
 
         assertNotNull(result);
-        assertTrue(result.isEmpty());
-        verify(userRepository).findAll();
+        assertTrue(result.content().isEmpty());
+        assertNull(result.nextCursor());
     }
 
     @Test
-    void getById_WhenUserExists_ShouldReturnUserDto() {
-        User user = new User();
-        user.setId(1L);
-        user.setName("Test User");
-        user.setEmail("test@email.com");
+    void getAll_WhenSizeExceedsMaximum_ShouldThrowBadRequestException() {
+        assertThrows(BadRequestException.class, () -> userService.getAll(0, 1001, null));
+
+        verifyNoInteractions(userRepository);
+    }
 
+    @Test
+    void getById_WhenUserExists_ShouldReturnUserDto() {
         UserDto userDto = new UserDto(1L, "Test User", "test@email.com");
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(userMapper.toUserDto(user)).thenReturn(userDto);
+        when(userCache.find(1L)).thenReturn(Optional.of(userDto));
 
         UserDto result = userService.getById(1L);
 
@@ -85,12 +108,12 @@ class UserServiceImplAdditionalTest {
         user.setEmail("existing@email.com");
 
         when(userMapper.fromCreateDto(createDto)).thenReturn(user);
-        when(userRepository.save(user)).thenThrow(DataIntegrityViolationException.class);
+        when(userRepository.saveAndFlush(user)).thenThrow(DataIntegrityViolationException.class);
 
         assertThrows(UserAlreadyExistsException.class, () ->
                 userService.create(createDto));
 
-        verify(userRepository).save(user);
+        verify(userRepository).saveAndFlush(user);
     }
 
     @Test
@@ -124,6 +147,7 @@ class UserServiceImplAdditionalTest {
         otherUser.setEmail("existing@email.com");
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(currentUser));
+        when(emailFilter.mightContain("existing@email.com")).thenReturn(true);
         when(userRepository.findByEmail("existing@email.com")).thenReturn(Optional.of(otherUser));
 
         assertThrows(UserAlreadyExistsException.class, () ->
@@ -186,6 +210,7 @@ class UserServiceImplAdditionalTest {
         UserDto expectedDto = new UserDto(1L, "Original Name", "updated@email.com");
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+        when(emailFilter.mightContain("updated@email.com")).thenReturn(true);
         when(userRepository.findByEmail("updated@email.com")).thenReturn(Optional.empty());
         doNothing().when(userMapper).updateFromDto(updateDto, existingUser);
         when(userRepository.save(existingUser)).thenReturn(updatedUser);
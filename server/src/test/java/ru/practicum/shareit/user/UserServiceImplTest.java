@@ -7,14 +7,25 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.OffsetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.IdCursor;
 import ru.practicum.shareit.user.dto.CreateUserRequestDto;
 import ru.practicum.shareit.user.dto.UpdateUserRequestDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserShort;
 import ru.practicum.shareit.user.exception.UserAlreadyExistsException;
 import ru.practicum.shareit.user.exception.UserNotFoundException;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.EmailFilter;
+import ru.practicum.shareit.user.service.UserCache;
+import ru.practicum.shareit.user.service.UserDeletion;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
 import java.util.List;
@@ -23,9 +34,12 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +51,15 @@ class UserServiceImplTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private EmailFilter emailFilter;
+
+    @Mock
+    private UserDeletion userDeletion;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -64,55 +87,132 @@ class UserServiceImplTest {
     }
 
     @Test
-    void getAll_shouldReturnListOfUsers() {
-        when(userRepository.findAll()).thenReturn(List.of(user));
-        when(userMapper.toUserDto(user)).thenReturn(userDto);
+    void getAll_shouldReturnPageOfUsers() {
+        UserShort row = mock(UserShort.class);
+        when(userRepository.findBy(eq(ScrollPosition.offset(4)), eq(Limit.of(10)), any(Sort.class)))
+                .thenReturn(Window.from(List.of(row), OffsetScrollPosition.positionFunction(0)));
+        when(userMapper.fromShort(row)).thenReturn(userDto);
+
+        CursorPage<UserDto> result = userService.getAll(5, 10, null);
+
+        assertThat(result.content()).containsExactly(userDto);
+        assertThat(result.nextCursor()).isNull();
+    }
+
+    @Test
+    void getAll_fullPage_shouldReturnIdCursorOfLastRow() {
+        UserShort row = mock(UserShort.class);
+        when(userRepository.findBy(eq(ScrollPosition.offset()), eq(Limit.of(1)), any(Sort.class)))
+                .thenReturn(Window.from(List.of(row), OffsetScrollPosition.positionFunction(0), true));
+        when(userMapper.fromShort(row)).thenReturn(userDto);
 
-        List<UserDto> result = userService.getAll();
+        CursorPage<UserDto> result = userService.getAll(0, 1, null);
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0)).isEqualTo(userDto);
-        verify(userRepository).findAll();
+        assertThat(IdCursor.decode(result.nextCursor()).id()).isEqualTo(userDto.getId());
+    }
+
+    @Test
+    void getAll_withCursor_shouldScrollFromKeyset() {
+        when(userRepository.findBy(eq(new IdCursor(7L).toScrollPosition()), eq(Limit.of(10)), any(Sort.class)))
+                .thenReturn(Window.from(List.of(), OffsetScrollPosition.positionFunction(0)));
+
+        CursorPage<UserDto> result = userService.getAll(0, 10, new IdCursor(7L).encode());
+
+        assertThat(result.content()).isEmpty();
     }
 
     @Test
     void getById_shouldReturnUser() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(userMapper.toUserDto(user)).thenReturn(userDto);
+        when(userCache.find(1L)).thenReturn(Optional.of(userDto));
 
         UserDto result = userService.getById(1L);
 
         assertThat(result).isEqualTo(userDto);
-        verify(userRepository).findById(1L);
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     void getById_withNonExistentId_shouldThrowException() {
-        when(userRepository.findById(999L)).thenReturn(Optional.empty());
+        when(userCache.find(999L)).thenReturn(Optional.empty());
 
         assertThrows(UserNotFoundException.class, () -> userService.getById(999L));
-        verify(userRepository).findById(999L);
+        verify(userCache).find(999L);
     }
 
     @Test
     void create_shouldCreateUserSuccessfully() {
         when(userMapper.fromCreateDto(createUserRequestDto)).thenReturn(user);
-        when(userRepository.save(user)).thenReturn(user);
+        when(userRepository.saveAndFlush(user)).thenReturn(user);
         when(userMapper.toUserDto(user)).thenReturn(userDto);
 
         UserDto result = userService.create(createUserRequestDto);
 
         assertThat(result).isEqualTo(userDto);
-        verify(userRepository).save(user);
+        verify(userRepository).saveAndFlush(user);
     }
 
     @Test
     void create_withDuplicateEmail_shouldThrowException() {
         when(userMapper.fromCreateDto(createUserRequestDto)).thenReturn(user);
-        when(userRepository.save(user)).thenThrow(DataIntegrityViolationException.class);
+        when(userRepository.saveAndFlush(user)).thenThrow(DataIntegrityViolationException.class);
 
         assertThrows(UserAlreadyExistsException.class, () -> userService.create(createUserRequestDto));
-        verify(userRepository).save(user);
+        verify(userRepository).saveAndFlush(user);
+    }
+
+    @Test
+    void create_withEmailInFilter_shouldCheckDatabaseBeforeInsert() {
+        when(emailFilter.mightContain("test@email.com")).thenReturn(true);
+        when(userRepository.findByEmail("test@email.com")).thenReturn(Optional.of(user));
+
+        assertThrows(UserAlreadyExistsException.class, () -> userService.create(createUserRequestDto));
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void create_withEmailNotInFilter_shouldSkipLookup() {
+        when(userMapper.fromCreateDto(createUserRequestDto)).thenReturn(user);
+        when(userRepository.saveAndFlush(user)).thenReturn(user);
+        when(userMapper.toUserDto(user)).thenReturn(userDto);
+
+        userService.create(createUserRequestDto);
+
+        verify(emailFilter).mightContain("test@email.com");
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    void update_withEmailNotInFilter_shouldSkipLookupAndReportReplacedEmail() {
+        User updatedUser = new User();
+        updatedUser.setId(1L);
+        updatedUser.setName("Updated User");
+        updatedUser.setEmail("updated@email.com");
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        doNothing().when(userMapper).updateFromDto(updateUserRequestDto, user);
+        when(userRepository.save(user)).thenReturn(updatedUser);
+        when(userMapper.toUserDto(updatedUser)).thenReturn(userDto);
+
+        userService.update(1L, updateUserRequestDto);
+
+        verify(userRepository, never()).findByEmail(any());
+        verify(emailFilter).added("updated@email.com");
+        verify(emailFilter).removed();
+    }
+
+    @Test
+    void update_withNameOnly_shouldLeaveEmailFilterAlone() {
+        UpdateUserRequestDto nameOnly = new UpdateUserRequestDto(null, "Renamed User");
+        User renamedUser = new User(1L, "Renamed User", "test@email.com");
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        doNothing().when(userMapper).updateFromDto(nameOnly, user);
+        when(userRepository.save(user)).thenReturn(renamedUser);
+        when(userMapper.toUserDto(renamedUser)).thenReturn(new UserDto(1L, "Renamed User", "test@email.com"));
+
+        userService.update(1L, nameOnly);
+
+        verifyNoInteractions(emailFilter);
     }
 
     @Test
@@ -125,6 +225,7 @@ class UserServiceImplTest {
         UserDto updatedUserDto = new UserDto(1L, "Updated User", "updated@email.com");
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(emailFilter.mightContain("updated@email.com")).thenReturn(true);
         when(userRepository.findByEmail("updated@email.com")).thenReturn(Optional.empty());
         doNothing().when(userMapper).updateFromDto(updateUserRequestDto, user);
         when(userRepository.save(user)).thenReturn(updatedUser);
@@ -136,6 +237,7 @@ class UserServiceImplTest {
         verify(userRepository).findById(1L);
         verify(userRepository).findByEmail("updated@email.com");
         verify(userRepository).save(user);
+        verify(userCache).evict(1L);
     }
 
     @Test
@@ -155,6 +257,7 @@ class UserServiceImplTest {
         otherUser.setEmail("updated@email.com");
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(emailFilter.mightContain("updated@email.com")).thenReturn(true);
         when(userRepository.findByEmail("updated@email.com")).thenReturn(Optional.of(otherUser));
 
         assertThrows(UserAlreadyExistsException.class, () -> userService.update(1L, updateUserRequestDto));
@@ -176,6 +279,7 @@ class UserServiceImplTest {
         UserDto updatedUserDto = new UserDto(1L, "Test User", "updated@email.com");
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(emailFilter.mightContain("updated@email.com")).thenReturn(true);
         when(userRepository.findByEmail("updated@email.com")).thenReturn(Optional.empty());
         doNothing().when(userMapper).updateFromDto(partialUpdate, user);
         when(userRepository.save(user)).thenReturn(updatedUser);
@@ -189,4 +293,40 @@ class UserServiceImplTest {
         verify(userRepository).findByEmail("updated@email.com");
         verify(userRepository).save(user);
     }
+
+    @Test
+    void delete_withoutLargeHistory_shouldDeleteAtOnce() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userDeletion.deleteChunk(1L)).thenReturn(true);
+
+        assertThat(userService.delete(1L)).isTrue();
+        verify(userCache).evict(1L);
+        verify(userDeletion, never()).continueInBackground(any());
+    }
+
+    @Test
+    void delete_withLargeHistory_shouldContinueInBackground() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userDeletion.deleteChunk(1L)).thenReturn(false);
+
+        assertThat(userService.delete(1L)).isFalse();
+        verify(userDeletion).continueInBackground(1L);
+    }
+
+    @Test
+    void delete_whileDeletingInBackground_shouldNotDeleteAgain() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userDeletion.isInBackground(1L)).thenReturn(true);
+
+        assertThat(userService.delete(1L)).isFalse();
+        verify(userDeletion, never()).deleteChunk(any());
+    }
+
+    @Test
+    void delete_withNonExistentId_shouldThrowNotFound() {
+        when(userRepository.existsById(999L)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () -> userService.delete(999L));
+        verifyNoInteractions(userDeletion);
+    }
 }